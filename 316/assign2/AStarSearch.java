@@ -1,6 +1,9 @@
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 /**
  * Algorithms for implementing both A* search and a bidirectional A* search.
@@ -17,20 +20,32 @@ public class AStarSearch
     /**
      * Performs a bidirectional A* search for a path between the initial state and the goal state of 'problem'.
      * 
+     * Each search keeps the set of states it has reached, so finding whether a new state has been reached by the
+     * other search takes a single hash lookup.
+     * 
      * @param problem The problem of which the bidirectional A* search is attempting to find a solution.
      * 
      * @return The node last visited if the search was successful, null otherwise.
      */
     public static Node bidirectionalSearch(Problem problem)
     {
-        List visitedStatesA = new ArrayList();
-        List fringeA = new ArrayList();
+        Set<State> visitedStatesA = new HashSet<State>();
+        Set<State> reachedStatesA = new HashSet<State>();
+        PriorityQueue<Node> fringeA = new PriorityQueue<Node>();
         fringeA.add(new Node(null, problem.getInitialState(), State.NONE));
-        List visitedStatesB = new ArrayList();
-        List fringeB = new ArrayList();
+        reachedStatesA.add(problem.getInitialState());
+        Set<State> visitedStatesB = new HashSet<State>();
+        Set<State> reachedStatesB = new HashSet<State>();
+        PriorityQueue<Node> fringeB = new PriorityQueue<Node>();
         fringeB.add(new Node(null, problem.getGoalState(), State.NONE));
+        reachedStatesB.add(problem.getGoalState());
         nodesGenerated = 2;
 
+        if (reachedStatesA.contains(problem.getGoalState()))
+        {
+            return (fringeA.peek());
+        }
+
         Node currentNode;
         List newStates;
         List successors;
@@ -38,12 +53,10 @@ public class AStarSearch
         while (!fringeA.isEmpty() && !fringeB.isEmpty())
         {
             // A* search starting at the initial state.
-            if (!fringeA.isEmpty())
-            {
-                currentNode = (Node) fringeA.remove(0);
-
-                visitedStatesA.add(currentNode);
+            currentNode = fringeA.remove();
 
+            if (visitedStatesA.add(currentNode.getState()))
+            {
                 successors = currentNode.getChildren();
                 nodesGenerated += successors.size();
 
@@ -51,7 +64,9 @@ public class AStarSearch
 
                 for (int index = 0; index < newStates.size(); index++)
                 {
-                    if (fringeB.contains((Node) newStates.get(index)))
+                    State newState = ((Node) newStates.get(index)).getState();
+                    reachedStatesA.add(newState);
+                    if (reachedStatesB.contains(newState))
                     {
                         return (currentNode);
                     }
@@ -61,20 +76,23 @@ public class AStarSearch
             // A* search starting at the goal state.
             if (!fringeB.isEmpty())
             {
-                currentNode = (Node) fringeB.remove(0);
+                currentNode = fringeB.remove();
 
-                visitedStatesB.add(currentNode);
-
-                successors = currentNode.getChildren();
-                nodesGenerated += successors.size();
+                if (visitedStatesB.add(currentNode.getState()))
+                {
+                    successors = currentNode.getChildren();
+                    nodesGenerated += successors.size();
 
-                newStates = insertNewStates(fringeB, successors, visitedStatesB);
+                    newStates = insertNewStates(fringeB, successors, visitedStatesB);
 
-                for (int index = 0; index < newStates.size(); index++)
-                {
-                    if (fringeA.contains((Node) newStates.get(index)))
+                    for (int index = 0; index < newStates.size(); index++)
                     {
-                        return (currentNode);
+                        State newState = ((Node) newStates.get(index)).getState();
+                        reachedStatesB.add(newState);
+                        if (reachedStatesA.contains(newState))
+                        {
+                            return (currentNode);
+                        }
                     }
                 }
             }
@@ -87,13 +105,13 @@ public class AStarSearch
      * Inserts any nodes in 'newNodes' that contain states which have not already been visited during this search into
      * 'nodes'.
      * 
-     * @param nodes The list to insert any nodes containing states not previously visited.
+     * @param nodes The fringe to insert any nodes containing states not previously visited.
      * @param newNodes The nodes to insert into 'nodes' if they contain states not previously visited.
      * @param visitedStates The states which have already been visited.
      * 
      * @return A list containing all nodes in 'newNodes' that were successfully inserted into 'nodes'.
      */
-    private static List insertNewStates(List nodes, List newNodes, List visitedStates)
+    private static List insertNewStates(PriorityQueue<Node> nodes, List newNodes, Set<State> visitedStates)
     {
         Iterator newNodeIter = newNodes.iterator();
         Node currentNode;
@@ -103,9 +121,9 @@ public class AStarSearch
         {
             currentNode = (Node) newNodeIter.next();
 
-            if (!visitedStates.contains(currentNode))
+            if (!visitedStates.contains(currentNode.getState()))
             {
-                Node.addInOrder(nodes, currentNode);
+                nodes.add(currentNode);
                 insertedNodes.add(currentNode);
             }
         }
@@ -143,14 +161,17 @@ public class AStarSearch
     /**
      * Performs an A* search for a path between the initial state and the goal state of 'problem'.
      * 
+     * The fringe is a binary heap ordered by 'Node.compareTo' and the visited states are kept in a hash set. A state
+     * can be on the fringe more than once; only the first of its nodes to be removed from the fringe is expanded.
+     * 
      * @param problem The problem of which the A* search is attempting to find a solution.
      * 
      * @return The node last visited if the search was successful, null otherwise.
      */
     public static Node search(Problem problem)
     {
-        List visitedStates = new ArrayList();
-        List fringe = new ArrayList();
+        Set<State> visitedStates = new HashSet<State>();
+        PriorityQueue<Node> fringe = new PriorityQueue<Node>();
         fringe.add(new Node(null, problem.getInitialState(), State.NONE));
         nodesGenerated = 1;
 
@@ -159,14 +180,17 @@ public class AStarSearch
 
         while (!fringe.isEmpty())
         {
-            currentNode = (Node) fringe.remove(0);
+            currentNode = fringe.remove();
 
             if (problem.isGoalState(currentNode.getState()))
             {
                 return (currentNode);
             }
 
-            visitedStates.add(currentNode);
+            if (!visitedStates.add(currentNode.getState()))
+            {
+                continue;
+            }
 
             successors = currentNode.getChildren();
             nodesGenerated += successors.size();
@@ -0,0 +1,278 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * An iterative deepening A* search for the sliding tile puzzle. Each iteration is a depth first search that abandons
+ * a path as soon as its cost plus the heuristic value of its last state exceeds a threshold, and the next iteration
+ * raises the threshold to the smallest cost that was abandoned. Only the current path is kept, so the search needs
+ * memory in proportion to the depth of the solution rather than to the number of nodes generated as 'AStarSearch'
+ * does.
+ * 
+ * The current state is a single packed long, as in 'State', with the position of every tile alongside it. Each move
+ * is made and undone in place, and only the value of the pattern database group of the moved tile is looked up
+ * again, so expanding a node creates no objects.
+ * 
+ * @author gb21
+ */
+public class IDAStarSearch
+{
+    /**
+     * The file the pattern database is kept in by 'main'.
+     */
+    public static final String DATABASE_FILE = "pdb663.dat";
+
+    /**
+     * The most moves in a solution this search will look for.
+     */
+    public static final int MAX_DEPTH = 255;
+
+    /**
+     * The packed tiles of the goal state, tile t at position t - 1 and the blank tile (or space) last.
+     */
+    private static final long GOAL_TILES = goalTiles();
+
+    /**
+     * The heuristic used by this search.
+     */
+    private PatternDatabase database;
+
+    /**
+     * The amount of nodes generated whilst searching for a solution to the problem.
+     */
+    private long nodesGenerated;
+
+    /**
+     * The moves made along the current path.
+     */
+    private int[] path = new int[MAX_DEPTH];
+
+    /**
+     * The length of the solution found, or -1.
+     */
+    private int solutionLength;
+
+    /**
+     * The smallest cost that exceeded the threshold in the current iteration.
+     */
+    private int nextThreshold;
+
+    /**
+     * The packed tiles of the current state.
+     */
+    private long tiles;
+
+    /**
+     * The position of the blank tile (or space) in the current state.
+     */
+    private int blank;
+
+    /**
+     * The position of every tile in the current state, indexed by tile.
+     */
+    private int[] positions = new int[State.SIZE];
+
+    /**
+     * The value of every pattern database group for the current state.
+     */
+    private int[] groupValues;
+
+    /**
+     * The sum of 'groupValues'.
+     */
+    private int h;
+
+    /**
+     * Creates an instance of IDAStarSearch.
+     * 
+     * @param newDatabase The pattern database giving the heuristic.
+     */
+    public IDAStarSearch(PatternDatabase newDatabase)
+    {
+        database = newDatabase;
+        groupValues = new int[database.getGroupCount()];
+    }
+
+    /**
+     * Generates a problem, attempts to solve it and outputs the length of the solution and the amount of nodes
+     * generated during the search.
+     * 
+     * @param args The depth of the problem to generate, 60 if none is given.
+     * 
+     * @throws IOException If the pattern database cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+
+        long startTime = System.currentTimeMillis();
+        PatternDatabase database = PatternDatabase.loadOrBuild(new File(DATABASE_FILE), PatternDatabase.GROUPS_663);
+        System.out.println("Pattern database ready in " + (System.currentTimeMillis() - startTime) + " ms");
+
+        Problem problem = new Problem(depth);
+        IDAStarSearch search = new IDAStarSearch(database);
+
+        System.out.println("Solving...");
+        startTime = System.currentTimeMillis();
+        int[] moves = search.search(problem.getInitialState());
+        long time = System.currentTimeMillis() - startTime;
+
+        if (moves != null)
+        {
+            State state = problem.getInitialState();
+            for (int index = 0; index < moves.length; index++)
+            {
+                state = new State(state, moves[index]);
+            }
+
+            System.out.println("Solved in " + moves.length + " moves:");
+            state.printState();
+        }
+        else
+        {
+            System.out.println("Not solved.");
+        }
+
+        System.out.println("Nodes generated: " + search.getNodesGenerated());
+        System.out.println("Time taken: " + time + " ms");
+    }
+
+    /**
+     * Returns the packed tiles of the goal state.
+     */
+    private static long goalTiles()
+    {
+        long goal = 0;
+
+        for (int position = 0; position < State.SIZE - 1; position++)
+        {
+            goal |= (long) (position + 1) << (4 * position);
+        }
+
+        return (goal);
+    }
+
+    /**
+     * Returns the amount of nodes generated by the last search.
+     * 
+     * @return The amount of nodes generated by the last search.
+     */
+    public long getNodesGenerated()
+    {
+        return (nodesGenerated);
+    }
+
+    /**
+     * Searches for a shortest sequence of moves from 'initialState' to the goal state.
+     * 
+     * @param initialState The state to start from.
+     * 
+     * @return The moves of the blank tile (or space), or null if there is no solution within MAX_DEPTH moves.
+     */
+    public int[] search(State initialState)
+    {
+        tiles = initialState.getTiles();
+        blank = initialState.getBlankPosition();
+        for (int position = 0; position < State.SIZE; position++)
+        {
+            positions[(int) (tiles >>> (4 * position)) & 0xF] = position;
+        }
+
+        h = 0;
+        for (int group = 0; group < groupValues.length; group++)
+        {
+            groupValues[group] = database.lookup(group, positions);
+            h += groupValues[group];
+        }
+
+        nodesGenerated = 1;
+        solutionLength = -1;
+        int threshold = h;
+
+        while (threshold <= MAX_DEPTH)
+        {
+            nextThreshold = Integer.MAX_VALUE;
+            if (search(0, threshold, State.NONE))
+            {
+                int[] moves = new int[solutionLength];
+                System.arraycopy(path, 0, moves, 0, solutionLength);
+
+                return (moves);
+            }
+            if (nextThreshold == Integer.MAX_VALUE)
+            {
+                break;
+            }
+            threshold = nextThreshold;
+        }
+
+        return (null);
+    }
+
+    /**
+     * Searches depth first below the current state, which was reached by 'g' moves, the last of them 'lastMove'.
+     * 
+     * @return True if the goal state was reached within 'threshold'.
+     */
+    private boolean search(int g, int threshold, int lastMove)
+    {
+        int f = g + h;
+        if (f > threshold)
+        {
+            nextThreshold = Math.min(nextThreshold, f);
+            return (false);
+        }
+        if (tiles == GOAL_TILES)
+        {
+            solutionLength = g;
+            return (true);
+        }
+        if (g == MAX_DEPTH)
+        {
+            return (false);
+        }
+
+        for (int move = State.DOWN; move <= State.UP; move++)
+        {
+            // Moving straight back is never part of a shortest path; the opposite of each move is 3 - move.
+            if (move == State.UP - lastMove || !State.canMove(blank, move))
+            {
+                continue;
+            }
+
+            // Make the move.
+            int oldBlank = blank;
+            int position = State.movedBlank(blank, move);
+            int tile = (int) (tiles >>> (4 * position)) & 0xF;
+            int group = database.getGroupOf(tile);
+            int oldValue = group == -1 ? 0 : groupValues[group];
+
+            tiles = State.move(tiles, blank, position);
+            blank = position;
+            positions[tile] = oldBlank;
+            if (group != -1)
+            {
+                groupValues[group] = database.lookup(group, positions);
+                h += groupValues[group] - oldValue;
+            }
+            nodesGenerated++;
+            path[g] = move;
+
+            if (search(g + 1, threshold, move))
+            {
+                return (true);
+            }
+
+            // Undo the move.
+            tiles = State.move(tiles, blank, oldBlank);
+            blank = oldBlank;
+            positions[tile] = position;
+            if (group != -1)
+            {
+                h += oldValue - groupValues[group];
+                groupValues[group] = oldValue;
+            }
+        }
+
+        return (false);
+    }
+}
@@ -6,7 +6,7 @@ import java.util.List;
  * 
  * @author gb21
  */
-public class Node
+public class Node implements Comparable<Node>
 {
     /**
      * Inserts 'node' into 'nodes' in order according to the 'pathCost' of the node. Nodes with a lower 'pathCost' will have
@@ -111,6 +111,32 @@ public class Node
         return (true);
     }
     
+    /**
+     * Returns the hash code of the state this node contains, so that nodes equal to each other have equal hash codes.
+     * 
+     * @return The hash code of this node.
+     */
+    public int hashCode()
+    {
+        return (state.hashCode());
+    }
+    
+    /**
+     * Orders nodes by their 'pathCost', and nodes of equal 'pathCost' by their depth so that shallower nodes are
+     * expanded first as they are by 'addInOrder'.
+     * 
+     * @return A negative number, zero or a positive number as this node comes before, with or after 'otherNode'.
+     */
+    public int compareTo(Node otherNode)
+    {
+        if (pathCost != otherNode.getPathCost())
+        {
+            return (pathCost < otherNode.getPathCost() ? -1 : 1);
+        }
+        
+        return (depth - otherNode.getDepth());
+    }
+    
     /**
      * Returns all possible children of this node. Children are those nodes that contain the state of the problem
      * after a valid action has been performed on the current state.
@@ -119,24 +145,14 @@ public class Node
      */
     public List getChildren()
     {
-        List children = new ArrayList();
-        int[] blank = state.getBlank();
+        List children = new ArrayList(4);
         
-        if (blank[1] < Problem.SIDE_LENGTH - 1)
+        for (int move = State.DOWN; move <= State.UP; move++)
         {
-            children.add(new Node(this, new State(state, State.DOWN), State.DOWN));
-        }
-        if (blank[0] > 0)
-        {
-            children.add(new Node(this, new State(state, State.LEFT), State.LEFT));
-        }
-        if (blank[0] < Problem.SIDE_LENGTH - 1)
-        {
-            children.add(new Node(this, new State(state, State.RIGHT), State.RIGHT));
-        }
-        if (blank[1] > 0)
-        {
-            children.add(new Node(this, new State(state, State.UP), State.UP));
+            if (state.canMove(move))
+            {
+                children.add(new Node(this, new State(state, move), move));
+            }
         }
         
         return (children);
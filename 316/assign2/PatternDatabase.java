@@ -0,0 +1,538 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * An additive disjoint pattern database heuristic for the sliding tile puzzle. The tiles are split into disjoint
+ * groups and for every arrangement of the tiles of a group the database holds the fewest moves of those tiles needed
+ * to bring them to their places in the goal state. Since no move moves tiles of two groups, the values of all the
+ * groups can be added together and the sum never overestimates the number of moves left, which makes it an
+ * admissible heuristic much closer to the real cost than the manhatten distance.
+ * 
+ * Only the moves of the group's tiles are counted; moving the blank tile (or space) past the other tiles is free,
+ * but the blank must still be brought next to a tile before the tile can move. The database is built with the
+ * position of the blank tracked and keeps, for each arrangement, the fewest moves over every position of the blank,
+ * so each group needs only one byte per arrangement of its own tiles: 5765760 bytes for a group of 6 tiles of the
+ * 15-puzzle and 3360 for a group of 3. The build itself needs 16 times that while it runs. An arrangement is
+ * numbered by the position of its first tile, then the position of its second among those left, and so on.
+ * 
+ * A database is built once by a breadth first search backwards from the goal, saved to a file and memory-mapped when
+ * it is next needed, so that starting a search costs no more than opening the file.
+ * 
+ * @author gb21
+ */
+public class PatternDatabase
+{
+    /**
+     * The groups of the 6-6-3 partition of the 15-puzzle tiles.
+     */
+    public static final int[][] GROUPS_663 = {{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+
+    /**
+     * The first int of a database file, "PDB2" in ASCII. Files of version 1, built without tracking the blank, are
+     * rebuilt.
+     */
+    private static final int MAGIC = 0x50444232;
+
+    /**
+     * The most tiles in a group, so that every arrangement with every position of the blank fits in an array during
+     * a build.
+     */
+    private static final int MAX_GROUP_SIZE = 7;
+
+    /**
+     * The value of an arrangement not yet reached while building a database.
+     */
+    private static final byte UNREACHED = -1;
+
+    /**
+     * The tiles of each group.
+     */
+    private int[][] groups;
+
+    /**
+     * The group of each tile, or -1 for the blank tile (or space) and tiles in no group.
+     */
+    private int[] groupOfTile;
+
+    /**
+     * The start of each group's values in 'values'.
+     */
+    private int[] offsets;
+
+    /**
+     * The value of every arrangement of every group, one unsigned byte each.
+     */
+    private ByteBuffer values;
+
+    /**
+     * Creates an instance of PatternDatabase with values already computed.
+     * 
+     * @param newGroups The tiles of each group.
+     * @param newValues The values of every group one after another.
+     */
+    private PatternDatabase(int[][] newGroups, ByteBuffer newValues)
+    {
+        groups = newGroups;
+        values = newValues;
+        groupOfTile = new int[State.SIZE];
+        Arrays.fill(groupOfTile, -1);
+        offsets = new int[groups.length + 1];
+
+        for (int group = 0; group < groups.length; group++)
+        {
+            for (int index = 0; index < groups[group].length; index++)
+            {
+                groupOfTile[groups[group][index]] = group;
+            }
+            offsets[group + 1] = offsets[group] + tableSize(groups[group].length);
+        }
+
+        if (values.capacity() - values.position() < offsets[groups.length])
+        {
+            throw new IllegalArgumentException("The values of the pattern database are incomplete");
+        }
+    }
+
+    /**
+     * Returns the number of arrangements of 'tiles' tiles on the puzzle.
+     */
+    private static int tableSize(int tiles)
+    {
+        int size = 1;
+
+        for (int index = 0; index < tiles; index++)
+        {
+            size *= State.SIZE - index;
+        }
+
+        return (size);
+    }
+
+    /**
+     * Returns the pattern database in 'file', memory-mapping it, or builds the database for 'groups' and saves it to
+     * 'file' if the file does not hold that database.
+     * 
+     * @param file The file the database is kept in.
+     * @param groups The groups of tiles the database is built for if it is not in the file.
+     * 
+     * @return The pattern database.
+     * 
+     * @throws IOException If the file cannot be read or written.
+     */
+    public static PatternDatabase loadOrBuild(File file, int[][] groups) throws IOException
+    {
+        if (file.isFile())
+        {
+            try
+            {
+                PatternDatabase database = load(file);
+                if (Arrays.deepEquals(database.groups, groups))
+                {
+                    return (database);
+                }
+            }
+            catch (IOException e)
+            {
+                // A database of an older version or a damaged one is replaced.
+            }
+        }
+
+        PatternDatabase database = build(groups);
+        database.save(file);
+
+        return (database);
+    }
+
+    /**
+     * Builds the pattern database for 'groups' by a breadth first search from the goal arrangement of each group.
+     * 
+     * @param groups The tiles of each group. No tile may be in two groups and no group may have more than
+     * MAX_GROUP_SIZE tiles.
+     * 
+     * @return The pattern database.
+     */
+    public static PatternDatabase build(int[][] groups)
+    {
+        boolean[] used = new boolean[State.SIZE];
+        int size = 0;
+
+        for (int group = 0; group < groups.length; group++)
+        {
+            if (groups[group].length == 0 || groups[group].length > MAX_GROUP_SIZE)
+            {
+                throw new IllegalArgumentException("A group must have 1 to " + MAX_GROUP_SIZE + " tiles");
+            }
+            for (int index = 0; index < groups[group].length; index++)
+            {
+                int tile = groups[group][index];
+                if (tile < 1 || tile >= State.SIZE || used[tile])
+                {
+                    throw new IllegalArgumentException("Tile " + tile + " is not a tile or is in two groups");
+                }
+                used[tile] = true;
+            }
+            size += tableSize(groups[group].length);
+        }
+
+        int[][] copiedGroups = new int[groups.length][];
+        byte[] allValues = new byte[size];
+        int offset = 0;
+        for (int group = 0; group < groups.length; group++)
+        {
+            copiedGroups[group] = groups[group].clone();
+            buildGroup(copiedGroups[group], allValues, offset);
+            offset += tableSize(groups[group].length);
+        }
+
+        return (new PatternDatabase(copiedGroups, ByteBuffer.wrap(allValues)));
+    }
+
+    /**
+     * Fills in the values of one group from 'offset' in 'allValues'.
+     * 
+     * The search is over the arrangements of the group's tiles together with the position of the blank tile (or
+     * space), numbered by the compact number of the arrangement times State.SIZE plus the position of the blank. Moving
+     * the blank past a tile of another group costs nothing, so whenever a state is reached every position the blank
+     * can get to without moving a tile of the group is reached with it. Each level of the search scans the table for
+     * the states reached at the previous level and moves each tile of the group next to the blank into it.
+     */
+    private static void buildGroup(int[] tiles, byte[] allValues, int offset)
+    {
+        int k = tiles.length;
+        int size = tableSize(k);
+        byte[] depths = new byte[size * State.SIZE];
+        Arrays.fill(depths, UNREACHED);
+
+        int[] positions = new int[k];
+        int[] tilePositions = new int[State.SIZE];
+        int[] stack = new int[State.SIZE];
+
+        int occupied = 0;
+        for (int index = 0; index < k; index++)
+        {
+            positions[index] = tiles[index] - 1;
+            tilePositions[tiles[index]] = positions[index];
+            occupied |= 1 << positions[index];
+        }
+        fill(depths, rank(tiles, tilePositions) * State.SIZE, occupied, State.SIZE - 1, (byte) 0, stack);
+
+        boolean reached = true;
+        for (int depth = 0; reached; depth++)
+        {
+            reached = false;
+            for (int arrangement = 0; arrangement < size; arrangement++)
+            {
+                int base = arrangement * State.SIZE;
+                int blank = 0;
+                while (blank < State.SIZE && (depths[base + blank] & 0xFF) != depth)
+                {
+                    blank++;
+                }
+                if (blank == State.SIZE)
+                {
+                    continue;
+                }
+
+                unrank(arrangement, positions);
+                occupied = 0;
+                for (int index = 0; index < k; index++)
+                {
+                    tilePositions[tiles[index]] = positions[index];
+                    occupied |= 1 << positions[index];
+                }
+
+                for (; blank < State.SIZE; blank++)
+                {
+                    if ((depths[base + blank] & 0xFF) != depth)
+                    {
+                        continue;
+                    }
+
+                    for (int index = 0; index < k; index++)
+                    {
+                        int position = positions[index];
+                        if (!isNextTo(position, blank))
+                        {
+                            continue;
+                        }
+
+                        // The tile moves into the blank, leaving the blank where the tile was.
+                        tilePositions[tiles[index]] = blank;
+                        int next = rank(tiles, tilePositions) * State.SIZE;
+                        tilePositions[tiles[index]] = position;
+
+                        if (depths[next + position] == UNREACHED)
+                        {
+                            fill(depths, next, occupied ^ (1 << position) ^ (1 << blank), position,
+                                (byte) (depth + 1), stack);
+                            reached = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Store the value of each arrangement as its fewest moves with the blank anywhere.
+        for (int arrangement = 0; arrangement < size; arrangement++)
+        {
+            int best = UNREACHED & 0xFF;
+            for (int blank = 0; blank < State.SIZE; blank++)
+            {
+                best = Math.min(best, depths[arrangement * State.SIZE + blank] & 0xFF);
+            }
+            allValues[offset + arrangement] = (byte) best;
+        }
+    }
+
+    /**
+     * Sets the depth of the state 'base' plus 'blank', and of every other position of the blank reached from it
+     * without moving a tile in 'occupied', to 'depth'.
+     */
+    private static void fill(byte[] depths, int base, int occupied, int blank, byte depth, int[] stack)
+    {
+        int top = 0;
+        stack[top++] = blank;
+        depths[base + blank] = depth;
+        int visited = occupied | (1 << blank);
+
+        while (top > 0)
+        {
+            int position = stack[--top];
+            for (int move = State.DOWN; move <= State.UP; move++)
+            {
+                if (State.canMove(position, move))
+                {
+                    int next = State.movedBlank(position, move);
+                    if ((visited & (1 << next)) == 0)
+                    {
+                        visited |= 1 << next;
+                        depths[base + next] = depth;
+                        stack[top++] = next;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if positions 'first' and 'second' are next to each other.
+     */
+    private static boolean isNextTo(int first, int second)
+    {
+        for (int move = State.DOWN; move <= State.UP; move++)
+        {
+            if (State.canMove(first, move) && State.movedBlank(first, move) == second)
+            {
+                return (true);
+            }
+        }
+
+        return (false);
+    }
+
+    /**
+     * Sets 'positions' to the positions of the tiles of a group, by their index in the group, in the arrangement with
+     * the compact number 'rank'.
+     */
+    private static void unrank(int rank, int[] positions)
+    {
+        int k = positions.length;
+
+        for (int index = k - 1; index >= 0; index--)
+        {
+            positions[index] = rank % (State.SIZE - index);
+            rank /= State.SIZE - index;
+        }
+
+        // Each digit is the position among those not taken by an earlier tile.
+        int taken = 0;
+        for (int index = 0; index < k; index++)
+        {
+            int position = -1;
+            for (int digit = positions[index]; digit >= 0; digit--)
+            {
+                position++;
+                while ((taken & (1 << position)) != 0)
+                {
+                    position++;
+                }
+            }
+            positions[index] = position;
+            taken |= 1 << position;
+        }
+    }
+
+    /**
+     * Returns the compact number of the arrangement of the tiles of a group.
+     * 
+     * @param tiles The tiles of the group.
+     * @param positions The position of every tile, indexed by tile.
+     */
+    private static int rank(int[] tiles, int[] positions)
+    {
+        int rank = 0;
+
+        for (int index = 0; index < tiles.length; index++)
+        {
+            int position = positions[tiles[index]];
+            int digit = position;
+            for (int earlier = 0; earlier < index; earlier++)
+            {
+                if (positions[tiles[earlier]] < position)
+                {
+                    digit--;
+                }
+            }
+            rank = rank * (State.SIZE - index) + digit;
+        }
+
+        return (rank);
+    }
+
+    /**
+     * Returns the pattern database saved in 'file', memory-mapped so that its values are read from the file as they
+     * are needed.
+     * 
+     * @param file The file to read.
+     * 
+     * @return The pattern database.
+     * 
+     * @throws IOException If the file cannot be read or is not a pattern database.
+     */
+    public static PatternDatabase load(File file) throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+        try
+        {
+            ByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != State.SIZE)
+            {
+                throw new IOException(file + " is not a pattern database for this puzzle");
+            }
+
+            int[][] groups = new int[buffer.getInt()][];
+            for (int group = 0; group < groups.length; group++)
+            {
+                groups[group] = new int[buffer.getInt()];
+                for (int index = 0; index < groups[group].length; index++)
+                {
+                    groups[group][index] = buffer.getInt();
+                }
+            }
+
+            return (new PatternDatabase(groups, buffer.slice()));
+        }
+        catch (RuntimeException e)
+        {
+            throw new IOException(file + " is not a valid pattern database", e);
+        }
+        finally
+        {
+            // The mapping stays valid after the file is closed.
+            raf.close();
+        }
+    }
+
+    /**
+     * Saves this pattern database to 'file': the ints "PDB2", the number of positions of the puzzle, the number of
+     * groups and for each group its number of tiles followed by its tiles, and then the values of every group one
+     * after another.
+     * 
+     * @param file The file to write.
+     * 
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(File file) throws IOException
+    {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+
+        try
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(State.SIZE);
+            out.writeInt(groups.length);
+            for (int group = 0; group < groups.length; group++)
+            {
+                out.writeInt(groups[group].length);
+                for (int index = 0; index < groups[group].length; index++)
+                {
+                    out.writeInt(groups[group][index]);
+                }
+            }
+
+            byte[] chunk = new byte[1 << 16];
+            ByteBuffer source = values.duplicate();
+            while (source.hasRemaining())
+            {
+                int length = Math.min(chunk.length, source.remaining());
+                source.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the number of groups of tiles.
+     * 
+     * @return The number of groups of tiles.
+     */
+    public int getGroupCount()
+    {
+        return (groups.length);
+    }
+
+    /**
+     * Returns the group that 'tile' is in.
+     * 
+     * @return The group of 'tile', or -1 if it is in no group.
+     */
+    public int getGroupOf(int tile)
+    {
+        return (groupOfTile[tile]);
+    }
+
+    /**
+     * Returns the fewest moves of the tiles of 'group' needed to bring them to their places in the goal state.
+     * 
+     * @param group The group to look up.
+     * @param positions The position of every tile, indexed by tile.
+     * 
+     * @return The value of the group's arrangement.
+     */
+    public int lookup(int group, int[] positions)
+    {
+        return (values.get(values.position() + offsets[group] + rank(groups[group], positions)) & 0xFF);
+    }
+
+    /**
+     * Returns the sum of the values of every group, a lower bound on the number of moves needed to solve the puzzle.
+     * 
+     * @param positions The position of every tile, indexed by tile.
+     * 
+     * @return The heuristic value of the arrangement.
+     */
+    public int heuristic(int[] positions)
+    {
+        int sum = 0;
+
+        for (int group = 0; group < groups.length; group++)
+        {
+            sum += lookup(group, positions);
+        }
+
+        return (sum);
+    }
+}
@@ -1,7 +1,11 @@
 /**
  * Represents a state in the problem. This consists of all the positions of the tiles in the puzzle and a unique
  * variable is kept to determine the position of the blank tile (or space) for ease of use.
- * 
+ *
+ * The tiles are packed into a single long, 4 bits per position with the position at column x and row y in bits
+ * 4 * (y * SIDE_LENGTH + x) upwards, so puzzles up to the 15-puzzle fit. Copying a state, comparing two states and
+ * hashing a state are then a few operations on that long, and the hash code is computed once when the state is made.
+ *
  * @author gb21
  */
 public class State
@@ -32,83 +36,141 @@ public class State
     public static final int UP = 3;
 
     /**
-     * The position of the blank tile (or space).
+     * The number of positions in the puzzle.
      */
-    private int[] blank;
+    public static final int SIZE = Problem.SIDE_LENGTH * Problem.SIDE_LENGTH;
 
     /**
-     * All the positions of the tiles in the puzzle.
+     * The change in the position of the blank tile (or space) made by each move.
      */
-    private int[][] values;
+    private static final int[] MOVE_OFFSETS = {Problem.SIDE_LENGTH, -1, 1, -Problem.SIDE_LENGTH};
+
+    /**
+     * The position of the blank tile (or space), y * SIDE_LENGTH + x.
+     */
+    private int blank;
+
+    /**
+     * All the positions of the tiles in the puzzle, 4 bits per position.
+     */
+    private long tiles;
+
+    /**
+     * The hash code of 'tiles'.
+     */
+    private int hash;
 
     /**
      * Creates an instance of State.
-     * Fills new array objects with the contents of the parameterised arrays.
-     * 
+     * Packs the contents of the parameterised arrays.
+     *
      * @param newValues All the positions of the tiles in the puzzle.
      * @param newBlank The position of the blank tile (or space).
      */
     public State(int newValues[][], int newBlank[])
     {
-        // Copy arrays.
-        blank = new int[newBlank.length];
-        values = new int[Problem.SIDE_LENGTH][Problem.SIDE_LENGTH];
-        System.arraycopy(newBlank, 0, blank, 0, newBlank.length);
-        for (int index = 0; index < Problem.SIDE_LENGTH; index++)
+        for (int indexa = 0; indexa < Problem.SIDE_LENGTH; indexa++)
         {
-            System.arraycopy(newValues[index], 0, values[index], 0, newValues.length);
+            for (int indexb = 0; indexb < Problem.SIDE_LENGTH; indexb++)
+            {
+                tiles |= (long) newValues[indexb][indexa] << (4 * (indexa * Problem.SIDE_LENGTH + indexb));
+            }
         }
+        blank = newBlank[1] * Problem.SIDE_LENGTH + newBlank[0];
+        hash = hash(tiles);
     }
 
     /**
      * Creates an instance of State.
-     * Fills new array objects with the contents of the arrays in the parameterised state and then performs 'move' on
-     * it.
-     * 
+     * Copies the tiles of the parameterised state and then performs 'move' on them.
+     *
      * @param state The state to initialise this state to before performing 'move' on it.
      * @param move The move to perform on this state once initialized.
+     *
+     * @throws IndexOutOfBoundsException If 'move' would move the blank tile (or space) off the puzzle.
      */
     public State(State state, int move)
     {
-        // Copy arrays.
-        blank = new int[state.getBlank().length];
-        values = new int[Problem.SIDE_LENGTH][Problem.SIDE_LENGTH];
-        System.arraycopy(state.getBlank(), 0, blank, 0, state.getBlank().length);
-        for (int index = 0; index < Problem.SIDE_LENGTH; index++)
-        {
-            System.arraycopy(state.getValues()[index], 0, values[index], 0, state.getValues().length);
-        }
+        tiles = state.tiles;
+        blank = state.blank;
 
         // Perform move.
-        if (move == DOWN)
-        {
-            values[blank[0]][blank[1]] = values[blank[0]][blank[1] + 1];
-            blank[1] += 1;
-            values[blank[0]][blank[1]] = 0;
-        }
-        else if (move == LEFT)
+        if (move != NONE)
         {
-            values[blank[0]][blank[1]] = values[blank[0] - 1][blank[1]];
-            blank[0] -= 1;
-            values[blank[0]][blank[1]] = 0;
-        }
-        else if (move == RIGHT)
-        {
-            values[blank[0]][blank[1]] = values[blank[0] + 1][blank[1]];
-            blank[0] += 1;
-            values[blank[0]][blank[1]] = 0;
+            if (!state.canMove(move))
+            {
+                throw new IndexOutOfBoundsException("The blank cannot move " + move + " from " + blank);
+            }
+
+            int position = blank + MOVE_OFFSETS[move];
+            tiles = move(tiles, blank, position);
+            blank = position;
         }
-        else if (move == UP)
+
+        hash = hash(tiles);
+    }
+
+    /**
+     * Moves the tile at 'position' into the blank tile (or space) at 'blank', which must be next to it.
+     *
+     * @return The packed tiles after the move.
+     */
+    public static long move(long tiles, int blank, int position)
+    {
+        long tile = (tiles >>> (4 * position)) & 0xF;
+
+        return (tiles & ~(0xFL << (4 * position)) | (tile << (4 * blank)));
+    }
+
+    /**
+     * Returns the position the blank tile (or space) at 'blank' moves to with 'move'.
+     */
+    public static int movedBlank(int blank, int move)
+    {
+        return (blank + MOVE_OFFSETS[move]);
+    }
+
+    /**
+     * Returns true if 'move' keeps the blank tile (or space) at 'blank' on the puzzle.
+     */
+    public static boolean canMove(int blank, int move)
+    {
+        switch (move)
         {
-            values[blank[0]][blank[1]] = values[blank[0]][blank[1] - 1];
-            blank[1] -= 1;
-            values[blank[0]][blank[1]] = 0;
+            case DOWN:
+                return (blank / Problem.SIDE_LENGTH < Problem.SIDE_LENGTH - 1);
+            case LEFT:
+                return (blank % Problem.SIDE_LENGTH > 0);
+            case RIGHT:
+                return (blank % Problem.SIDE_LENGTH < Problem.SIDE_LENGTH - 1);
+            case UP:
+                return (blank / Problem.SIDE_LENGTH > 0);
+            default:
+                return (move == NONE);
         }
     }
 
+    /**
+     * Returns true if 'move' keeps the blank tile (or space) on the puzzle.
+     */
+    public boolean canMove(int move)
+    {
+        return (canMove(blank, move));
+    }
+
+    /**
+     * Mixes the bits of the packed tiles so that states differing in a few tiles get unrelated hash codes.
+     */
+    private static int hash(long tiles)
+    {
+        long mixed = tiles * 0x9E3779B97F4A7C15L;
+
+        return ((int) (mixed ^ (mixed >>> 32)));
+    }
+
     /**
      * Calculates the heuristic function of this state.
-     * 
+     *
      * @return The result of the heuristic function of this state.
      */
     public int calcH()
@@ -121,59 +183,88 @@ public class State
     /**
      * Returns true if this state and the state parametised are equal, false otherwise. Equality is dependant on all
      * the positions of the tiles being the same.
-     * 
+     *
      * @return True if this state and the state parametised are equal, false otherwise.
      */
     public boolean equals(Object obj)
     {
-        try
-        {
-            State otherState = (State) obj;
-            int[][] otherValues = otherState.getValues();
-
-            for (int indexa = 0; indexa < Problem.SIDE_LENGTH; indexa++)
-            {
-                for (int indexb = 0; indexb < Problem.SIDE_LENGTH; indexb++)
-                {
-                    if (values[indexb][indexa] != otherValues[indexb][indexa])
-                    {
-                        return (false);
-                    }
-                }
-            }
-        }
-        catch (ClassCastException e)
+        if (!(obj instanceof State))
         {
             return (false);
         }
 
-        return (true);
+        return (tiles == ((State) obj).tiles);
+    }
+
+    /**
+     * Returns the hash code computed when this state was made.
+     *
+     * @return The hash code of this state.
+     */
+    public int hashCode()
+    {
+        return (hash);
     }
 
     /**
      * Returns the position of the blank tile (or space).
-     * 
-     * @return The position of the blank tile (or space).
+     *
+     * @return The position of the blank tile (or space), as its column and row.
      */
     public int[] getBlank()
+    {
+        return (new int[] {blank % Problem.SIDE_LENGTH, blank / Problem.SIDE_LENGTH});
+    }
+
+    /**
+     * Returns the position of the blank tile (or space) as y * SIDE_LENGTH + x.
+     *
+     * @return The position of the blank tile (or space).
+     */
+    public int getBlankPosition()
     {
         return (blank);
     }
 
+    /**
+     * Returns all the positions of the tiles in the puzzle, 4 bits per position.
+     *
+     * @return The packed tiles.
+     */
+    public long getTiles()
+    {
+        return (tiles);
+    }
+
     /**
      * Returns all the positions of the tiles in the puzzle.
-     * 
-     * @return All the positions of the tiles in the puzzle.
+     *
+     * @return All the positions of the tiles in the puzzle, indexed by column and then row.
      */
     public int[][] getValues()
     {
+        int[][] values = new int[Problem.SIDE_LENGTH][Problem.SIDE_LENGTH];
+
+        for (int position = 0; position < SIZE; position++)
+        {
+            values[position % Problem.SIDE_LENGTH][position / Problem.SIDE_LENGTH] = tile(position);
+        }
+
         return (values);
     }
 
+    /**
+     * Returns the tile at 'position', y * SIDE_LENGTH + x.
+     */
+    private int tile(int position)
+    {
+        return ((int) (tiles >>> (4 * position)) & 0xF);
+    }
+
     /**
      * A heuristic function.
      * This function's result is always 0.
-     * 
+     *
      * @return This function's result.
      */
     private int h0()
@@ -184,24 +275,21 @@ public class State
     /**
      * A heuristic function.
      * This function's result is equal to the amount of tiles which are misplaced in this state.
-     * 
+     *
      * @return This function's result.
      */
     private int h1()
     {
-        int count = 1;
         int predictedCost = 0;
 
-        for (int indexa = 0; indexa < Problem.SIDE_LENGTH; indexa++)
+        // Tile 'position + 1' belongs at every position but the last.
+        for (int position = 0; position < SIZE; position++)
         {
-            for (int indexb = 0; indexb < Problem.SIDE_LENGTH; indexb++)
+            int tile = tile(position);
+            if (tile != position + 1 && tile != 0)
             {
-                if (values[indexb][indexa] != count && values[indexb][indexa] != 0)
-                {
-                    // Increment the result of this function.
-                    predictedCost++;
-                }
-                count++;
+                // Increment the result of this function.
+                predictedCost++;
             }
         }
 
@@ -210,33 +298,24 @@ public class State
 
     /**
      * A heuristic function.
-     * This function's result is equal to the amount of tiles which are misplaced in this state.
-     * 
+     * This function's result is equal to the sum of the manhatten distances of the tiles from their places in the
+     * goal state.
+     *
      * @return This function's result.
      */
     private int h2()
     {
-        int count = 1;
         int predictedCost = 0;
 
-        // For all tiles, check all tiles for the tile of the right value and find the manhatten distance between
-        // them.
-        for (int indexa = 0; indexa < Problem.SIDE_LENGTH; indexa++)
+        // For all tiles find the manhatten distance between the tile and the position it belongs at.
+        for (int position = 0; position < SIZE; position++)
         {
-            for (int indexb = 0; indexb < Problem.SIDE_LENGTH; indexb++)
+            int tile = tile(position);
+            if (tile != 0)
             {
-                for (int indexc = 0; indexc < Problem.SIDE_LENGTH; indexc++)
-                {
-                    for (int indexd = 0; indexd < Problem.SIDE_LENGTH; indexd++)
-                    {
-                        if (values[indexd][indexc] == count)
-                        {
-                            // Add the manhatten value of tile 'count' to the result of this function.
-                            predictedCost += Math.abs(indexb - indexd) + Math.abs(indexa - indexc);
-                        }
-                    }
-                }
-                count++;
+                // Add the manhatten value of the tile to the result of this function.
+                predictedCost += Math.abs(position % Problem.SIDE_LENGTH - (tile - 1) % Problem.SIDE_LENGTH)
+                    + Math.abs(position / Problem.SIDE_LENGTH - (tile - 1) / Problem.SIDE_LENGTH);
             }
         }
 
@@ -252,7 +331,7 @@ public class State
         {
             for (int indexb = 0; indexb < Problem.SIDE_LENGTH; indexb++)
             {
-                System.out.print(values[indexb][indexa] + "\t");
+                System.out.print(tile(indexa * Problem.SIDE_LENGTH + indexb) + "\t");
             }
             System.out.println("");
         }
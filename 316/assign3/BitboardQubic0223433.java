@@ -0,0 +1,279 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A qubic player that determines its next move using alpha-beta search over bitboards. It plays the same game as
+ * 'Qubic0223433' and can be used wherever that player is, but searches with a 'QubicSearch': moves are made and
+ * unmade in place on two longs, wins and the evaluation are counted with a bit count per line, and results are kept
+ * in a transposition table between moves.
+ * 
+ * The search deepens one ply at a time up to the maximum depth, each iteration searching first the best moves found
+ * by the one before, and stops early once it has found a forced win or loss.
+ * 
+ * A player made with more than one thread searches moves of at least PARALLEL_DEPTH plies with Lazy SMP: helper
+ * threads deepen through the same position alongside the player's own search, half of them a ply ahead, all sharing
+ * the transposition table, and are stopped when the player's own search finishes. The move played is always the one
+ * found by the player's own search. A player made with a time limit stops deepening when the limit is reached and
+ * plays the best move of the deepest search it finished.
+ * 
+ * @author gb21
+ */
+public class BitboardQubic0223433 implements QubicInterface
+{
+    /**
+     * The transposition table has 2 to the power of this many slots by default, 16 MB.
+     */
+    public static final int DEFAULT_TABLE_BITS = 20;
+
+    /**
+     * The smallest maximum depth searched with more than one thread. Shallower searches take less time than starting
+     * the helpers.
+     */
+    public static final int PARALLEL_DEPTH = 5;
+
+    /**
+     * How long in milliseconds an idle helper thread waits for another move before it ends.
+     */
+    private static final long HELPER_KEEP_ALIVE = 10000;
+
+    /**
+     * The depth reached by the last move.
+     */
+    private int depth;
+
+    /**
+     * The number of nodes searched for the last move, by every thread.
+     */
+    private long nodes;
+
+    /**
+     * The search of the calling thread, followed by the search of each helper thread.
+     */
+    private QubicSearch[] searches;
+
+    /**
+     * Set to stop the helper threads.
+     */
+    private AtomicBoolean stop = new AtomicBoolean();
+
+    /**
+     * The longest a move may take in milliseconds, or 0 for no limit.
+     */
+    private long timeLimit;
+
+    /**
+     * The helper threads, or null for a player with one thread.
+     */
+    private ExecutorService helpers;
+
+    /**
+     * Creates an instance of BitboardQubic0223433 with one thread, no time limit and a transposition table of
+     * DEFAULT_TABLE_BITS.
+     */
+    public BitboardQubic0223433()
+    {
+        this(DEFAULT_TABLE_BITS);
+    }
+
+    /**
+     * Creates an instance of BitboardQubic0223433 with one thread and no time limit.
+     * 
+     * @param tableBits The transposition table has 2 to the power of 'tableBits' slots.
+     */
+    public BitboardQubic0223433(int tableBits)
+    {
+        this(tableBits, 1, 0);
+    }
+
+    /**
+     * Creates an instance of BitboardQubic0223433.
+     * 
+     * @param tableBits The transposition table has 2 to the power of 'tableBits' slots.
+     * @param threads The number of threads to search with.
+     * @param timeLimit The longest a move may take in milliseconds, or 0 for no limit.
+     */
+    public BitboardQubic0223433(int tableBits, int threads, long timeLimit)
+    {
+        TranspositionTable table = new TranspositionTable(tableBits);
+
+        searches = new QubicSearch[Math.max(threads, 1)];
+        searches[0] = new QubicSearch(table, stop, 0);
+        for (int index = 1; index < searches.length; index++)
+        {
+            searches[index] = new QubicSearch(table, stop, index);
+        }
+
+        this.timeLimit = timeLimit;
+
+        if (searches.length > 1)
+        {
+            // Daemon threads that end when idle, so that a player never needs to be shut down.
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(searches.length - 1, searches.length - 1,
+                HELPER_KEEP_ALIVE, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "qubic-helper");
+                    thread.setDaemon(true);
+                    return (thread);
+                }
+            });
+            pool.allowCoreThreadTimeOut(true);
+            helpers = pool;
+        }
+    }
+
+    /**
+     * Returns the depth reached by the last move.
+     * 
+     * @return The depth reached by the last move.
+     */
+    public int getDepth()
+    {
+        return (depth);
+    }
+
+    /**
+     * Returns the number of nodes searched for the last move, by every thread.
+     * 
+     * @return The number of nodes searched for the last move.
+     */
+    public long getNodes()
+    {
+        return (nodes);
+    }
+
+    /**
+     * Returns the number of threads this player searches with.
+     * 
+     * @return The number of threads.
+     */
+    public int getThreads()
+    {
+        return (searches.length);
+    }
+
+    /**
+     * This player makes a move that it thinks is best.
+     */
+    public int[] move(byte[][][] state, int playerToMove, int maxDepth)
+    {
+        QubicSearch search = searches[0];
+
+        stop.set(false);
+        search.setPosition(state, playerToMove);
+        long deadline = timeLimit > 0 ? System.currentTimeMillis() + timeLimit : Long.MAX_VALUE;
+        search.setDeadline(deadline);
+
+        int maxIterations = Math.min(Math.max(maxDepth, 1), search.getEmptySpaces());
+        List<Future<Long>> helperResults = new ArrayList<Future<Long>>();
+        if (helpers != null && maxIterations >= PARALLEL_DEPTH)
+        {
+            for (int index = 1; index < searches.length; index++)
+            {
+                searches[index].setPosition(state, playerToMove);
+                searches[index].setDeadline(deadline);
+                helperResults.add(helpers.submit(new Helper(searches[index], 1 + index % 2, maxIterations)));
+            }
+        }
+
+        int move = -1;
+        depth = 0;
+        for (int iteration = 1; iteration <= maxIterations; iteration++)
+        {
+            int score = search.search(iteration);
+            if (search.isAborted())
+            {
+                break;
+            }
+
+            move = search.getBestMove();
+            depth = iteration;
+            if (Math.abs(score) > QubicSearch.WIN_THRESHOLD)
+            {
+                break;
+            }
+        }
+
+        stop.set(true);
+        nodes = search.getNodes();
+        for (int index = 0; index < helperResults.size(); index++)
+        {
+            nodes += waitFor(helperResults.get(index));
+        }
+
+        // Stopped before even one ply was searched, so take any empty space.
+        if (move == -1)
+        {
+            move = Long.numberOfTrailingZeros(
+                ~(QubicBitboard.getPieces(state, 1) | QubicBitboard.getPieces(state, -1)));
+        }
+
+        return (QubicBitboard.coordinates(move));
+    }
+
+    /**
+     * Waits for a helper to stop and returns the number of nodes it searched.
+     */
+    private static long waitFor(Future<Long> result)
+    {
+        try
+        {
+            return (result.get().longValue());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return (0);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("A helper search failed", e.getCause());
+        }
+    }
+
+    /**
+     * Deepens a helper's search until it reaches the maximum depth or is stopped.
+     */
+    private static class Helper implements Callable<Long>
+    {
+        private QubicSearch search;
+
+        private int firstDepth;
+
+        private int maxDepth;
+
+        Helper(QubicSearch search, int firstDepth, int maxDepth)
+        {
+            this.search = search;
+            this.firstDepth = firstDepth;
+            this.maxDepth = maxDepth;
+        }
+
+        /**
+         * Returns the number of nodes searched.
+         */
+        public Long call()
+        {
+            for (int depth = firstDepth; depth <= maxDepth; depth++)
+            {
+                search.search(depth);
+                if (search.isAborted())
+                {
+                    break;
+                }
+            }
+
+            return (Long.valueOf(search.getNodes()));
+        }
+    }
+}
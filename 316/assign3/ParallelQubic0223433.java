@@ -0,0 +1,91 @@
+import java.util.Random;
+
+/**
+ * A bitboard qubic player that searches with a thread for every processor, for use with 'Qubic' which makes players
+ * by class name. Moves of fewer than 'BitboardQubic0223433.PARALLEL_DEPTH' plies are searched on one thread.
+ * 
+ * Run on its own, it measures how the search scales: it searches the same positions with 1, 2, 4 and so on threads
+ * and outputs the nodes searched per second by all threads and how much less time the search to the same depth took
+ * than with one thread.
+ * 
+ * @author gb21
+ */
+public class ParallelQubic0223433 extends BitboardQubic0223433
+{
+    /**
+     * Creates an instance of ParallelQubic0223433 with a thread for every processor and no time limit.
+     */
+    public ParallelQubic0223433()
+    {
+        super(DEFAULT_TABLE_BITS, Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    /**
+     * Measures the scaling of the search.
+     * 
+     * @param args The most threads to try, 16 if none is given, the depth to search, 7 if none is given, and the
+     * number of positions to search, 8 if none is given.
+     */
+    public static void main(String[] args)
+    {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        int positions = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        System.out.println("Processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("Positions: " + positions + " openings of 6 random moves, searched to depth " + depth);
+
+        // Warm up so that the first measurement is not of the interpreter.
+        measure(1, Math.min(depth, 5), positions);
+
+        double baseTime = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2)
+        {
+            long[] result = measure(threads, depth, positions);
+            double seconds = result[1] / 1e9;
+            if (threads == 1)
+            {
+                baseTime = seconds;
+            }
+
+            System.out.println(threads + " threads: " + result[0] + " nodes in " + Math.round(seconds * 1000)
+                + " ms, " + Math.round(result[0] / seconds / 1000) + " knodes/s, " + Math.round(baseTime / seconds
+                * 100) / 100.0 + "x faster to depth");
+        }
+    }
+
+    /**
+     * Searches every position with a new player using 'threads' threads.
+     * 
+     * @return The total number of nodes searched and the total time taken in nanoseconds.
+     */
+    private static long[] measure(int threads, int depth, int positions)
+    {
+        Random random = new Random(316);
+        long nodes = 0;
+        long time = 0;
+
+        for (int position = 0; position < positions; position++)
+        {
+            byte[][][] state = new byte[QubicBitboard.GRID_SIZE][QubicBitboard.GRID_SIZE][QubicBitboard.GRID_SIZE];
+            for (int move = 0; move < 6; move++)
+            {
+                int[] space;
+                do
+                {
+                    space = QubicBitboard.coordinates(random.nextInt(QubicBitboard.SPACES));
+                }
+                while (state[space[0]][space[1]][space[2]] != 0);
+                state[space[0]][space[1]][space[2]] = (byte) (move % 2 == 0 ? 1 : -1);
+            }
+
+            BitboardQubic0223433 player = new BitboardQubic0223433(DEFAULT_TABLE_BITS, threads, 0);
+            long startTime = System.nanoTime();
+            player.move(state, 1, depth);
+            time += System.nanoTime() - startTime;
+            nodes += player.getNodes();
+        }
+
+        return (new long[] {nodes, time});
+    }
+}
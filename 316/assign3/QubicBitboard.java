@@ -0,0 +1,244 @@
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * The qubic grid as bitboards. The space (x, y, z) of a state, state[x][y][z], is bit 16x + 4y + z of a long, so the
+ * pieces of each player fit in one long and the 76 winning lines of the grid are 76 masks. Whether a player holds a
+ * line, or how many spaces of it, is then an and and a bit count instead of a walk over the state.
+ * 
+ * @author gb21
+ */
+public class QubicBitboard
+{
+    /**
+     * The size of each dimension of the qubic grid.
+     */
+    public static final int GRID_SIZE = 4;
+
+    /**
+     * The number of spaces in the qubic grid.
+     */
+    public static final int SPACES = GRID_SIZE * GRID_SIZE * GRID_SIZE;
+
+    /**
+     * The spaces of every winning line.
+     */
+    public static final long[] LINES = createLines();
+
+    /**
+     * The indices in LINES of the lines through each space. The corners and the centre spaces are on 7 lines and
+     * every other space is on 4.
+     */
+    public static final int[][] LINES_THROUGH = createLinesThrough();
+
+    /**
+     * A random key for every player and space, the pieces of player 1 first. The hash of a position is the exclusive
+     * or of the keys of its pieces, with SIDE_KEY added when player -1 is to move.
+     */
+    public static final long[][] ZOBRIST_KEYS = createZobristKeys();
+
+    /**
+     * The key added to the hash of a position when player -1 is to move.
+     */
+    public static final long SIDE_KEY = ZOBRIST_KEYS[0][0] * 31 + ZOBRIST_KEYS[1][0];
+
+    /**
+     * QubicBitboard only has static members.
+     */
+    private QubicBitboard()
+    {
+    }
+
+    /**
+     * Returns the space at 'x', 'y' and 'z'.
+     */
+    public static int space(int x, int y, int z)
+    {
+        return (x * GRID_SIZE * GRID_SIZE + y * GRID_SIZE + z);
+    }
+
+    /**
+     * Returns the x, y and z coordinates of 'space', as 'QubicInterface.move' returns a move.
+     */
+    public static int[] coordinates(int space)
+    {
+        return (new int[] {space / (GRID_SIZE * GRID_SIZE), space / GRID_SIZE % GRID_SIZE, space % GRID_SIZE});
+    }
+
+    /**
+     * Returns the pieces of 'player' in 'state'.
+     * 
+     * @param state The state to read, with entries 0 for empty, 1 for player 1 and -1 for player 2.
+     * @param player The player, 1 or -1.
+     * 
+     * @return The spaces 'player' occupies.
+     */
+    public static long getPieces(byte[][][] state, int player)
+    {
+        long pieces = 0;
+
+        for (int xIndex = 0; xIndex < GRID_SIZE; xIndex++)
+        {
+            for (int yIndex = 0; yIndex < GRID_SIZE; yIndex++)
+            {
+                for (int zIndex = 0; zIndex < GRID_SIZE; zIndex++)
+                {
+                    if (state[xIndex][yIndex][zIndex] == player)
+                    {
+                        pieces |= 1L << space(xIndex, yIndex, zIndex);
+                    }
+                }
+            }
+        }
+
+        return (pieces);
+    }
+
+    /**
+     * Returns true if 'pieces' hold a whole line through 'space'.
+     */
+    public static boolean isWinThrough(long pieces, int space)
+    {
+        int[] lines = LINES_THROUGH[space];
+
+        for (int index = 0; index < lines.length; index++)
+        {
+            if ((pieces & LINES[lines[index]]) == LINES[lines[index]])
+            {
+                return (true);
+            }
+        }
+
+        return (false);
+    }
+
+    /**
+     * Returns true if 'pieces' hold a whole line.
+     */
+    public static boolean isWon(long pieces)
+    {
+        for (int line = 0; line < LINES.length; line++)
+        {
+            if ((pieces & LINES[line]) == LINES[line])
+            {
+                return (true);
+            }
+        }
+
+        return (false);
+    }
+
+    /**
+     * Returns the masks of all the lines of GRID_SIZE spaces in a straight line through the grid: along an axis,
+     * diagonally across a plane or diagonally through the grid.
+     */
+    private static long[] createLines()
+    {
+        Set<Long> lines = new LinkedHashSet<Long>();
+
+        for (int dx = -1; dx <= 1; dx++)
+        {
+            for (int dy = -1; dy <= 1; dy++)
+            {
+                for (int dz = -1; dz <= 1; dz++)
+                {
+                    if (dx == 0 && dy == 0 && dz == 0)
+                    {
+                        continue;
+                    }
+
+                    for (int start = 0; start < SPACES; start++)
+                    {
+                        int[] position = coordinates(start);
+                        long line = 0;
+                        int length = 0;
+
+                        while (length < GRID_SIZE && inGrid(position[0]) && inGrid(position[1]) && inGrid(position[2]))
+                        {
+                            line |= 1L << space(position[0], position[1], position[2]);
+                            position[0] += dx;
+                            position[1] += dy;
+                            position[2] += dz;
+                            length++;
+                        }
+
+                        // A line and its reverse have the same mask, so each line is kept once.
+                        if (length == GRID_SIZE)
+                        {
+                            lines.add(Long.valueOf(line));
+                        }
+                    }
+                }
+            }
+        }
+
+        long[] masks = new long[lines.size()];
+        int index = 0;
+        for (Long line : lines)
+        {
+            masks[index++] = line.longValue();
+        }
+
+        return (masks);
+    }
+
+    /**
+     * Returns true if 'coordinate' is within the grid.
+     */
+    private static boolean inGrid(int coordinate)
+    {
+        return (coordinate >= 0 && coordinate < GRID_SIZE);
+    }
+
+    /**
+     * Returns the indices of the lines through each space.
+     */
+    private static int[][] createLinesThrough()
+    {
+        int[][] linesThrough = new int[SPACES][];
+
+        for (int space = 0; space < SPACES; space++)
+        {
+            int count = 0;
+            for (int line = 0; line < LINES.length; line++)
+            {
+                if ((LINES[line] & (1L << space)) != 0)
+                {
+                    count++;
+                }
+            }
+
+            linesThrough[space] = new int[count];
+            count = 0;
+            for (int line = 0; line < LINES.length; line++)
+            {
+                if ((LINES[line] & (1L << space)) != 0)
+                {
+                    linesThrough[space][count++] = line;
+                }
+            }
+        }
+
+        return (linesThrough);
+    }
+
+    /**
+     * Returns the Zobrist keys, from a fixed seed so that hashes are the same on every run.
+     */
+    private static long[][] createZobristKeys()
+    {
+        Random random = new Random(0x51B1CL);
+        long[][] keys = new long[2][SPACES];
+
+        for (int player = 0; player < 2; player++)
+        {
+            for (int space = 0; space < SPACES; space++)
+            {
+                keys[player][space] = random.nextLong();
+            }
+        }
+
+        return (keys);
+    }
+}
@@ -0,0 +1,505 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An alpha-beta search of qubic positions held as bitboards. The search makes and unmakes moves on a single pair of
+ * bitboards and keeps each ply's moves in an array made up front, so searching a node creates no objects.
+ * 
+ * Scores are from the point of view of the player to move (negamax), so one method serves both players where
+ * 'Qubic0223433' has 'maxValue' and 'minValue'. Before searching the moves of a node the lines are counted once: a
+ * player with three spaces of a line whose fourth space is empty wins on their next move, so a node where the player
+ * to move has such a line is a win, a node where the opponent has two is a loss, and a node where the opponent has
+ * one has only the move that blocks it. Otherwise the counts give the evaluation at the depth limit, which is the
+ * evaluation of 'Qubic0223433': the square of the number of spaces each player holds of every line the other player
+ * has no spaces of, for the player to move less the opponent.
+ * 
+ * Results are kept in a 'TranspositionTable', whose best move for a position is searched first; the other moves are
+ * searched in order of how often they have caused a cut off (the history heuristic), the spaces on 7 lines first.
+ * 
+ * Several searches may share one table and one stop flag, each on its own thread (Lazy SMP): the searches then mostly
+ * read each other's results instead of repeating the work. A search given a seed breaks ties in its move order
+ * randomly, so that searches of the same position go different ways.
+ * 
+ * @author gb21
+ */
+public class QubicSearch
+{
+    /**
+     * The score of a win on the move, less one for every ply further away a win is.
+     */
+    public static final int WIN = 100000;
+
+    /**
+     * A value higher than all possible scores.
+     */
+    public static final int INFINITY = WIN + 1;
+
+    /**
+     * Scores above this or below its negative are wins or losses.
+     */
+    public static final int WIN_THRESHOLD = WIN - 2 * QubicBitboard.SPACES;
+
+    /**
+     * The number of nodes between checks of the stop flag and the deadline, a power of 2.
+     */
+    private static final int STOP_CHECK_INTERVAL = 1024;
+
+    /**
+     * The pieces of player 1 and of player -1.
+     */
+    private long[] pieces = new long[2];
+
+    /**
+     * The player to move, 0 for player 1 and 1 for player -1.
+     */
+    private int side;
+
+    /**
+     * The hash of the current position.
+     */
+    private long hash;
+
+    /**
+     * The best move found at the root by the last search, or -1.
+     */
+    private int bestMove;
+
+    /**
+     * The number of nodes searched since the position was set.
+     */
+    private long nodes;
+
+    /**
+     * How much each move has caused cut offs for each player.
+     */
+    private int[][] history = new int[2][QubicBitboard.SPACES];
+
+    /**
+     * The moves of each ply.
+     */
+    private int[][] moves = new int[QubicBitboard.SPACES + 1][QubicBitboard.SPACES];
+
+    /**
+     * The ordering scores of the moves of each ply.
+     */
+    private int[][] moveScores = new int[QubicBitboard.SPACES + 1][QubicBitboard.SPACES];
+
+    /**
+     * A small random amount added to the order of each move, all 0 for a search without a seed.
+     */
+    private int[] tieBreaks = new int[QubicBitboard.SPACES];
+
+    /**
+     * The results of previous searches.
+     */
+    private TranspositionTable table;
+
+    /**
+     * Set to stop this search and every other search sharing it.
+     */
+    private AtomicBoolean stop;
+
+    /**
+     * The time in milliseconds at which this search sets 'stop', or Long.MAX_VALUE.
+     */
+    private long deadline = Long.MAX_VALUE;
+
+    /**
+     * True if the last search was stopped before it finished.
+     */
+    private boolean aborted;
+
+    /**
+     * Creates an instance of QubicSearch that is never stopped.
+     * 
+     * @param table The transposition table to keep results in.
+     */
+    public QubicSearch(TranspositionTable table)
+    {
+        this(table, new AtomicBoolean(), 0);
+    }
+
+    /**
+     * Creates an instance of QubicSearch.
+     * 
+     * @param table The transposition table to keep results in.
+     * @param stop The flag that stops the search when it is set.
+     * @param seed The seed for breaking ties in the move order, or 0 to break them the same way every time.
+     */
+    public QubicSearch(TranspositionTable table, AtomicBoolean stop, long seed)
+    {
+        this.table = table;
+        this.stop = stop;
+
+        if (seed != 0)
+        {
+            Random random = new Random(seed);
+            for (int space = 0; space < QubicBitboard.SPACES; space++)
+            {
+                tieBreaks[space] = random.nextInt(4);
+            }
+        }
+    }
+
+    /**
+     * Sets the time at which this search stops itself and every other search sharing its stop flag.
+     * 
+     * @param deadline The time in milliseconds, or Long.MAX_VALUE for no limit.
+     */
+    public void setDeadline(long deadline)
+    {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Returns true if the last search was stopped before it finished, in which case its score and best move are not
+     * to be used.
+     * 
+     * @return True if the last search was stopped.
+     */
+    public boolean isAborted()
+    {
+        return (aborted);
+    }
+
+    /**
+     * Sets the position to search and forgets the move history of earlier positions.
+     * 
+     * @param state The position, with entries 0 for empty, 1 for player 1 and -1 for player 2.
+     * @param playerToMove The player to move, 1 or -1.
+     */
+    public void setPosition(byte[][][] state, int playerToMove)
+    {
+        pieces[0] = QubicBitboard.getPieces(state, 1);
+        pieces[1] = QubicBitboard.getPieces(state, -1);
+        side = playerToMove == 1 ? 0 : 1;
+
+        hash = side == 1 ? QubicBitboard.SIDE_KEY : 0;
+        for (int player = 0; player < 2; player++)
+        {
+            for (long rest = pieces[player]; rest != 0; rest &= rest - 1)
+            {
+                hash ^= QubicBitboard.ZOBRIST_KEYS[player][Long.numberOfTrailingZeros(rest)];
+            }
+        }
+
+        nodes = 0;
+        bestMove = -1;
+        for (int space = 0; space < QubicBitboard.SPACES; space++)
+        {
+            history[0][space] = 0;
+            history[1][space] = 0;
+        }
+    }
+
+    /**
+     * Returns the number of empty spaces in the current position.
+     * 
+     * @return The number of empty spaces.
+     */
+    public int getEmptySpaces()
+    {
+        return (QubicBitboard.SPACES - Long.bitCount(pieces[0] | pieces[1]));
+    }
+
+    /**
+     * Returns the best move found by the last search.
+     * 
+     * @return The space of the best move, or -1 if there was no move.
+     */
+    public int getBestMove()
+    {
+        return (bestMove);
+    }
+
+    /**
+     * Returns the number of nodes searched since the position was set.
+     * 
+     * @return The number of nodes searched.
+     */
+    public long getNodes()
+    {
+        return (nodes);
+    }
+
+    /**
+     * Searches the current position to 'depth' plies with a full window.
+     * 
+     * @param depth The number of plies to search.
+     * 
+     * @return The score of the position for the player to move.
+     */
+    public int search(int depth)
+    {
+        aborted = false;
+
+        return (search(depth, 0, -INFINITY, INFINITY));
+    }
+
+    /**
+     * Puts a piece of the player to move on 'space' and passes the move to the other player.
+     */
+    public void makeMove(int space)
+    {
+        pieces[side] |= 1L << space;
+        hash ^= QubicBitboard.ZOBRIST_KEYS[side][space] ^ QubicBitboard.SIDE_KEY;
+        side ^= 1;
+    }
+
+    /**
+     * Takes back 'makeMove(space)'.
+     */
+    public void unmakeMove(int space)
+    {
+        side ^= 1;
+        hash ^= QubicBitboard.ZOBRIST_KEYS[side][space] ^ QubicBitboard.SIDE_KEY;
+        pieces[side] &= ~(1L << space);
+    }
+
+    /**
+     * Returns the score of the current position for the player to move, searched to 'depth' more plies.
+     * 
+     * @param depth The number of plies left to search.
+     * @param ply The number of plies from the root.
+     * @param alpha The score the player to move is already sure of.
+     * @param beta The score the opponent is already sure of, negated.
+     */
+    private int search(int depth, int ply, int alpha, int beta)
+    {
+        nodes++;
+        if ((nodes & (STOP_CHECK_INTERVAL - 1)) == 0)
+        {
+            if (System.currentTimeMillis() >= deadline)
+            {
+                stop.set(true);
+            }
+            aborted = stop.get();
+        }
+        if (aborted)
+        {
+            return (0);
+        }
+
+        long mine = pieces[side];
+        long theirs = pieces[side ^ 1];
+        long empty = ~(mine | theirs);
+
+        if (empty == 0)
+        {
+            return (0);
+        }
+
+        // Count the lines once for wins, threats and the evaluation.
+        long wins = 0;
+        long threats = 0;
+        int evaluation = 0;
+        for (int line = 0; line < QubicBitboard.LINES.length; line++)
+        {
+            long mask = QubicBitboard.LINES[line];
+            long mineInLine = mine & mask;
+            long theirsInLine = theirs & mask;
+
+            if (theirsInLine == 0)
+            {
+                int count = Long.bitCount(mineInLine);
+                if (count == QubicBitboard.GRID_SIZE - 1)
+                {
+                    wins |= mask & empty;
+                }
+                evaluation += count * count;
+            }
+            else if (mineInLine == 0)
+            {
+                int count = Long.bitCount(theirsInLine);
+                if (count == QubicBitboard.GRID_SIZE - 1)
+                {
+                    threats |= mask & empty;
+                }
+                evaluation -= count * count;
+            }
+        }
+
+        if (wins != 0)
+        {
+            if (ply == 0)
+            {
+                bestMove = Long.numberOfTrailingZeros(wins);
+            }
+            return (WIN - ply - 1);
+        }
+        if (threats != 0 && ply == 0)
+        {
+            bestMove = Long.numberOfTrailingZeros(threats);
+        }
+        if (Long.bitCount(threats) > 1)
+        {
+            return (-(WIN - ply - 2));
+        }
+        if (depth <= 0)
+        {
+            return (evaluation);
+        }
+
+        // Look for a result of an earlier search.
+        long result = table.probe(hash);
+        int tableMove = -1;
+        if (result != 0)
+        {
+            tableMove = TranspositionTable.getMove(result);
+            if (ply > 0 && TranspositionTable.getDepth(result) >= depth)
+            {
+                int score = fromTable(TranspositionTable.getScore(result), ply);
+                int flag = TranspositionTable.getFlag(result);
+                if (flag == TranspositionTable.EXACT
+                    || (flag == TranspositionTable.LOWER_BOUND && score >= beta)
+                    || (flag == TranspositionTable.UPPER_BOUND && score <= alpha))
+                {
+                    return (score);
+                }
+            }
+        }
+
+        // A forced move does not use up depth, since it is the only move.
+        int count;
+        int nextDepth = depth - 1;
+        if (threats != 0)
+        {
+            moves[ply][0] = Long.numberOfTrailingZeros(threats);
+            count = 1;
+            nextDepth = depth;
+        }
+        else
+        {
+            count = generateMoves(ply, empty, tableMove);
+        }
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestSpace = -1;
+        for (int index = 0; index < count; index++)
+        {
+            int space = nextMove(ply, index, count);
+
+            makeMove(space);
+            int score = -search(nextDepth, ply + 1, -beta, -alpha);
+            unmakeMove(space);
+
+            if (aborted)
+            {
+                return (0);
+            }
+
+            if (score > bestScore)
+            {
+                bestScore = score;
+                bestSpace = space;
+                if (score > alpha)
+                {
+                    alpha = score;
+                    if (alpha >= beta)
+                    {
+                        history[side][space] += depth * depth;
+                        break;
+                    }
+                }
+            }
+        }
+
+        int flag = bestScore <= originalAlpha ? TranspositionTable.UPPER_BOUND
+            : bestScore >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+        table.store(hash, depth, toTable(bestScore, ply), flag, bestSpace);
+
+        if (ply == 0)
+        {
+            bestMove = bestSpace;
+        }
+
+        return (bestScore);
+    }
+
+    /**
+     * Fills in the moves of 'ply' with the empty spaces and their ordering scores.
+     * 
+     * @return The number of moves.
+     */
+    private int generateMoves(int ply, long empty, int tableMove)
+    {
+        int[] plyMoves = moves[ply];
+        int[] plyScores = moveScores[ply];
+        int[] sideHistory = history[side];
+        int count = 0;
+
+        for (long rest = empty; rest != 0; rest &= rest - 1)
+        {
+            int space = Long.numberOfTrailingZeros(rest);
+            plyMoves[count] = space;
+            plyScores[count] = space == tableMove ? Integer.MAX_VALUE
+                : sideHistory[space] * 8 + QubicBitboard.LINES_THROUGH[space].length + tieBreaks[space];
+            count++;
+        }
+
+        return (count);
+    }
+
+    /**
+     * Moves the best scoring of the moves of 'ply' from 'index' onwards to 'index' and returns it. Picking the moves
+     * one at a time costs nothing for the moves never reached after a cut off.
+     */
+    private int nextMove(int ply, int index, int count)
+    {
+        int[] plyMoves = moves[ply];
+        int[] plyScores = moveScores[ply];
+        int best = index;
+
+        for (int other = index + 1; other < count; other++)
+        {
+            if (plyScores[other] > plyScores[best])
+            {
+                best = other;
+            }
+        }
+
+        int move = plyMoves[best];
+        plyMoves[best] = plyMoves[index];
+        plyScores[best] = plyScores[index];
+        plyMoves[index] = move;
+        plyScores[index] = Integer.MAX_VALUE;
+
+        return (move);
+    }
+
+    /**
+     * Returns 'score', found 'ply' plies from the root, as a score for the transposition table: wins and losses are
+     * counted from the position rather than the root, so they can be used again at any ply.
+     */
+    private static int toTable(int score, int ply)
+    {
+        if (score > WIN_THRESHOLD)
+        {
+            return (score + ply);
+        }
+        if (score < -WIN_THRESHOLD)
+        {
+            return (score - ply);
+        }
+
+        return (score);
+    }
+
+    /**
+     * Returns a score from the transposition table as a score 'ply' plies from the root.
+     */
+    private static int fromTable(int score, int ply)
+    {
+        if (score > WIN_THRESHOLD)
+        {
+            return (score - ply);
+        }
+        if (score < -WIN_THRESHOLD)
+        {
+            return (score + ply);
+        }
+
+        return (score);
+    }
+}
@@ -0,0 +1,479 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays many games of qubic between players without showing them, to compare players. Every pair of players plays
+ * the same number of games, taking turns to move first, and the games are played in parallel on a pool of threads.
+ * Players are made by class name as 'Qubic' makes them, a new player for every game; a class with a constructor
+ * taking a long, such as 'RandomQubicPlayer', is given a different seed for every game so that a tournament can be
+ * repeated exactly.
+ * 
+ * For each pair the wins, draws and losses of the first player are output along with the difference in Elo rating
+ * they imply and its 95% confidence interval, and for each player the average time and nodes searched per move.
+ * Nodes are known only for players that count them ('BitboardQubic0223433'). Every game is written as a line of a
+ * CSV file.
+ * 
+ * A move onto a space that is taken or off the grid loses the game, as does a player throwing an exception.
+ * 
+ * @author gb21
+ */
+public class QubicTournament
+{
+    /**
+     * The players of a tournament if none are given.
+     */
+    public static final String[] DEFAULT_PLAYERS = {"Qubic0223433", "GravityQubic0223433", "RandomQubicPlayer",
+        "BitboardQubic0223433"};
+
+    /**
+     * The seed of the first game, each later game using the next seed.
+     */
+    private static final long BASE_SEED = 316;
+
+    /**
+     * Used for the rules of the game.
+     */
+    private static final Qubic RULES = new Qubic();
+
+    /**
+     * The class name of every player.
+     */
+    private String[] players;
+
+    /**
+     * The number of games each pair of players plays.
+     */
+    private int gamesPerPairing;
+
+    /**
+     * The maximum depth given to players.
+     */
+    private int maxDepth;
+
+    /**
+     * Creates an instance of QubicTournament.
+     * 
+     * @param players The class name of every player.
+     * @param gamesPerPairing The number of games each pair of players plays.
+     * @param maxDepth The maximum depth given to players.
+     */
+    public QubicTournament(String[] players, int gamesPerPairing, int maxDepth)
+    {
+        this.players = players;
+        this.gamesPerPairing = gamesPerPairing;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Plays a tournament and outputs its results.
+     * 
+     * @param args The number of games per pair of players, 100 if none is given, the maximum depth, 2 if none is
+     * given, the number of threads, one per processor if none is given, the CSV file to write, "tournament.csv" if
+     * none is given, and then the class names of the players, DEFAULT_PLAYERS if none are given.
+     * 
+     * @throws Exception If a player cannot be made or the CSV file cannot be written.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String csvFile = args.length > 3 ? args[3] : "tournament.csv";
+        String[] players = DEFAULT_PLAYERS;
+        if (args.length > 4)
+        {
+            players = new String[args.length - 4];
+            System.arraycopy(args, 4, players, 0, players.length);
+        }
+
+        QubicTournament tournament = new QubicTournament(players, games, maxDepth);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        System.out.println("Playing " + games + " games per pairing at depth " + maxDepth + " on " + threads
+            + " threads...");
+        long startTime = System.currentTimeMillis();
+        List<GameResult> results;
+        try
+        {
+            results = tournament.play(executor);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        System.out.println("Played " + results.size() + " games in " + (System.currentTimeMillis() - startTime)
+            + " ms");
+
+        tournament.printResults(results);
+        tournament.writeCsv(results, csvFile);
+        System.out.println("Games written to " + csvFile);
+    }
+
+    /**
+     * Plays every game of the tournament on 'executor'. Anything the players print while the games are played is
+     * discarded.
+     * 
+     * @param executor The threads to play on.
+     * 
+     * @return The result of every game, the games of each pair of players together.
+     * 
+     * @throws Exception If a player cannot be made.
+     */
+    public List<GameResult> play(ExecutorService executor) throws Exception
+    {
+        // Make one of each player first, so that a bad class name is reported before any game is played.
+        for (int index = 0; index < players.length; index++)
+        {
+            createPlayer(players[index], 0);
+        }
+
+        List<Game> tasks = new ArrayList<Game>();
+        long seed = BASE_SEED;
+        for (int first = 0; first < players.length; first++)
+        {
+            for (int second = first + 1; second < players.length; second++)
+            {
+                for (int game = 0; game < gamesPerPairing; game++)
+                {
+                    tasks.add(new Game(first, second, game % 2 == 0, seed++));
+                }
+            }
+        }
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream()
+        {
+            public void write(int b)
+            {
+            }
+        }));
+
+        try
+        {
+            List<Future<GameResult>> futures = executor.invokeAll(tasks);
+            List<GameResult> results = new ArrayList<GameResult>();
+            for (int index = 0; index < futures.size(); index++)
+            {
+                results.add(futures.get(index).get());
+            }
+
+            return (results);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("A game failed", e.getCause());
+        }
+        finally
+        {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Makes a player of class 'className', giving it 'seed' if it has a constructor taking a long.
+     */
+    private static QubicInterface createPlayer(String className, long seed) throws Exception
+    {
+        Class<?> playerClass = Class.forName(className);
+
+        try
+        {
+            return ((QubicInterface) playerClass.getConstructor(long.class).newInstance(Long.valueOf(seed)));
+        }
+        catch (NoSuchMethodException e)
+        {
+            return ((QubicInterface) playerClass.getDeclaredConstructor().newInstance());
+        }
+    }
+
+    /**
+     * Outputs the results of each pair of players and of each player.
+     * 
+     * @param results The result of every game.
+     */
+    public void printResults(List<GameResult> results)
+    {
+        System.out.println();
+        System.out.println("Pairing\tW\tD\tL\tElo difference (95% interval)");
+
+        for (int first = 0; first < players.length; first++)
+        {
+            for (int second = first + 1; second < players.length; second++)
+            {
+                int wins = 0;
+                int draws = 0;
+                int losses = 0;
+                for (int index = 0; index < results.size(); index++)
+                {
+                    GameResult result = results.get(index);
+                    if (result.players[0] == first && result.players[1] == second)
+                    {
+                        if (result.outcome == 0)
+                        {
+                            draws++;
+                        }
+                        else if (result.outcome == 1)
+                        {
+                            wins++;
+                        }
+                        else
+                        {
+                            losses++;
+                        }
+                    }
+                }
+
+                double[] elo = eloDifference(wins, draws, losses);
+                System.out.println(players[first] + " v " + players[second] + "\t" + wins + "\t" + draws + "\t"
+                    + losses + "\t" + Math.round(elo[0]) + " (" + Math.round(elo[1]) + " to " + Math.round(elo[2])
+                    + ")");
+            }
+        }
+
+        System.out.println();
+        System.out.println("Player\tMoves\tms/move\tnodes/move");
+        for (int player = 0; player < players.length; player++)
+        {
+            long moves = 0;
+            long time = 0;
+            long nodes = 0;
+            boolean countsNodes = false;
+            for (int index = 0; index < results.size(); index++)
+            {
+                GameResult result = results.get(index);
+                for (int side = 0; side < 2; side++)
+                {
+                    if (result.players[side] == player)
+                    {
+                        moves += result.moves[side];
+                        time += result.time[side];
+                        if (result.nodes[side] >= 0)
+                        {
+                            nodes += result.nodes[side];
+                            countsNodes = true;
+                        }
+                    }
+                }
+            }
+
+            System.out.println(players[player] + "\t" + moves + "\t"
+                + (moves == 0 ? "-" : String.valueOf(Math.round(time / 1e4 / moves) / 100.0)) + "\t"
+                + (moves == 0 || !countsNodes ? "-" : String.valueOf(nodes / moves)));
+        }
+    }
+
+    /**
+     * Returns the difference in Elo rating implied by a record of wins, draws and losses, with the 95% Wilson score
+     * interval of the average score. Unlike an interval from the spread of the results, this is still wide when every
+     * game has the same result, so a short sweep is not reported as exact. A score of 0 or 1, which would be an
+     * infinite difference, is taken as half a game from it out of one more game than were played, at either end of the
+     * interval too, so the difference is always finite.
+     * 
+     * @return The difference and the lower and upper ends of the interval.
+     */
+    public static double[] eloDifference(int wins, int draws, int losses)
+    {
+        int games = wins + draws + losses;
+        if (games == 0)
+        {
+            return (new double[] {0, 0, 0});
+        }
+
+        double z = 1.96;
+        double score = (wins + 0.5 * draws) / games;
+        double spread = z * z / games;
+        double centre = (score + spread / 2) / (1 + spread);
+        double error = z / (1 + spread) * Math.sqrt(score * (1 - score) / games + spread / (4 * games));
+
+        return (new double[] {elo(score, games), elo(centre - error, games), elo(centre + error, games)});
+    }
+
+    /**
+     * Returns the difference in Elo rating at which the stronger player's expected score is 'score' of 'games'.
+     */
+    private static double elo(double score, int games)
+    {
+        double bound = 0.5 / (games + 1);
+        score = Math.min(Math.max(score, bound), 1 - bound);
+
+        return (-400 * Math.log10(1 / score - 1));
+    }
+
+    /**
+     * Writes a line for every game to 'fileName': the two players, who moved first, the result for the first
+     * player, and for each player the moves made, the milliseconds taken and the nodes searched (-1 if unknown).
+     * 
+     * @param results The result of every game.
+     * @param fileName The CSV file to write.
+     * 
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeCsv(List<GameResult> results, String fileName) throws IOException
+    {
+        PrintWriter out = new PrintWriter(new FileWriter(fileName));
+
+        try
+        {
+            out.println("player1,player2,first,result,moves1,moves2,ms1,ms2,nodes1,nodes2");
+            for (int index = 0; index < results.size(); index++)
+            {
+                GameResult result = results.get(index);
+                out.println(players[result.players[0]] + "," + players[result.players[1]] + ","
+                    + players[result.players[result.firstMoved ? 0 : 1]] + "," + result.outcome + ","
+                    + result.moves[0] + "," + result.moves[1] + "," + result.time[0] / 1000000.0 + ","
+                    + result.time[1] / 1000000.0 + "," + result.nodes[0] + "," + result.nodes[1]);
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * The result of a game between two players, each counted from the first player of the pairing.
+     */
+    public static class GameResult
+    {
+        /**
+         * The indices of the two players in the tournament.
+         */
+        int[] players = new int[2];
+
+        /**
+         * True if players[0] moved first.
+         */
+        boolean firstMoved;
+
+        /**
+         * 1 if players[0] won, 0 for a draw and -1 if players[1] won.
+         */
+        int outcome;
+
+        /**
+         * The number of moves made by each player.
+         */
+        int[] moves = new int[2];
+
+        /**
+         * The time taken by each player in nanoseconds.
+         */
+        long[] time = new long[2];
+
+        /**
+         * The nodes searched by each player, or -1 if the player does not count them.
+         */
+        long[] nodes = new long[2];
+    }
+
+    /**
+     * A game between two players of the tournament.
+     */
+    private class Game implements Callable<GameResult>
+    {
+        private int[] pairing;
+
+        private boolean firstMoves;
+
+        private long seed;
+
+        Game(int first, int second, boolean firstMoves, long seed)
+        {
+            this.pairing = new int[] {first, second};
+            this.firstMoves = firstMoves;
+            this.seed = seed;
+        }
+
+        /**
+         * Plays the game and returns its 'GameResult'.
+         */
+        public GameResult call() throws Exception
+        {
+            GameResult result = new GameResult();
+            result.players = pairing;
+            result.firstMoved = firstMoves;
+
+            // Side 0 is the player of the pairing who moves first, as player 1.
+            QubicInterface[] sides = new QubicInterface[2];
+            for (int player = 0; player < 2; player++)
+            {
+                int side = firstMoves ? player : 1 - player;
+                sides[side] = createPlayer(players[pairing[player]], seed);
+                result.nodes[player] = sides[side] instanceof BitboardQubic0223433 ? 0 : -1;
+            }
+
+            byte[][][] board = new byte[QubicBitboard.GRID_SIZE][QubicBitboard.GRID_SIZE][QubicBitboard.GRID_SIZE];
+            for (int turn = 0; ; turn++)
+            {
+                int side = turn % 2;
+                int player = firstMoves ? side : 1 - side;
+                byte who = (byte) (side == 0 ? 1 : -1);
+
+                long startTime = System.nanoTime();
+                int[] move;
+                try
+                {
+                    move = sides[side].move(board, who, maxDepth);
+                }
+                catch (RuntimeException e)
+                {
+                    move = null;
+                }
+                result.time[player] += System.nanoTime() - startTime;
+                result.moves[player]++;
+                if (result.nodes[player] >= 0)
+                {
+                    result.nodes[player] += ((BitboardQubic0223433) sides[side]).getNodes();
+                }
+
+                if (!isLegal(board, move))
+                {
+                    result.outcome = player == 0 ? -1 : 1;
+                    return (result);
+                }
+
+                board[move[0]][move[1]][move[2]] = who;
+                if (RULES.isWonByPlayer(board, who))
+                {
+                    result.outcome = player == 0 ? 1 : -1;
+                    return (result);
+                }
+                if (RULES.isDrawn(board))
+                {
+                    result.outcome = 0;
+                    return (result);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if 'move' is an empty space of 'board'.
+     */
+    private static boolean isLegal(byte[][][] board, int[] move)
+    {
+        if (move == null || move.length != 3)
+        {
+            return (false);
+        }
+        for (int index = 0; index < 3; index++)
+        {
+            if (move[index] < 0 || move[index] >= QubicBitboard.GRID_SIZE)
+            {
+                return (false);
+            }
+        }
+
+        return (board[move[0]][move[1]][move[2]] == 0);
+    }
+}
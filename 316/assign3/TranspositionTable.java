@@ -0,0 +1,135 @@
+import java.util.Arrays;
+
+/**
+ * A transposition table for alpha-beta search: a fixed number of slots indexed by the low bits of a position's hash,
+ * each holding the result of the last search of a position that hashed there. A result is packed into one long, the
+ * score in the low 32 bits, then 8 bits of depth, 2 bits saying whether the score is exact or a bound and 7 bits of
+ * best move plus one, and it is stored next to its hash exclusive or'd with the result. A probe that finds a slot
+ * whose key and result do not give back the hash probed for returns no result, which also rejects a slot half written
+ * by another thread, so the table can be shared between threads without locking.
+ * 
+ * @author gb21
+ */
+public class TranspositionTable
+{
+    /**
+     * A score that is the exact value of its position.
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * A score that the value of its position is at least, the search having been cut off.
+     */
+    public static final int LOWER_BOUND = 2;
+
+    /**
+     * A score that the value of its position is at most, no move having raised alpha.
+     */
+    public static final int UPPER_BOUND = 3;
+
+    /**
+     * The hash of each slot's position exclusive or'd with its result.
+     */
+    private long[] keys;
+
+    /**
+     * The result in each slot, or 0 if the slot is empty.
+     */
+    private long[] results;
+
+    /**
+     * The number of slots less one.
+     */
+    private int mask;
+
+    /**
+     * Creates an instance of TranspositionTable.
+     * 
+     * @param bits The table has 2 to the power of 'bits' slots, 16 bytes each.
+     */
+    public TranspositionTable(int bits)
+    {
+        keys = new long[1 << bits];
+        results = new long[1 << bits];
+        mask = (1 << bits) - 1;
+    }
+
+    /**
+     * Empties every slot.
+     */
+    public void clear()
+    {
+        Arrays.fill(keys, 0);
+        Arrays.fill(results, 0);
+    }
+
+    /**
+     * Returns the result stored for the position with 'hash'.
+     * 
+     * @param hash The hash of the position.
+     * 
+     * @return The packed result, or 0 if there is none.
+     */
+    public long probe(long hash)
+    {
+        int slot = (int) hash & mask;
+        long result = results[slot];
+
+        if ((keys[slot] ^ result) != hash)
+        {
+            return (0);
+        }
+
+        return (result);
+    }
+
+    /**
+     * Stores the result of a search of the position with 'hash', replacing whatever was in its slot.
+     * 
+     * @param hash The hash of the position.
+     * @param depth The depth the position was searched to, 0 to 255.
+     * @param score The score found.
+     * @param flag EXACT, LOWER_BOUND or UPPER_BOUND.
+     * @param move The best move found, or -1 if there is none.
+     */
+    public void store(long hash, int depth, int score, int flag, int move)
+    {
+        int slot = (int) hash & mask;
+        long result = (score & 0xFFFFFFFFL) | (long) depth << 32 | (long) flag << 40 | (long) (move + 1) << 42;
+
+        results[slot] = result;
+        keys[slot] = hash ^ result;
+    }
+
+    /**
+     * Returns the score of a packed result.
+     */
+    public static int getScore(long result)
+    {
+        return ((int) result);
+    }
+
+    /**
+     * Returns the depth of a packed result.
+     */
+    public static int getDepth(long result)
+    {
+        return ((int) (result >>> 32) & 0xFF);
+    }
+
+    /**
+     * Returns EXACT, LOWER_BOUND or UPPER_BOUND for a packed result.
+     */
+    public static int getFlag(long result)
+    {
+        return ((int) (result >>> 40) & 0x3);
+    }
+
+    /**
+     * Returns the best move of a packed result, or -1 if it has none.
+     */
+    public static int getMove(long result)
+    {
+        return ((int) (result >>> 42) & 0x7F) - 1;
+    }
+}
@@ -0,0 +1,608 @@
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Learns a decision tree from an 'ExampleBlock' by the information gain strategy of 'DecisionTreeLearner'. The
+ * examples that reach a node are a bitset, so counting the positive examples, or those with an attribute true, is a
+ * bit count of an and of two bitsets, and splitting the examples on an attribute is an and with the attribute's
+ * bitset and with its complement. No example is ever copied. Deep in the tree, where a node's examples are few and
+ * spread over the whole bitset, they are listed by index instead and counted one at a time.
+ * 
+ * The gain of every attribute still available at a node is calculated in parallel on a ForkJoinPool when there are
+ * enough examples at the node for it to pay off. The trees built are made of 'Node's like those of
+ * 'DecisionTreeLearner', so 'DecisionTree.testExample' classifies with them.
+ * 
+ * Unlike 'DecisionTreeLearner', each branch of the tree has its own record of the attributes used above it, and the
+ * gains are calculated in floating point, so the trees are those of ID3.
+ * 
+ * @author gb21
+ */
+public class BitsetDecisionTreeLearner
+{
+    /**
+     * The number of attributes times words of examples below which the gains at a node are calculated on the calling
+     * thread, and which each parallel task calculates at most.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /**
+     * A node with fewer examples than this many per word of its bitset lists its examples instead.
+     */
+    public static final int SPARSE_EXAMPLES_PER_WORD = 4;
+
+    /**
+     * The examples to learn from.
+     */
+    private ExampleBlock block;
+
+    /**
+     * The threads to calculate gains on.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The number of the available attributes chosen at random to choose from at each node, or 0 to choose from all of
+     * them.
+     */
+    private int attributesPerSplit;
+
+    /**
+     * The source of the attributes chosen at each node.
+     */
+    private Random random;
+
+    /**
+     * Creates an instance of BitsetDecisionTreeLearner calculating gains on the common pool.
+     * 
+     * @param block The examples to learn from.
+     */
+    public BitsetDecisionTreeLearner(ExampleBlock block)
+    {
+        this(block, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an instance of BitsetDecisionTreeLearner.
+     * 
+     * @param block The examples to learn from.
+     * @param pool The threads to calculate gains on.
+     */
+    public BitsetDecisionTreeLearner(ExampleBlock block, ForkJoinPool pool)
+    {
+        this(block, pool, 0, null);
+    }
+
+    /**
+     * Creates an instance of BitsetDecisionTreeLearner that chooses the attribute of each node from a random few of
+     * the attributes available, as the trees of a random forest do.
+     * 
+     * @param block The examples to learn from.
+     * @param pool The threads to calculate gains on.
+     * @param attributesPerSplit The number of available attributes to choose from at each node, or 0 for all of them.
+     * @param random The source of the attributes chosen at each node, used only if 'attributesPerSplit' is not 0.
+     */
+    public BitsetDecisionTreeLearner(ExampleBlock block, ForkJoinPool pool, int attributesPerSplit, Random random)
+    {
+        this.block = block;
+        this.pool = pool;
+        this.attributesPerSplit = attributesPerSplit;
+        this.random = random;
+    }
+
+    /**
+     * Learns a decision tree from a file of examples or from random examples and tests it.
+     * 
+     * @param args The examples file name, the number of examples at the end of the file to test the tree with instead
+     * of learning from, and optionally the number of threads; or "random", the number of examples, the number of
+     * attributes and optionally the number of threads, to learn from random examples from 'ExampleBlock.random' and
+     * test with as many more.
+     * 
+     * @throws IOException If the examples file cannot be read.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2 || (args[0].equals("random") && args.length < 3))
+        {
+            System.out.println("Usage:");
+            System.out.println("BitsetDecisionTreeLearner <examples file name> <test size> [threads]");
+            System.out.println("BitsetDecisionTreeLearner random <examples> <attributes> [threads]");
+            System.exit(0);
+        }
+
+        ExampleBlock examples;
+        ExampleBlock testExamples;
+        int threadsArg;
+        if (args[0].equals("random"))
+        {
+            int numExamples = Integer.parseInt(args[1]);
+            int numAttributes = Integer.parseInt(args[2]);
+            Random random = new Random(316);
+            examples = ExampleBlock.random(numExamples, numAttributes, random);
+            testExamples = ExampleBlock.random(numExamples, numAttributes, random);
+            threadsArg = 3;
+        }
+        else
+        {
+            ExampleBlock all = ExampleBlock.read(args[0]);
+            int testSize = Math.min(Integer.parseInt(args[1]), all.getNumExamples() - 1);
+            examples = all.subBlock(0, all.getNumExamples() - testSize);
+            testExamples = all.subBlock(all.getNumExamples() - testSize, all.getNumExamples());
+            threadsArg = 2;
+        }
+
+        ForkJoinPool pool = args.length > threadsArg ? new ForkJoinPool(Integer.parseInt(args[threadsArg]))
+            : ForkJoinPool.commonPool();
+
+        System.out.println("Building tree from " + examples.getNumExamples() + " examples of "
+            + examples.getNumAttributes() + " attributes on " + pool.getParallelism() + " threads...");
+        long startTime = System.currentTimeMillis();
+        DecisionTree tree = new BitsetDecisionTreeLearner(examples, pool).createTree();
+        System.out.println("Tree of " + countNodes(tree.getRoot()) + " nodes built in "
+            + (System.currentTimeMillis() - startTime) + " ms.");
+
+        int passed = 0;
+        for (int example = 0; example < testExamples.getNumExamples(); example++)
+        {
+            if (classify(tree.getRoot(), testExamples, example) == testExamples.getClassification(example))
+            {
+                passed++;
+            }
+        }
+        System.out.println("Tree tested with " + (testExamples.getNumExamples() == 0 ? 0
+            : passed * 100.0 / testExamples.getNumExamples()) + "% of " + testExamples.getNumExamples()
+            + " examples classified correctly.");
+    }
+
+    /**
+     * Returns the number of nodes in the tree below and including 'node'.
+     */
+    private static int countNodes(Node node)
+    {
+        int count = 1;
+
+        for (int index = 0; index < node.getChildren().size(); index++)
+        {
+            count += countNodes((Node) node.getChildren().get(index));
+        }
+
+        return (count);
+    }
+
+    /**
+     * Returns the classification by the tree below 'node' of example 'index' of 'examples'.
+     */
+    private static boolean classify(Node node, ExampleBlock examples, int index)
+    {
+        while (node.getChildren().size() > 0)
+        {
+            boolean value = examples.getValue(index, node.getAttribute());
+            Node child = (Node) node.getChildren().get(0);
+            node = child.getValue() == value ? child : (Node) node.getChildren().get(1);
+        }
+
+        return (node.getClassification());
+    }
+
+    /**
+     * Learns a decision tree from every example of the block using every attribute.
+     * 
+     * @return The decision tree.
+     */
+    public DecisionTree createTree()
+    {
+        boolean[] attributes = new boolean[block.getNumAttributes()];
+        for (int index = 0; index < attributes.length; index++)
+        {
+            attributes[index] = true;
+        }
+
+        return (createTree(block.allExamples(), attributes));
+    }
+
+    /**
+     * Learns a decision tree from some of the examples of the block using some of the attributes.
+     * 
+     * @param examples The bitset of the examples to learn from.
+     * @param attributes True for each attribute the tree may use.
+     * 
+     * @return The decision tree.
+     */
+    public DecisionTree createTree(long[] examples, boolean[] attributes)
+    {
+        DecisionTree tree = new DecisionTree();
+        int[] range = trim(examples, 0, examples.length);
+
+        // If no examples are given, classify as DecisionTreeLearner does.
+        createNode(tree.getRoot(), examples, range[0], range[1], attributes.clone(), false);
+
+        return (tree);
+    }
+
+    /**
+     * Makes 'node' the root of a tree classifying 'examples', whose words outside 'from' to 'to' - 1 are 0.
+     * 
+     * @param node The node to fill in.
+     * @param examples The bitset of the examples that reach the node.
+     * @param from The first word of 'examples' that may not be 0.
+     * @param to One past the last word of 'examples' that may not be 0.
+     * @param attributes True for each attribute not yet used on the path to the node, changed by this method.
+     * @param majority The majority classification of the examples at the node's parent.
+     */
+    private void createNode(Node node, long[] examples, int from, int to, boolean[] attributes, boolean majority)
+    {
+        long[] classifications = block.getClassifications();
+        int count = 0;
+        int positives = 0;
+        for (int word = from; word < to; word++)
+        {
+            count += Long.bitCount(examples[word]);
+            positives += Long.bitCount(examples[word] & classifications[word]);
+        }
+
+        // If no examples are left.
+        if (count == 0)
+        {
+            node.setClassification(majority);
+            return;
+        }
+
+        // If all remaining examples have the same classification.
+        if (positives == 0 || positives == count)
+        {
+            node.setClassification(positives == count);
+            return;
+        }
+
+        // Once few examples are left, listing them is quicker than scanning words that are mostly 0.
+        if (count < SPARSE_EXAMPLES_PER_WORD * (to - from))
+        {
+            int[] list = new int[count];
+            int index = 0;
+            for (int word = from; word < to; word++)
+            {
+                for (long rest = examples[word]; rest != 0; rest &= rest - 1)
+                {
+                    list[index++] = (word << 6) + Long.numberOfTrailingZeros(rest);
+                }
+            }
+
+            createNode(node, list, attributes, majority);
+            return;
+        }
+
+        majority = positives > count - positives;
+        int bestIndex = chooseAttribute(examples, from, to, sampleAttributes(attributes), count, positives);
+
+        // If all attributes have been used already.
+        if (bestIndex == -1)
+        {
+            node.setClassification(majority);
+            return;
+        }
+
+        attributes[bestIndex] = false;
+        node.setAttribute(bestIndex);
+
+        long[] attribute = block.getAttribute(bestIndex);
+        long[] falseExamples = new long[examples.length];
+        long[] trueExamples = new long[examples.length];
+        for (int word = from; word < to; word++)
+        {
+            falseExamples[word] = examples[word] & ~attribute[word];
+            trueExamples[word] = examples[word] & attribute[word];
+        }
+
+        // For attribute value of false.
+        Node child = new Node();
+        int[] range = trim(falseExamples, from, to);
+        createNode(child, falseExamples, range[0], range[1], attributes.clone(), majority);
+        child.setValue(false);
+        node.addChild(child);
+
+        // For attribute value of true.
+        child = new Node();
+        range = trim(trueExamples, from, to);
+        createNode(child, trueExamples, range[0], range[1], attributes, majority);
+        child.setValue(true);
+        node.addChild(child);
+    }
+
+    /**
+     * Makes 'node' the root of a tree classifying the examples listed in 'examples', as the other 'createNode' does.
+     * 
+     * @param node The node to fill in.
+     * @param examples The index of each example that reaches the node.
+     * @param attributes True for each attribute not yet used on the path to the node, changed by this method.
+     * @param majority The majority classification of the examples at the node's parent.
+     */
+    private void createNode(Node node, int[] examples, boolean[] attributes, boolean majority)
+    {
+        long[] classifications = block.getClassifications();
+        int count = examples.length;
+        int positives = 0;
+        for (int index = 0; index < count; index++)
+        {
+            positives += (int) (classifications[examples[index] >>> 6] >>> examples[index]) & 1;
+        }
+
+        // If no examples are left.
+        if (count == 0)
+        {
+            node.setClassification(majority);
+            return;
+        }
+
+        // If all remaining examples have the same classification.
+        if (positives == 0 || positives == count)
+        {
+            node.setClassification(positives == count);
+            return;
+        }
+
+        majority = positives > count - positives;
+        int bestIndex = -1;
+        int bestTrueCount = 0;
+        double bestGain = 0;
+        boolean[] candidates = sampleAttributes(attributes);
+        for (int attributeIndex = 0; attributeIndex < candidates.length; attributeIndex++)
+        {
+            if (!candidates[attributeIndex])
+            {
+                continue;
+            }
+
+            long[] attribute = block.getAttribute(attributeIndex);
+            int trueCount = 0;
+            int truePositives = 0;
+            for (int index = 0; index < count; index++)
+            {
+                int word = examples[index] >>> 6;
+                int value = (int) (attribute[word] >>> examples[index]) & 1;
+                trueCount += value;
+                truePositives += value & (int) (classifications[word] >>> examples[index]);
+            }
+
+            double gain = informationGain(count, positives, trueCount, truePositives);
+            if (bestIndex == -1 || gain >= bestGain)
+            {
+                bestIndex = attributeIndex;
+                bestGain = gain;
+                bestTrueCount = trueCount;
+            }
+        }
+
+        // If all attributes have been used already.
+        if (bestIndex == -1)
+        {
+            node.setClassification(majority);
+            return;
+        }
+
+        attributes[bestIndex] = false;
+        node.setAttribute(bestIndex);
+
+        long[] attribute = block.getAttribute(bestIndex);
+        int[] falseExamples = new int[count - bestTrueCount];
+        int[] trueExamples = new int[bestTrueCount];
+        int falseIndex = 0;
+        int trueIndex = 0;
+        for (int index = 0; index < count; index++)
+        {
+            if ((attribute[examples[index] >>> 6] & (1L << examples[index])) != 0)
+            {
+                trueExamples[trueIndex++] = examples[index];
+            }
+            else
+            {
+                falseExamples[falseIndex++] = examples[index];
+            }
+        }
+
+        // For attribute value of false.
+        Node child = new Node();
+        createNode(child, falseExamples, attributes.clone(), majority);
+        child.setValue(false);
+        node.addChild(child);
+
+        // For attribute value of true.
+        child = new Node();
+        createNode(child, trueExamples, attributes, majority);
+        child.setValue(true);
+        node.addChild(child);
+    }
+
+    /**
+     * Returns the attributes to choose the attribute of a node from: 'attributesPerSplit' of the 'available'
+     * attributes chosen at random, or 'available' itself if there are no more than that.
+     */
+    private boolean[] sampleAttributes(boolean[] available)
+    {
+        if (attributesPerSplit <= 0)
+        {
+            return (available);
+        }
+
+        int[] indices = new int[available.length];
+        int numAvailable = 0;
+        for (int index = 0; index < available.length; index++)
+        {
+            if (available[index])
+            {
+                indices[numAvailable++] = index;
+            }
+        }
+        if (numAvailable <= attributesPerSplit)
+        {
+            return (available);
+        }
+
+        // Move a random available attribute to each of the first attributesPerSplit places.
+        boolean[] candidates = new boolean[available.length];
+        for (int place = 0; place < attributesPerSplit; place++)
+        {
+            int other = place + random.nextInt(numAvailable - place);
+            int swap = indices[other];
+            indices[other] = indices[place];
+            indices[place] = swap;
+            candidates[swap] = true;
+        }
+
+        return (candidates);
+    }
+
+    /**
+     * Returns the first and one past the last words from 'from' to 'to' - 1 of 'examples' that are not 0.
+     */
+    private static int[] trim(long[] examples, int from, int to)
+    {
+        while (from < to && examples[from] == 0)
+        {
+            from++;
+        }
+        while (to > from && examples[to - 1] == 0)
+        {
+            to--;
+        }
+
+        return (new int[] {from, to});
+    }
+
+    /**
+     * Returns the available attribute with the highest information gain for 'examples', the highest indexed of those
+     * with equal gain as in 'DecisionTreeLearner', or -1 if no attribute is available.
+     */
+    private int chooseAttribute(long[] examples, int from, int to, boolean[] attributes, int count, int positives)
+    {
+        double[] gains = new double[attributes.length];
+        GainTask task = new GainTask(examples, from, to, attributes, count, positives, gains, 0, attributes.length);
+
+        if ((long) attributes.length * (to - from) < PARALLEL_THRESHOLD)
+        {
+            task.compute();
+        }
+        else
+        {
+            pool.invoke(task);
+        }
+
+        int chosenIndex = -1;
+        for (int index = 0; index < attributes.length; index++)
+        {
+            if (attributes[index] && (chosenIndex == -1 || gains[index] >= gains[chosenIndex]))
+            {
+                chosenIndex = index;
+            }
+        }
+
+        return (chosenIndex);
+    }
+
+    /**
+     * Returns the information gain of splitting 'count' examples, 'positives' of them positive, into the
+     * 'trueCount' with an attribute true, 'truePositives' of them positive, and the rest.
+     */
+    static double informationGain(int count, int positives, int trueCount, int truePositives)
+    {
+        int falseCount = count - trueCount;
+        int falsePositives = positives - truePositives;
+
+        double remainder = (double) trueCount / count * informationContent(trueCount, truePositives)
+            + (double) falseCount / count * informationContent(falseCount, falsePositives);
+
+        return (informationContent(count, positives) - remainder);
+    }
+
+    /**
+     * Returns the information content of 'count' examples, 'positives' of them positive, 0 if there are none.
+     */
+    private static double informationContent(int count, int positives)
+    {
+        if (positives == 0 || positives == count)
+        {
+            return (0.0);
+        }
+
+        double positiveProportion = (double) positives / count;
+        double negativeProportion = 1 - positiveProportion;
+
+        return (-(positiveProportion * Math.log(positiveProportion) + negativeProportion
+            * Math.log(negativeProportion)) / Math.log(2));
+    }
+
+    /**
+     * Calculates the gains of the available attributes in a range, splitting the range in half until it is small
+     * enough.
+     */
+    private class GainTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private long[] examples;
+
+        private int from;
+
+        private int to;
+
+        private boolean[] attributes;
+
+        private int count;
+
+        private int positives;
+
+        private double[] gains;
+
+        private int firstAttribute;
+
+        private int lastAttribute;
+
+        GainTask(long[] examples, int from, int to, boolean[] attributes, int count, int positives, double[] gains,
+            int firstAttribute, int lastAttribute)
+        {
+            this.examples = examples;
+            this.from = from;
+            this.to = to;
+            this.attributes = attributes;
+            this.count = count;
+            this.positives = positives;
+            this.gains = gains;
+            this.firstAttribute = firstAttribute;
+            this.lastAttribute = lastAttribute;
+        }
+
+        protected void compute()
+        {
+            if (lastAttribute - firstAttribute > 1 && (long) (lastAttribute - firstAttribute) * (to - from)
+                > PARALLEL_THRESHOLD)
+            {
+                int middle = (firstAttribute + lastAttribute) >>> 1;
+                invokeAll(new GainTask(examples, from, to, attributes, count, positives, gains, firstAttribute,
+                    middle), new GainTask(examples, from, to, attributes, count, positives, gains, middle,
+                    lastAttribute));
+                return;
+            }
+
+            long[] classifications = block.getClassifications();
+            for (int index = firstAttribute; index < lastAttribute; index++)
+            {
+                if (!attributes[index])
+                {
+                    continue;
+                }
+
+                long[] attribute = block.getAttribute(index);
+                int trueCount = 0;
+                int truePositives = 0;
+                for (int word = from; word < to; word++)
+                {
+                    long trueExamples = examples[word] & attribute[word];
+                    trueCount += Long.bitCount(trueExamples);
+                    truePositives += Long.bitCount(trueExamples & classifications[word]);
+                }
+
+                gains[index] = informationGain(count, positives, trueCount, truePositives);
+            }
+        }
+    }
+}
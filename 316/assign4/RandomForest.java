@@ -0,0 +1,439 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A random forest: many decision trees, each learnt by a 'BitsetDecisionTreeLearner' from a bootstrap sample of the
+ * examples (as many examples drawn at random with replacement) choosing the attribute of each node from a random few
+ * of the attributes, which classify an example by majority vote. A tie is classified as false, as
+ * 'DecisionTreeLearner' takes the majority value of an even split to be false.
+ * 
+ * The trees are learnt in parallel and then flattened into two int arrays shared by the whole forest: node i tests
+ * attribute attributes[i], and its children are nodes children[i] (for false) and children[i] + 1 (for true), or it
+ * is a leaf if attributes[i] is -1 and classifies as children[i], 0 or 1. The nodes of each tree are laid out breadth
+ * first, so the nodes near the root, which every example visits, are next to each other. Classifying a block of
+ * examples walks one tree at a time over a range of examples, so each tree stays in the cache while it is used.
+ * 
+ * @author gb21
+ */
+public class RandomForest
+{
+    /**
+     * The number of examples classified by each parallel task.
+     */
+    public static final int CLASSIFY_CHUNK = 1 << 14;
+
+    /**
+     * The attribute each node tests, or -1 for a leaf.
+     */
+    private int[] attributes;
+
+    /**
+     * The false child of each node, the true child following it, or the classification of a leaf.
+     */
+    private int[] children;
+
+    /**
+     * The node at the root of each tree.
+     */
+    private int[] roots;
+
+    /**
+     * The threads to learn and classify on.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Learns a random forest.
+     * 
+     * @param block The examples to learn from.
+     * @param numTrees The number of trees.
+     * @param attributesPerSplit The number of attributes each node chooses from.
+     * @param seed The seed of the random choices, each tree using its own seed from this one.
+     * @param pool The threads to learn the trees on, and to classify on later.
+     */
+    public RandomForest(ExampleBlock block, int numTrees, int attributesPerSplit, long seed, ForkJoinPool pool)
+    {
+        this.pool = pool;
+
+        List<TreeTask> tasks = new ArrayList<TreeTask>();
+        for (int tree = 0; tree < numTrees; tree++)
+        {
+            tasks.add(new TreeTask(block, attributesPerSplit, seed + tree, pool));
+        }
+
+        DecisionTree[] trees = new DecisionTree[numTrees];
+        try
+        {
+            List<Future<DecisionTree>> futures = pool.invokeAll(tasks);
+            for (int tree = 0; tree < numTrees; tree++)
+            {
+                trees[tree] = futures.get(tree).get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while learning the forest", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Learning a tree failed", e.getCause());
+        }
+
+        flatten(trees);
+    }
+
+    /**
+     * Returns the number of attributes each node of a forest chooses from by default, the square root of the number
+     * of attributes.
+     */
+    public static int defaultAttributesPerSplit(int numAttributes)
+    {
+        return (Math.max(1, (int) Math.round(Math.sqrt(numAttributes))));
+    }
+
+    /**
+     * Learns a random forest and a single decision tree from a file of examples or from random examples, and compares
+     * how accurately and how quickly they classify.
+     * 
+     * @param args The examples file name and the number of examples at the end of the file to test with instead of
+     * learning from, or "random", the number of examples and the number of attributes to learn from random examples
+     * from 'ExampleBlock.random' and test with as many more; then optionally the number of trees, 32 if none is
+     * given, and the number of threads, one per processor if none is given.
+     * 
+     * @throws IOException If the examples file cannot be read.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2 || (args[0].equals("random") && args.length < 3))
+        {
+            System.out.println("Usage:");
+            System.out.println("RandomForest <examples file name> <test size> [trees] [threads]");
+            System.out.println("RandomForest random <examples> <attributes> [trees] [threads]");
+            System.exit(0);
+        }
+
+        ExampleBlock examples;
+        ExampleBlock testExamples;
+        int nextArg;
+        if (args[0].equals("random"))
+        {
+            Random random = new Random(316);
+            examples = ExampleBlock.random(Integer.parseInt(args[1]), Integer.parseInt(args[2]), random);
+            testExamples = ExampleBlock.random(Integer.parseInt(args[1]), Integer.parseInt(args[2]), random);
+            nextArg = 3;
+        }
+        else
+        {
+            ExampleBlock all = ExampleBlock.read(args[0]);
+            int testSize = Math.min(Integer.parseInt(args[1]), all.getNumExamples() - 1);
+            examples = all.subBlock(0, all.getNumExamples() - testSize);
+            testExamples = all.subBlock(all.getNumExamples() - testSize, all.getNumExamples());
+            nextArg = 2;
+        }
+        int numTrees = args.length > nextArg ? Integer.parseInt(args[nextArg]) : 32;
+        ForkJoinPool pool = args.length > nextArg + 1 ? new ForkJoinPool(Integer.parseInt(args[nextArg + 1]))
+            : ForkJoinPool.commonPool();
+        int numTests = testExamples.getNumExamples();
+
+        System.out.println("Learning from " + examples.getNumExamples() + " examples of "
+            + examples.getNumAttributes() + " attributes on " + pool.getParallelism() + " threads...");
+
+        long startTime = System.nanoTime();
+        DecisionTree tree = new BitsetDecisionTreeLearner(examples, pool).createTree();
+        System.out.println("Single tree learnt in " + (System.nanoTime() - startTime) / 1000000 + " ms.");
+
+        startTime = System.nanoTime();
+        RandomForest forest = new RandomForest(examples, numTrees,
+            defaultAttributesPerSplit(examples.getNumAttributes()), 316, pool);
+        System.out.println("Forest of " + numTrees + " trees with " + forest.getNumNodes() + " nodes learnt in "
+            + (System.nanoTime() - startTime) / 1000000 + " ms.");
+
+        // The single tree classifies Strings, as DecisionTreeLearner tests it.
+        String[] testStrings = new String[numTests];
+        for (int example = 0; example < numTests; example++)
+        {
+            testStrings[example] = testExamples.getExample(example);
+        }
+
+        for (int run = 0; run < 3; run++)
+        {
+            startTime = System.nanoTime();
+            int treeCorrect = 0;
+            for (int example = 0; example < numTests; example++)
+            {
+                if (tree.testExample(testStrings[example]) == testExamples.getClassification(example))
+                {
+                    treeCorrect++;
+                }
+            }
+            long treeTime = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            long[] classifications = forest.classify(testExamples);
+            long forestTime = System.nanoTime() - startTime;
+            int forestCorrect = 0;
+            for (int example = 0; example < numTests; example++)
+            {
+                boolean classification = (classifications[example >>> 6] & (1L << example)) != 0;
+                if (classification == testExamples.getClassification(example))
+                {
+                    forestCorrect++;
+                }
+            }
+
+            System.out.println("Run " + (run + 1) + ":");
+            System.out.println("  Single tree testExample: " + treeCorrect * 100.0 / numTests + "% correct, "
+                + Math.round(numTests / (treeTime / 1e9)) + " examples/s");
+            System.out.println("  Forest classify: " + forestCorrect * 100.0 / numTests + "% correct, "
+                + Math.round(numTests / (forestTime / 1e9)) + " examples/s, "
+                + Math.round((double) numTests * numTrees / (forestTime / 1e9)) + " tree walks/s");
+        }
+    }
+
+    /**
+     * Lays the trees out breadth first in 'attributes' and 'children'.
+     */
+    private void flatten(DecisionTree[] trees)
+    {
+        int numNodes = 0;
+        for (int tree = 0; tree < trees.length; tree++)
+        {
+            numNodes += countNodes(trees[tree].getRoot());
+        }
+
+        attributes = new int[numNodes];
+        children = new int[numNodes];
+        roots = new int[trees.length];
+        Node[] queue = new Node[numNodes];
+
+        int next = 0;
+        for (int tree = 0; tree < trees.length; tree++)
+        {
+            roots[tree] = next;
+            queue[next++] = trees[tree].getRoot();
+
+            for (int index = roots[tree]; index < next; index++)
+            {
+                Node node = queue[index];
+                if (node.getChildren().size() == 0)
+                {
+                    attributes[index] = -1;
+                    children[index] = node.getClassification() ? 1 : 0;
+                    continue;
+                }
+
+                Node first = (Node) node.getChildren().get(0);
+                Node second = (Node) node.getChildren().get(1);
+                attributes[index] = node.getAttribute();
+                children[index] = next;
+                queue[next++] = first.getValue() ? second : first;
+                queue[next++] = first.getValue() ? first : second;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of nodes in the tree below and including 'node'.
+     */
+    private static int countNodes(Node node)
+    {
+        int count = 1;
+
+        for (int index = 0; index < node.getChildren().size(); index++)
+        {
+            count += countNodes((Node) node.getChildren().get(index));
+        }
+
+        return (count);
+    }
+
+    /**
+     * Returns the number of trees in this forest.
+     * 
+     * @return The number of trees.
+     */
+    public int getNumTrees()
+    {
+        return (roots.length);
+    }
+
+    /**
+     * Returns the number of nodes in all the trees of this forest.
+     * 
+     * @return The number of nodes.
+     */
+    public int getNumNodes()
+    {
+        return (attributes.length);
+    }
+
+    /**
+     * Classifies a single example.
+     * 
+     * @param example The example, in the form read by 'DecisionTreeLearner'; a classification at the end is ignored.
+     * 
+     * @return True if most trees classify the example as true, false otherwise.
+     */
+    public boolean classify(String example)
+    {
+        int votes = 0;
+
+        for (int tree = 0; tree < roots.length; tree++)
+        {
+            int node = roots[tree];
+            while (attributes[node] != -1)
+            {
+                node = children[node] + (example.charAt(attributes[node]) == '1' ? 1 : 0);
+            }
+            votes += children[node];
+        }
+
+        return (votes * 2 > roots.length);
+    }
+
+    /**
+     * Classifies every example of 'block', in parallel.
+     * 
+     * @param block The examples, whose classifications are ignored.
+     * 
+     * @return A bitset of the examples classified as true, in the form of 'ExampleBlock'.
+     */
+    public long[] classify(ExampleBlock block)
+    {
+        long[] classifications = new long[ExampleBlock.words(block.getNumExamples())];
+        ClassifyTask task = new ClassifyTask(block, classifications, 0, block.getNumExamples());
+
+        if (block.getNumExamples() <= CLASSIFY_CHUNK)
+        {
+            task.compute();
+        }
+        else
+        {
+            pool.invoke(task);
+        }
+
+        return (classifications);
+    }
+
+    /**
+     * Classifies examples 'from' to 'to' - 1 of 'block' into 'classifications'. 'from' must be a multiple of 64, so
+     * that no other range writes to the same words.
+     */
+    private void classifyRange(ExampleBlock block, long[] classifications, int from, int to)
+    {
+        int[] votes = new int[to - from];
+        long[][] columns = new long[block.getNumAttributes()][];
+        for (int attribute = 0; attribute < columns.length; attribute++)
+        {
+            columns[attribute] = block.getAttribute(attribute);
+        }
+
+        for (int tree = 0; tree < roots.length; tree++)
+        {
+            int root = roots[tree];
+            for (int example = from; example < to; example++)
+            {
+                int node = root;
+                int attribute;
+                while ((attribute = attributes[node]) != -1)
+                {
+                    node = children[node] + (int) ((columns[attribute][example >>> 6] >>> example) & 1);
+                }
+                votes[example - from] += children[node];
+            }
+        }
+
+        for (int example = from; example < to; example++)
+        {
+            if (votes[example - from] * 2 > roots.length)
+            {
+                classifications[example >>> 6] |= 1L << example;
+            }
+        }
+    }
+
+    /**
+     * Learns one tree of the forest from its own bootstrap sample.
+     */
+    private static class TreeTask implements Callable<DecisionTree>
+    {
+        private ExampleBlock block;
+
+        private int attributesPerSplit;
+
+        private long seed;
+
+        private ForkJoinPool pool;
+
+        TreeTask(ExampleBlock block, int attributesPerSplit, long seed, ForkJoinPool pool)
+        {
+            this.block = block;
+            this.attributesPerSplit = attributesPerSplit;
+            this.seed = seed;
+            this.pool = pool;
+        }
+
+        /**
+         * Returns the tree learnt.
+         */
+        public DecisionTree call()
+        {
+            Random random = new Random(seed);
+            int[] sample = new int[block.getNumExamples()];
+            for (int index = 0; index < sample.length; index++)
+            {
+                sample[index] = random.nextInt(sample.length);
+            }
+
+            ExampleBlock bootstrap = block.select(sample);
+
+            return (new BitsetDecisionTreeLearner(bootstrap, pool, attributesPerSplit, random).createTree());
+        }
+    }
+
+    /**
+     * Classifies a range of examples, splitting it in half until it is no more than CLASSIFY_CHUNK examples.
+     */
+    private class ClassifyTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private ExampleBlock block;
+
+        private long[] classifications;
+
+        private int from;
+
+        private int to;
+
+        ClassifyTask(ExampleBlock block, long[] classifications, int from, int to)
+        {
+            this.block = block;
+            this.classifications = classifications;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute()
+        {
+            if (to - from <= CLASSIFY_CHUNK)
+            {
+                classifyRange(block, classifications, from, to);
+                return;
+            }
+
+            // Split on a multiple of 64 so that each half writes its own words.
+            int middle = ((from + to) >>> 1) & ~63;
+            invokeAll(new ClassifyTask(block, classifications, from, middle),
+                new ClassifyTask(block, classifications, middle, to));
+        }
+    }
+}
@@ -7,43 +7,82 @@
  * 
  * @author simple
  */
-public class AdaptingStack
+public class AdaptingStack implements IntStack
 {
 	public AdaptingStack()
 	{
 		stack = new int[1];
 		size = 0;
+		peakBytes = 4;
 	}
 
 	private int stack[];
 
 	private int size;
 
+	private long copiedBytes;
+
+	private long peakBytes;
+
 	public void push(int x)
 	{
 		if (size >= stack.length)
 		{
-			int newStack[] = new int[stack.length * 2];
-			System.arraycopy(stack, 0, newStack, 0, size);
-			stack = newStack;
+			resize(stack.length * 2);
 		}
 		stack[size++] = x;
 	}
 
 	public int pop()
 	{
-		if (size <= stack.length / 4)
+		int x = stack[--size];
+
+		// Halve the array once it is only a quarter full, so that it is then half full and a push straight after
+		// does not have to grow it again.
+		if (size <= stack.length / 4 && stack.length > 1)
 		{
-			int newStack[] = new int[stack.length / 2];
-			System.arraycopy(stack, 0, newStack, 0, size);
-			stack = newStack;
+			resize(stack.length / 2);
 		}
 
-		return (stack[size--]);
+		return (x);
+	}
+
+	public int peek()
+	{
+		return (stack[size - 1]);
 	}
 
 	public int size()
 	{
 		return (size);
 	}
+
+	public boolean isEmpty()
+	{
+		return (size == 0);
+	}
+
+	public long getCopiedBytes()
+	{
+		return (copiedBytes);
+	}
+
+	public long getPeakBytes()
+	{
+		return (peakBytes);
+	}
+
+	/**
+	 * Moves the elements to a new array of 'length' ints.
+	 */
+	private void resize(int length)
+	{
+		int newStack[] = new int[length];
+		System.arraycopy(stack, 0, newStack, 0, size);
+
+		copiedBytes += size * 4L;
+		peakBytes = Math.max(peakBytes, (stack.length + (long) length) * 4);
+
+		stack = newStack;
+	}
 }
@@ -0,0 +1,156 @@
+/////////////////////////////////////////////////
+///////////////// Chunked Stack /////////////////
+/////////////////////////////////////////////////
+/**
+ * A stack held in fixed size segments of 4096 ints, so that growing allocates a new segment instead of copying the
+ * elements. The segments are chained through a directory array; when the directory fills up only the references to
+ * the segments are copied, one per 4096 elements.
+ * 
+ * When popping empties a segment it is kept as a spare, and the segment above it released, so a stack that pushes and
+ * pops across a segment boundary does not allocate on every crossing.
+ * 
+ * @author simple
+ */
+public class ChunkedStack implements IntStack
+{
+	public ChunkedStack()
+	{
+		segments = new int[16][];
+		segments[0] = new int[SEGMENT_SIZE];
+		current = segments[0];
+		segment = 0;
+		offset = 0;
+		size = 0;
+		segmentsHeld = 1;
+		peakBytes = SEGMENT_SIZE * 4L;
+	}
+
+	public static final int SEGMENT_SIZE = 4096;
+
+	/**
+	 * The segments, bottom first. Entries above the current segment are null apart from at most one spare.
+	 */
+	private int segments[][];
+
+	/**
+	 * The segment holding the top of the stack.
+	 */
+	private int current[];
+
+	/**
+	 * The index of the current segment.
+	 */
+	private int segment;
+
+	/**
+	 * The number of elements in the current segment.
+	 */
+	private int offset;
+
+	private int size;
+
+	private int segmentsHeld;
+
+	private long copiedBytes;
+
+	private long peakBytes;
+
+	public void push(int x)
+	{
+		if (offset == SEGMENT_SIZE)
+		{
+			nextSegment();
+		}
+
+		current[offset++] = x;
+		size++;
+	}
+
+	public int pop()
+	{
+		if (offset == 0)
+		{
+			previousSegment();
+		}
+
+		size--;
+
+		return (current[--offset]);
+	}
+
+	public int peek()
+	{
+		if (offset == 0)
+		{
+			return (segments[segment - 1][SEGMENT_SIZE - 1]);
+		}
+
+		return (current[offset - 1]);
+	}
+
+	public int size()
+	{
+		return (size);
+	}
+
+	public boolean isEmpty()
+	{
+		return (size == 0);
+	}
+
+	/**
+	 * @return The bytes of segment references copied when the directory grew.
+	 */
+	public long getCopiedBytes()
+	{
+		return (copiedBytes);
+	}
+
+	public long getPeakBytes()
+	{
+		return (peakBytes);
+	}
+
+	/**
+	 * Moves up to the next segment, reusing the spare segment if there is one.
+	 */
+	private void nextSegment()
+	{
+		segment++;
+
+		if (segment == segments.length)
+		{
+			int newSegments[][] = new int[segments.length * 2][];
+			System.arraycopy(segments, 0, newSegments, 0, segments.length);
+			copiedBytes += segments.length * 4L;
+			segments = newSegments;
+		}
+
+		if (segments[segment] == null)
+		{
+			segments[segment] = new int[SEGMENT_SIZE];
+			segmentsHeld++;
+			peakBytes = Math.max(peakBytes, segmentsHeld * SEGMENT_SIZE * 4L);
+		}
+
+		current = segments[segment];
+		offset = 0;
+	}
+
+	/**
+	 * Moves down to the previous segment. The segment being left becomes the spare and any spare above it is
+	 * released.
+	 */
+	private void previousSegment()
+	{
+		if (segment + 1 < segments.length && segments[segment + 1] != null)
+		{
+			segments[segment + 1] = null;
+			segmentsHeld--;
+		}
+
+		segment--;
+		current = segments[segment];
+		offset = SEGMENT_SIZE;
+	}
+}
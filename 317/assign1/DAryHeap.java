@@ -0,0 +1,186 @@
+import java.util.Comparator;
+
+/////////////////////////////////////////////////
+/////////////////// D-Ary Heap //////////////////
+/////////////////////////////////////////////////
+/**
+ * A growable min heap in which every node has 'arity' children instead of two. A wider node makes the heap shallower,
+ * so adding touches fewer levels, and the children compared when removing sit next to each other in memory. An arity
+ * of 4 is usually fastest.
+ *
+ * Elements are ordered by a Comparator, or by their natural ordering if none is given.
+ *
+ * @author simple
+ */
+public class DAryHeap<E>
+{
+	/**
+	 * Creates an empty 4-ary heap that orders its elements by their natural ordering.
+	 */
+	public DAryHeap()
+	{
+		this(DEFAULT_ARITY, null);
+	}
+
+	/**
+	 * Creates an empty heap.
+	 *
+	 * @param arity The number of children of each node, at least 2.
+	 * @param comparator The ordering of the elements, or null to use their natural ordering.
+	 */
+	public DAryHeap(int arity, Comparator<? super E> comparator)
+	{
+		if (arity < 2)
+		{
+			throw new IllegalArgumentException("A heap needs an arity of at least 2: " + arity);
+		}
+
+		this.arity = arity;
+		this.comparator = comparator;
+		heap = new Object[16];
+		size = 0;
+	}
+
+	public static final int DEFAULT_ARITY = 4;
+
+	private final int arity;
+
+	private final Comparator<? super E> comparator;
+
+	private Object heap[];
+
+	private int size;
+
+	public void add(E x)
+	{
+		if (size >= heap.length)
+		{
+			Object newHeap[] = new Object[size * 2];
+			System.arraycopy(heap, 0, newHeap, 0, size);
+			heap = newHeap;
+		}
+
+		upheap(size++, x);
+	}
+
+	/**
+	 * @return The smallest element, or null if the heap is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public E peek()
+	{
+		return (size == 0 ? null : (E) heap[0]);
+	}
+
+	/**
+	 * Removes the smallest element.
+	 *
+	 * @return The smallest element, or null if the heap is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public E remove()
+	{
+		if (size == 0)
+		{
+			return (null);
+		}
+
+		E min = (E) heap[0];
+		Object last = heap[--size];
+		heap[size] = null;
+
+		if (size > 0)
+		{
+			downheap(0, last);
+		}
+
+		return (min);
+	}
+
+	public int size()
+	{
+		return (size);
+	}
+
+	public boolean isEmpty()
+	{
+		return (size == 0);
+	}
+
+	public void clear()
+	{
+		for (int index = 0; index < size; index++)
+		{
+			heap[index] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Moves the hole at 'currentNode' up until 'x' can be placed in it.
+	 */
+	private void upheap(int currentNode, Object x)
+	{
+		while (currentNode > 0)
+		{
+			int parent = (currentNode - 1) / arity;
+			if (compare(x, heap[parent]) >= 0)
+			{
+				break;
+			}
+
+			heap[currentNode] = heap[parent];
+			currentNode = parent;
+		}
+
+		heap[currentNode] = x;
+	}
+
+	/**
+	 * Moves the hole at 'currentNode' down until 'x' can be placed in it.
+	 */
+	private void downheap(int currentNode, Object x)
+	{
+		while (true)
+		{
+			int firstChild = currentNode * arity + 1;
+			if (firstChild >= size)
+			{
+				break;
+			}
+
+			int lastChild = Math.min(firstChild + arity, size);
+			int smallest = firstChild;
+			Object smallestElement = heap[firstChild];
+			for (int child = firstChild + 1; child < lastChild; child++)
+			{
+				if (compare(heap[child], smallestElement) < 0)
+				{
+					smallest = child;
+					smallestElement = heap[child];
+				}
+			}
+
+			if (compare(smallestElement, x) >= 0)
+			{
+				break;
+			}
+
+			heap[currentNode] = smallestElement;
+			currentNode = smallest;
+		}
+
+		heap[currentNode] = x;
+	}
+
+	@SuppressWarnings("unchecked")
+	private int compare(Object a, Object b)
+	{
+		if (comparator == null)
+		{
+			return (((Comparable<? super E>) a).compareTo((E) b));
+		}
+
+		return (comparator.compare((E) a, (E) b));
+	}
+}
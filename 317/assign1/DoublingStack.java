@@ -6,36 +6,73 @@
  * 
  * @author simple
  */
-public class DoublingStack
+public class DoublingStack implements IntStack
 {
 	public DoublingStack()
 	{
 		stack = new int[1];
 		size = 0;
+		peakBytes = 4;
 	}
 
 	private int stack[];
 
 	private int size;
 
+	private long copiedBytes;
+
+	private long peakBytes;
+
 	public void push(int x)
 	{
 		if (size >= stack.length)
 		{
-			int newStack[] = new int[size * 2];
-			System.arraycopy(stack, 0, newStack, 0, size);
-			stack = newStack;
+			resize(size * 2);
 		}
 		stack[size++] = x;
 	}
 
 	public int pop()
 	{
-		return (stack[size--]);
+		return (stack[--size]);
+	}
+
+	public int peek()
+	{
+		return (stack[size - 1]);
 	}
 
 	public int size()
 	{
 		return (size);
 	}
+
+	public boolean isEmpty()
+	{
+		return (size == 0);
+	}
+
+	public long getCopiedBytes()
+	{
+		return (copiedBytes);
+	}
+
+	public long getPeakBytes()
+	{
+		return (peakBytes);
+	}
+
+	/**
+	 * Moves the elements to a new array of 'length' ints.
+	 */
+	private void resize(int length)
+	{
+		int newStack[] = new int[length];
+		System.arraycopy(stack, 0, newStack, 0, size);
+
+		copiedBytes += size * 4L;
+		peakBytes = Math.max(peakBytes, (stack.length + (long) length) * 4);
+
+		stack = newStack;
+	}
 }
@@ -0,0 +1,269 @@
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/////////////////////////////////////////////////
+///////////////// Heap Benchmark ////////////////
+/////////////////////////////////////////////////
+/**
+ * Compares the heaps with java.util.PriorityQueue on two workloads:
+ *
+ * hold - the heap is filled with random keys, then the smallest entry is repeatedly removed and replaced by one with
+ * a larger random key, as a scheduler does.
+ *
+ * dijkstra - single source shortest paths over a random graph. The indexed heaps lower the key of a vertex in place;
+ * PriorityQueue adds the vertex again and skips stale entries when they are removed.
+ *
+ * Each workload is run several times after a warm up and the best time is reported.
+ *
+ * Usage: java HeapBenchmark [heapSize] [operations] [vertices]
+ *
+ * @author simple
+ */
+public class HeapBenchmark
+{
+	private static final int REPEATS = 5;
+
+	private static final int EDGES_PER_VERTEX = 8;
+
+	private static final int MAX_WEIGHT = 1000;
+
+	private static final int ARITIES[] = {2, 4, 8};
+
+	/**
+	 * Stops the JIT from eliminating work whose results are otherwise unused.
+	 */
+	private static long blackhole;
+
+	public static void main(String[] args)
+	{
+		int heapSize = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int operations = args.length > 1 ? Integer.parseInt(args[1]) : 5000000;
+		int vertices = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+
+		System.out.println("hold: " + heapSize + " entries, " + operations + " remove/add pairs");
+		long holdKeys[] = new long[heapSize + operations];
+		Random rand = new Random(1);
+		for (int index = 0; index < holdKeys.length; index++)
+		{
+			// Small increments keep the keys within the range of ArrayHeap's ints.
+			holdKeys[index] = rand.nextInt(1 << 20);
+		}
+
+		report("PriorityQueue<Long>", operations, timeHold(null, 0, holdKeys, heapSize));
+		report("ArrayHeap (int)", operations, timeHold("ArrayHeap", 2, holdKeys, heapSize));
+		for (int index = 0; index < ARITIES.length; index++)
+		{
+			report("DAryHeap<Long> d=" + ARITIES[index], operations, timeHold("DAryHeap", ARITIES[index], holdKeys,
+				heapSize));
+		}
+		for (int index = 0; index < ARITIES.length; index++)
+		{
+			report("LongIndexedHeap d=" + ARITIES[index], operations, timeHold("LongIndexedHeap", ARITIES[index],
+				holdKeys, heapSize));
+		}
+
+		System.out.println();
+		System.out.println("dijkstra: " + vertices + " vertices, " + (vertices * EDGES_PER_VERTEX) + " edges");
+		int offsets[] = new int[vertices + 1];
+		int targets[] = new int[vertices * EDGES_PER_VERTEX];
+		int weights[] = new int[vertices * EDGES_PER_VERTEX];
+		for (int vertex = 0; vertex < vertices; vertex++)
+		{
+			offsets[vertex + 1] = offsets[vertex] + EDGES_PER_VERTEX;
+			for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++)
+			{
+				targets[edge] = rand.nextInt(vertices);
+				weights[edge] = 1 + rand.nextInt(MAX_WEIGHT);
+			}
+		}
+
+		long expected[] = new long[vertices];
+		report("PriorityQueue<Long>", vertices, timeDijkstra(0, offsets, targets, weights, expected, null));
+		for (int index = 0; index < ARITIES.length; index++)
+		{
+			report("LongIndexedHeap d=" + ARITIES[index], vertices, timeDijkstra(ARITIES[index], offsets, targets,
+				weights, new long[vertices], expected));
+		}
+
+		System.out.println("(" + blackhole + ")");
+	}
+
+	private static void report(String name, int operations, long nanoseconds)
+	{
+		System.out.println(String.format("  %-24s %10.1f ms %10.2f Mops/s", name, nanoseconds / 1e6, operations
+			/ (nanoseconds / 1e3)));
+	}
+
+	/**
+	 * Times the hold workload on a heap of the given type, or on a PriorityQueue if 'type' is null.
+	 *
+	 * @return The best time taken in nanoseconds.
+	 */
+	private static long timeHold(String type, int arity, long[] keys, int heapSize)
+	{
+		long best = Long.MAX_VALUE;
+
+		for (int repeat = -1; repeat < REPEATS; repeat++)
+		{
+			long startTime = System.nanoTime();
+			long sum = 0;
+
+			if (type == null)
+			{
+				PriorityQueue<Long> heap = new PriorityQueue<Long>();
+				for (int index = 0; index < heapSize; index++)
+				{
+					heap.add(Long.valueOf(keys[index]));
+				}
+				for (int index = heapSize; index < keys.length; index++)
+				{
+					long min = heap.remove().longValue();
+					sum += min;
+					heap.add(Long.valueOf(min + keys[index]));
+				}
+			}
+			else if (type.equals("ArrayHeap"))
+			{
+				ArrayHeap heap = new ArrayHeap(heapSize);
+				for (int index = 0; index < heapSize; index++)
+				{
+					heap.add((int) keys[index]);
+				}
+				for (int index = heapSize; index < keys.length; index++)
+				{
+					int min = heap.remove();
+					sum += min;
+					heap.add((int) (min + keys[index]));
+				}
+			}
+			else if (type.equals("DAryHeap"))
+			{
+				DAryHeap<Long> heap = new DAryHeap<Long>(arity, null);
+				for (int index = 0; index < heapSize; index++)
+				{
+					heap.add(Long.valueOf(keys[index]));
+				}
+				for (int index = heapSize; index < keys.length; index++)
+				{
+					long min = heap.remove().longValue();
+					sum += min;
+					heap.add(Long.valueOf(min + keys[index]));
+				}
+			}
+			else
+			{
+				LongIndexedHeap heap = new LongIndexedHeap(arity, heapSize);
+				for (int index = 0; index < heapSize; index++)
+				{
+					heap.add(index, keys[index]);
+				}
+				for (int index = heapSize; index < keys.length; index++)
+				{
+					long min = heap.peekKey();
+					int item = heap.remove();
+					sum += min;
+					heap.add(item, min + keys[index]);
+				}
+			}
+
+			blackhole += sum;
+			if (repeat >= 0)
+			{
+				best = Math.min(best, System.nanoTime() - startTime);
+			}
+		}
+
+		return (best);
+	}
+
+	/**
+	 * Times Dijkstra's algorithm from vertex 0, using a LongIndexedHeap of the given arity or a PriorityQueue if
+	 * 'arity' is 0. The distances are left in 'distances' and, if 'expected' is not null, checked against it.
+	 *
+	 * @return The best time taken in nanoseconds.
+	 */
+	private static long timeDijkstra(int arity, int[] offsets, int[] targets, int[] weights, long[] distances,
+		long[] expected)
+	{
+		long best = Long.MAX_VALUE;
+		int vertices = distances.length;
+
+		for (int repeat = -1; repeat < REPEATS; repeat++)
+		{
+			long startTime = System.nanoTime();
+			Arrays.fill(distances, Long.MAX_VALUE);
+			distances[0] = 0;
+
+			if (arity == 0)
+			{
+				// Entries pack the distance into the high 32 bits and the vertex into the low 32 bits.
+				PriorityQueue<Long> heap = new PriorityQueue<Long>();
+				heap.add(Long.valueOf(0));
+
+				while (!heap.isEmpty())
+				{
+					long entry = heap.remove().longValue();
+					int vertex = (int) entry;
+					long distance = entry >>> 32;
+					if (distance > distances[vertex])
+					{
+						continue;
+					}
+
+					for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++)
+					{
+						long newDistance = distance + weights[edge];
+						if (newDistance < distances[targets[edge]])
+						{
+							distances[targets[edge]] = newDistance;
+							heap.add(Long.valueOf((newDistance << 32) | targets[edge]));
+						}
+					}
+				}
+			}
+			else
+			{
+				LongIndexedHeap heap = new LongIndexedHeap(arity, vertices);
+				heap.add(0, 0);
+
+				while (!heap.isEmpty())
+				{
+					long distance = heap.peekKey();
+					int vertex = heap.remove();
+
+					for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++)
+					{
+						long newDistance = distance + weights[edge];
+						int target = targets[edge];
+						if (newDistance < distances[target])
+						{
+							if (distances[target] == Long.MAX_VALUE)
+							{
+								heap.add(target, newDistance);
+							}
+							else
+							{
+								heap.decreaseKey(target, newDistance);
+							}
+							distances[target] = newDistance;
+						}
+					}
+				}
+			}
+
+			if (repeat >= 0)
+			{
+				best = Math.min(best, System.nanoTime() - startTime);
+			}
+		}
+
+		if (expected != null && !Arrays.equals(distances, expected))
+		{
+			throw new IllegalStateException("The distances found with arity " + arity + " are wrong");
+		}
+		blackhole += distances[vertices - 1];
+
+		return (best);
+	}
+}
@@ -0,0 +1,134 @@
+/////////////////////////////////////////////////
+/////////////// Hysteresis Stack ////////////////
+/////////////////////////////////////////////////
+/**
+ * An array based stack that grows by a constant factor when full and shrinks when popping leaves it nearly empty.
+ * 
+ * The gap between the two sizes is the hysteresis: after growing from capacity c the array is 1 / growthFactor full,
+ * and after shrinking it is shrinkThreshold * growthFactor full. As long as shrinkThreshold is below 1 / growthFactor
+ * the array is never full straight after shrinking nor nearly empty straight after growing, so a stack that pushes
+ * and pops around a resize boundary does not copy on every operation, and each copy is paid for by a number of pushes
+ * or pops proportional to its size. The defaults (grow by 2, shrink by half once a quarter full) are those of
+ * AdaptingStack.
+ * 
+ * @author simple
+ */
+public class HysteresisStack implements IntStack
+{
+	/**
+	 * Creates a stack that doubles when full and halves when a quarter full, never shrinking below 16 ints.
+	 */
+	public HysteresisStack()
+	{
+		this(16, 2.0, 0.25);
+	}
+
+	/**
+	 * Creates a stack.
+	 * 
+	 * @param minimumCapacity The initial capacity, which the stack never shrinks below.
+	 * @param growthFactor The factor to grow and shrink the capacity by, greater than 1.
+	 * @param shrinkThreshold The fraction of the capacity in use below which the stack shrinks, from 0 to
+	 * 1 / growthFactor, so that the elements left fit in the shrunk array. It should be below 1 / growthFactor, as at
+	 * 1 / growthFactor the array is full straight after shrinking.
+	 */
+	public HysteresisStack(int minimumCapacity, double growthFactor, double shrinkThreshold)
+	{
+		if (minimumCapacity < 1 || growthFactor <= 1 || shrinkThreshold < 0 || shrinkThreshold * growthFactor > 1)
+		{
+			throw new IllegalArgumentException("Invalid stack policy: minimum capacity " + minimumCapacity
+				+ ", growth factor " + growthFactor + ", shrink threshold " + shrinkThreshold);
+		}
+
+		this.minimumCapacity = minimumCapacity;
+		this.growthFactor = growthFactor;
+		this.shrinkThreshold = shrinkThreshold;
+
+		stack = new int[minimumCapacity];
+		size = 0;
+		shrinkSize = -1;
+		peakBytes = minimumCapacity * 4L;
+	}
+
+	private final int minimumCapacity;
+
+	private final double growthFactor;
+
+	private final double shrinkThreshold;
+
+	private int stack[];
+
+	private int size;
+
+	/**
+	 * The stack shrinks when a pop leaves it with this many elements or fewer.
+	 */
+	private int shrinkSize;
+
+	private long copiedBytes;
+
+	private long peakBytes;
+
+	public void push(int x)
+	{
+		if (size >= stack.length)
+		{
+			resize((int) Math.min(Integer.MAX_VALUE - 8, Math.max(stack.length + 1L, (long) (stack.length
+				* growthFactor))));
+		}
+		stack[size++] = x;
+	}
+
+	public int pop()
+	{
+		int x = stack[--size];
+
+		if (size <= shrinkSize)
+		{
+			// The size is at most length * shrinkThreshold, so this only guards against rounding at the limit.
+			resize(Math.max(Math.max(minimumCapacity, size), (int) (stack.length / growthFactor)));
+		}
+
+		return (x);
+	}
+
+	public int peek()
+	{
+		return (stack[size - 1]);
+	}
+
+	public int size()
+	{
+		return (size);
+	}
+
+	public boolean isEmpty()
+	{
+		return (size == 0);
+	}
+
+	public long getCopiedBytes()
+	{
+		return (copiedBytes);
+	}
+
+	public long getPeakBytes()
+	{
+		return (peakBytes);
+	}
+
+	/**
+	 * Moves the elements to a new array of 'length' ints and recalculates the size to shrink at.
+	 */
+	private void resize(int length)
+	{
+		int newStack[] = new int[length];
+		System.arraycopy(stack, 0, newStack, 0, size);
+
+		copiedBytes += size * 4L;
+		peakBytes = Math.max(peakBytes, (stack.length + (long) length) * 4);
+
+		stack = newStack;
+		shrinkSize = (length > minimumCapacity) ? (int) (length * shrinkThreshold) : -1;
+	}
+}
@@ -0,0 +1,40 @@
+/////////////////////////////////////////////////
+/////////////////// Int Stack ///////////////////
+/////////////////////////////////////////////////
+/**
+ * A stack of ints. Implementations differ in how they grow and shrink their storage, so each also reports how many
+ * bytes it has copied while resizing and the most bytes of storage it has held at once, including the old and new
+ * arrays that are both live during a resize.
+ * 
+ * @author simple
+ */
+public interface IntStack
+{
+	public void push(int x);
+
+	/**
+	 * Removes the top element. The stack must not be empty.
+	 * 
+	 * @return The element removed.
+	 */
+	public int pop();
+
+	/**
+	 * @return The top element. The stack must not be empty.
+	 */
+	public int peek();
+
+	public int size();
+
+	public boolean isEmpty();
+
+	/**
+	 * @return The number of bytes of elements copied from old storage to new storage so far.
+	 */
+	public long getCopiedBytes();
+
+	/**
+	 * @return The most bytes of element storage held at any one time so far.
+	 */
+	public long getPeakBytes();
+}
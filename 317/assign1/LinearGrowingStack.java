@@ -6,12 +6,13 @@
  * 
  * @author simple
  */
-public class LinearGrowingStack
+public class LinearGrowingStack implements IntStack
 {
 	public LinearGrowingStack()
 	{
 		stack = new int[1];
 		size = 0;
+		peakBytes = 4;
 	}
 
 	private int stack[];
@@ -20,24 +21,60 @@ public class LinearGrowingStack
 	
 	private final int GROW_SIZE = 1000;
 
+	private long copiedBytes;
+
+	private long peakBytes;
+
 	public void push(int x)
 	{
 		if (size >= stack.length)
 		{
-			int newStack[] = new int[size + GROW_SIZE];
-			System.arraycopy(stack, 0, newStack, 0, size);
-			stack = newStack;
+			resize(size + GROW_SIZE);
 		}
 		stack[size++] = x;
 	}
 
 	public int pop()
 	{
-		return (stack[size--]);
+		return (stack[--size]);
+	}
+
+	public int peek()
+	{
+		return (stack[size - 1]);
 	}
 
 	public int size()
 	{
 		return (size);
 	}
+
+	public boolean isEmpty()
+	{
+		return (size == 0);
+	}
+
+	public long getCopiedBytes()
+	{
+		return (copiedBytes);
+	}
+
+	public long getPeakBytes()
+	{
+		return (peakBytes);
+	}
+
+	/**
+	 * Moves the elements to a new array of 'length' ints.
+	 */
+	private void resize(int length)
+	{
+		int newStack[] = new int[length];
+		System.arraycopy(stack, 0, newStack, 0, size);
+
+		copiedBytes += size * 4L;
+		peakBytes = Math.max(peakBytes, (stack.length + (long) length) * 4);
+
+		stack = newStack;
+	}
 }
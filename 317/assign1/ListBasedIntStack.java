@@ -6,34 +6,68 @@
  * 
  * @author simple
  */
-public class ListBasedIntStack
+public class ListBasedIntStack implements IntStack
 {
 	public ListBasedIntStack()
 	{
 		size = 0;
 	}
 	
+	/**
+	 * The size of a Linked List Node, assuming a 12 byte object header and compressed references.
+	 */
+	private static final int NODE_BYTES = 24;
+
 	private LinkedListNode top;
 	
 	private int size;
 
+	private long peakBytes;
+
 	public void push(int x)
 	{
 		LinkedListNode newTop = new LinkedListNode(x);
 		newTop.setNext(top);
 		top = newTop;
+
+		size++;
+		peakBytes = Math.max(peakBytes, size * (long) NODE_BYTES);
 	}
 
 	public int pop()
 	{
 		int oldTopElement = top.getElement();
 		top = top.getNext();
+		size--;
 
 		return (oldTopElement);
 	}
 
+	public int peek()
+	{
+		return (top.getElement());
+	}
+
 	public int size()
 	{
 		return (size);
 	}
+
+	public boolean isEmpty()
+	{
+		return (size == 0);
+	}
+
+	/**
+	 * @return Zero, as nodes are never copied.
+	 */
+	public long getCopiedBytes()
+	{
+		return (0);
+	}
+
+	public long getPeakBytes()
+	{
+		return (peakBytes);
+	}
 }
@@ -0,0 +1,332 @@
+import java.util.Arrays;
+
+/////////////////////////////////////////////////
+/////////////// Long Indexed Heap ///////////////
+/////////////////////////////////////////////////
+/**
+ * A growable d-ary min heap of int items ordered by long keys, with no object per entry. Items are non-negative ints
+ * such as vertex numbers and each item can be in the heap at most once. The heap keeps the position of every item,
+ * so the key of an item already in the heap can be decreased or increased in place instead of adding the item
+ * again, as Dijkstra's algorithm and schedulers need.
+ *
+ * The keys and items are held in parallel arrays in heap order, so comparing the children of a node reads adjacent
+ * keys.
+ *
+ * @author simple
+ */
+public class LongIndexedHeap
+{
+	/**
+	 * Creates an empty 4-ary heap.
+	 */
+	public LongIndexedHeap()
+	{
+		this(DAryHeap.DEFAULT_ARITY, 16);
+	}
+
+	/**
+	 * Creates an empty heap.
+	 *
+	 * @param arity The number of children of each node, at least 2.
+	 * @param capacity The number of entries, and the number of distinct items, to allocate room for.
+	 */
+	public LongIndexedHeap(int arity, int capacity)
+	{
+		if (arity < 2)
+		{
+			throw new IllegalArgumentException("A heap needs an arity of at least 2: " + arity);
+		}
+
+		this.arity = arity;
+		keys = new long[Math.max(capacity, 1)];
+		items = new int[Math.max(capacity, 1)];
+		positions = new int[Math.max(capacity, 1)];
+		Arrays.fill(positions, ABSENT);
+		size = 0;
+	}
+
+	/**
+	 * The position of an item that is not in the heap.
+	 */
+	private static final int ABSENT = -1;
+
+	private final int arity;
+
+	/**
+	 * The key of the entry at each position of the heap.
+	 */
+	private long keys[];
+
+	/**
+	 * The item of the entry at each position of the heap.
+	 */
+	private int items[];
+
+	/**
+	 * The position of each item in the heap, or ABSENT.
+	 */
+	private int positions[];
+
+	private int size;
+
+	public int size()
+	{
+		return (size);
+	}
+
+	public boolean isEmpty()
+	{
+		return (size == 0);
+	}
+
+	public boolean contains(int item)
+	{
+		return (item >= 0 && item < positions.length && positions[item] != ABSENT);
+	}
+
+	/**
+	 * @return The key of 'item', which must be in the heap.
+	 */
+	public long getKey(int item)
+	{
+		return (keys[position(item)]);
+	}
+
+	/**
+	 * Adds 'item' with the key 'key'.
+	 *
+	 * @throws IllegalArgumentException If 'item' is negative or already in the heap.
+	 */
+	public void add(int item, long key)
+	{
+		if (item < 0)
+		{
+			throw new IllegalArgumentException("Items must not be negative: " + item);
+		}
+		if (item >= positions.length)
+		{
+			int oldLength = positions.length;
+			positions = Arrays.copyOf(positions, Math.max(oldLength * 2, item + 1));
+			Arrays.fill(positions, oldLength, positions.length, ABSENT);
+		}
+		if (positions[item] != ABSENT)
+		{
+			throw new IllegalArgumentException("Item " + item + " is already in the heap");
+		}
+
+		if (size >= keys.length)
+		{
+			keys = Arrays.copyOf(keys, size * 2);
+			items = Arrays.copyOf(items, size * 2);
+		}
+
+		upheap(size++, item, key);
+	}
+
+	/**
+	 * Lowers the key of 'item', which must be in the heap, to 'key'.
+	 *
+	 * @throws IllegalArgumentException If 'key' is greater than the current key.
+	 */
+	public void decreaseKey(int item, long key)
+	{
+		int position = position(item);
+		if (key > keys[position])
+		{
+			throw new IllegalArgumentException("The key of item " + item + " would increase");
+		}
+
+		upheap(position, item, key);
+	}
+
+	/**
+	 * Raises the key of 'item', which must be in the heap, to 'key'.
+	 *
+	 * @throws IllegalArgumentException If 'key' is less than the current key.
+	 */
+	public void increaseKey(int item, long key)
+	{
+		int position = position(item);
+		if (key < keys[position])
+		{
+			throw new IllegalArgumentException("The key of item " + item + " would decrease");
+		}
+
+		downheap(position, item, key);
+	}
+
+	/**
+	 * Adds 'item' with the key 'key', or changes its key if it is already in the heap.
+	 */
+	public void put(int item, long key)
+	{
+		if (!contains(item))
+		{
+			add(item, key);
+		}
+		else if (key < keys[positions[item]])
+		{
+			upheap(positions[item], item, key);
+		}
+		else
+		{
+			downheap(positions[item], item, key);
+		}
+	}
+
+	/**
+	 * @return The item with the smallest key, which must exist.
+	 */
+	public int peekItem()
+	{
+		checkNotEmpty();
+
+		return (items[0]);
+	}
+
+	/**
+	 * @return The smallest key, which must exist.
+	 */
+	public long peekKey()
+	{
+		checkNotEmpty();
+
+		return (keys[0]);
+	}
+
+	/**
+	 * Removes the item with the smallest key.
+	 *
+	 * @return The item removed.
+	 */
+	public int remove()
+	{
+		checkNotEmpty();
+
+		int min = items[0];
+		positions[min] = ABSENT;
+		size--;
+
+		if (size > 0)
+		{
+			downheap(0, items[size], keys[size]);
+		}
+
+		return (min);
+	}
+
+	/**
+	 * Removes 'item', which must be in the heap.
+	 */
+	public void remove(int item)
+	{
+		int position = position(item);
+		positions[item] = ABSENT;
+		size--;
+
+		if (position < size)
+		{
+			int lastItem = items[size];
+			long lastKey = keys[size];
+
+			if (lastKey < keys[position])
+			{
+				upheap(position, lastItem, lastKey);
+			}
+			else
+			{
+				downheap(position, lastItem, lastKey);
+			}
+		}
+	}
+
+	public void clear()
+	{
+		for (int index = 0; index < size; index++)
+		{
+			positions[items[index]] = ABSENT;
+		}
+		size = 0;
+	}
+
+	private int position(int item)
+	{
+		if (!contains(item))
+		{
+			throw new IllegalArgumentException("Item " + item + " is not in the heap");
+		}
+
+		return (positions[item]);
+	}
+
+	private void checkNotEmpty()
+	{
+		if (size == 0)
+		{
+			throw new IllegalStateException("The heap is empty");
+		}
+	}
+
+	/**
+	 * Moves the hole at 'currentNode' up until the entry ('item', 'key') can be placed in it.
+	 */
+	private void upheap(int currentNode, int item, long key)
+	{
+		while (currentNode > 0)
+		{
+			int parent = (currentNode - 1) / arity;
+			if (key >= keys[parent])
+			{
+				break;
+			}
+
+			keys[currentNode] = keys[parent];
+			items[currentNode] = items[parent];
+			positions[items[currentNode]] = currentNode;
+			currentNode = parent;
+		}
+
+		keys[currentNode] = key;
+		items[currentNode] = item;
+		positions[item] = currentNode;
+	}
+
+	/**
+	 * Moves the hole at 'currentNode' down until the entry ('item', 'key') can be placed in it.
+	 */
+	private void downheap(int currentNode, int item, long key)
+	{
+		while (true)
+		{
+			int firstChild = currentNode * arity + 1;
+			if (firstChild >= size)
+			{
+				break;
+			}
+
+			int lastChild = Math.min(firstChild + arity, size);
+			int smallest = firstChild;
+			for (int child = firstChild + 1; child < lastChild; child++)
+			{
+				if (keys[child] < keys[smallest])
+				{
+					smallest = child;
+				}
+			}
+
+			if (keys[smallest] >= key)
+			{
+				break;
+			}
+
+			keys[currentNode] = keys[smallest];
+			items[currentNode] = items[smallest];
+			positions[items[currentNode]] = currentNode;
+			currentNode = smallest;
+		}
+
+		keys[currentNode] = key;
+		items[currentNode] = item;
+		positions[item] = currentNode;
+	}
+}
@@ -0,0 +1,179 @@
+import java.util.Random;
+
+/////////////////////////////////////////////////
+//////////////// Stack Benchmark ////////////////
+/////////////////////////////////////////////////
+/**
+ * Compares the growth policies of the Int Stacks on three workloads:
+ * 
+ * fill/drain - push 'size' elements and then pop them all.
+ * 
+ * boundary churn - push to just past 'churnSize', a power of two where the doubling stacks have just grown, then
+ * repeatedly pop and push a couple of elements. A policy without hysteresis copies the whole stack on every turn, so
+ * 'churnSize' is kept small by default.
+ * 
+ * random walk - push or pop with equal probability, starting with 'size' elements.
+ * 
+ * For each the best time over several runs is reported, with the bytes copied while resizing and the peak bytes of
+ * storage held during a single run.
+ * 
+ * Usage: java StackBenchmark [size] [operations] [churnSize]
+ * 
+ * @author simple
+ */
+public class StackBenchmark
+{
+	private static final String[] STACK_NAMES = {"DoublingStack", "LinearGrowingStack", "AdaptingStack",
+		"ListBasedIntStack", "HysteresisStack", "HysteresisStack x1.5", "no hysteresis", "ChunkedStack"};
+
+	private static final int FILL_DRAIN = 0;
+
+	private static final int BOUNDARY_CHURN = 1;
+
+	private static final int RANDOM_WALK = 2;
+
+	private static final String[] WORKLOAD_NAMES = {"fill/drain", "boundary churn", "random walk"};
+
+	private static final int REPEATS = 5;
+
+	/**
+	 * The number of elements popped and pushed back on each turn of the boundary churn.
+	 */
+	private static final int CHURN_DEPTH = 2;
+
+	/**
+	 * Stops the JIT from eliminating pops whose results are otherwise unused.
+	 */
+	private static long blackhole;
+
+	public static void main(String[] args)
+	{
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+		int operations = args.length > 1 ? Integer.parseInt(args[1]) : 10000000;
+		int churnSize = args.length > 2 ? Integer.parseInt(args[2]) : 4096;
+
+		for (int workload = FILL_DRAIN; workload <= RANDOM_WALK; workload++)
+		{
+			System.out.println(WORKLOAD_NAMES[workload] + ":");
+
+			for (int stack = 0; stack < STACK_NAMES.length; stack++)
+			{
+				long best = Long.MAX_VALUE;
+				IntStack lastRun = null;
+				int count = 0;
+
+				for (int repeat = -1; repeat < REPEATS; repeat++)
+				{
+					lastRun = createStack(stack);
+
+					long startTime = System.nanoTime();
+					count = run(workload, lastRun, workload == BOUNDARY_CHURN ? churnSize : size, operations);
+					long time = System.nanoTime() - startTime;
+
+					if (repeat >= 0)
+					{
+						best = Math.min(best, time);
+					}
+				}
+
+				System.out.println(String.format("  %-22s %9.1f ms %8.1f Mops/s %10.1f MB copied %8.1f MB peak",
+					STACK_NAMES[stack], best / 1e6, count / (best / 1e3), lastRun.getCopiedBytes() / 1e6, lastRun
+						.getPeakBytes() / 1e6));
+			}
+		}
+
+		System.out.println("(" + blackhole + ")");
+	}
+
+	private static IntStack createStack(int stack)
+	{
+		switch (stack)
+		{
+			case 0:
+				return (new DoublingStack());
+			case 1:
+				return (new LinearGrowingStack());
+			case 2:
+				return (new AdaptingStack());
+			case 3:
+				return (new ListBasedIntStack());
+			case 4:
+				return (new HysteresisStack());
+			case 5:
+				return (new HysteresisStack(16, 1.5, 0.4));
+			case 6:
+				// Shrinking by half as soon as the stack is half full leaves it full.
+				return (new HysteresisStack(16, 2.0, 0.5));
+			default:
+				return (new ChunkedStack());
+		}
+	}
+
+	/**
+	 * Runs 'workload' on 'stack'.
+	 * 
+	 * @return The number of pushes and pops performed.
+	 */
+	private static int run(int workload, IntStack stack, int size, int operations)
+	{
+		long sum = 0;
+		int count = 0;
+
+		switch (workload)
+		{
+			case FILL_DRAIN:
+				for (int index = 0; index < size; index++)
+				{
+					stack.push(index);
+				}
+				while (!stack.isEmpty())
+				{
+					sum += stack.pop();
+				}
+				count = size * 2;
+				break;
+			case BOUNDARY_CHURN:
+				int boundary = Integer.highestOneBit(Math.max(size, 2 * CHURN_DEPTH)) + 1;
+				for (int index = 0; index < boundary; index++)
+				{
+					stack.push(index);
+				}
+				for (int turn = 0; turn < operations / (2 * CHURN_DEPTH); turn++)
+				{
+					for (int depth = 0; depth < CHURN_DEPTH; depth++)
+					{
+						sum += stack.pop();
+					}
+					for (int depth = 0; depth < CHURN_DEPTH; depth++)
+					{
+						stack.push(depth);
+					}
+				}
+				count = boundary + (operations / (2 * CHURN_DEPTH)) * 2 * CHURN_DEPTH;
+				break;
+			default:
+				Random rand = new Random(size);
+				for (int index = 0; index < size; index++)
+				{
+					stack.push(index);
+				}
+				for (int index = 0; index < operations; index++)
+				{
+					if (stack.isEmpty() || rand.nextBoolean())
+					{
+						stack.push(index);
+					}
+					else
+					{
+						sum += stack.pop();
+					}
+				}
+				count = size + operations;
+				break;
+		}
+
+		blackhole += sum;
+
+		return (count);
+	}
+}
@@ -12,10 +12,12 @@ public class Stacks
 {
 	public static void main(String[] args)
 	{
-		//DoublingStack stack = new DoublingStack();
-		//LinearGrowingStack stack = new LinearGrowingStack();
-		//AdaptingStack stack = new AdaptingStack();
-		ListBasedIntStack stack = new ListBasedIntStack();
+		//IntStack stack = new DoublingStack();
+		//IntStack stack = new LinearGrowingStack();
+		//IntStack stack = new AdaptingStack();
+		//IntStack stack = new HysteresisStack();
+		//IntStack stack = new ChunkedStack();
+		IntStack stack = new ListBasedIntStack();
 		
 		long startTime = System.currentTimeMillis();
 		Random randomNums = new Random(startTime);
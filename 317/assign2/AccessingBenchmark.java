@@ -0,0 +1,385 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+/////////////////////////////////////////////////
+////////////// Accessing Benchmark //////////////
+/////////////////////////////////////////////////
+/**
+ * A benchmark harness for the ordered set structures compared by 'Accessing'. Every combination of structure, key
+ * count, access skew and read/write mix is loaded, warmed up and then measured over a number of iterations. For each
+ * combination the throughput, the latency percentiles of single operations and the number of bytes allocated per
+ * operation are reported.
+ *
+ * Usage: java AccessingBenchmark [keyCounts] [operations] (e.g. java AccessingBenchmark 1000,100000 200000)
+ *
+ * @author simple
+ */
+public class AccessingBenchmark
+{
+	public static final int SPLAY_TREE = 0;
+
+	public static final int SKIP_LIST = 1;
+
+	public static final int TREE_MAP = 2;
+
+	public static final int INT_SKIP_LIST = 3;
+
+	public static final int INT_SPLAY_TREE = 4;
+
+	private static final String[] STRUCTURE_NAMES = {"SplayTree", "SkipList", "TreeMap", "IntSkipList",
+		"IntSplayTree"};
+
+	public static final int UNIFORM = 0;
+
+	public static final int ZIPFIAN = 1;
+
+	public static final int SEQUENTIAL = 2;
+
+	private static final String[] SKEW_NAMES = {"uniform", "zipfian", "sequential"};
+
+	/**
+	 * The exponent of the Zipfian distribution, as used by YCSB.
+	 */
+	private static final double ZIPF_EXPONENT = 0.99;
+
+	/**
+	 * The percentage of operations that are reads for each read/write mix.
+	 */
+	private static final int[] READ_PERCENTAGES = {100, 90, 50};
+
+	private static final int WARMUP_ITERATIONS = 3;
+
+	private static final int MEASUREMENT_ITERATIONS = 5;
+
+	private static int[] keyCounts = {1000, 100000, 1000000};
+
+	private static int operations = 200000;
+
+	/**
+	 * Stops the JIT from eliminating lookups whose results are otherwise unused.
+	 */
+	private static long blackhole;
+
+	private static SplayTree splayTree;
+
+	private static SkipList skipList;
+
+	private static TreeMap<Integer, Integer> treeMap;
+
+	private static IntSkipList intSkipList;
+
+	private static IntSplayTree intSplayTree;
+
+	public static void main(String[] args)
+	{
+		if (args.length > 0)
+		{
+			String[] counts = args[0].split(",");
+			keyCounts = new int[counts.length];
+			for (int index = 0; index < counts.length; index++)
+			{
+				keyCounts[index] = Integer.parseInt(counts[index]);
+			}
+		}
+		if (args.length > 1)
+		{
+			operations = Integer.parseInt(args[1]);
+		}
+
+		System.out.println(String.format("%-12s %9s %-10s %5s %12s %8s %8s %8s %8s %10s", "structure", "keys",
+			"skew", "read%", "ops/s", "p50 ns", "p90 ns", "p99 ns", "p99.9 ns", "bytes/op"));
+
+		for (int keyIndex = 0; keyIndex < keyCounts.length; keyIndex++)
+		{
+			for (int skew = UNIFORM; skew <= SEQUENTIAL; skew++)
+			{
+				for (int mix = 0; mix < READ_PERCENTAGES.length; mix++)
+				{
+					for (int structure = SPLAY_TREE; structure <= INT_SPLAY_TREE; structure++)
+					{
+						run(structure, keyCounts[keyIndex], skew, READ_PERCENTAGES[mix]);
+					}
+				}
+			}
+		}
+
+		System.out.println("(" + blackhole + ")");
+	}
+
+	/**
+	 * Measures one combination of structure, key count, skew and read/write mix and prints the results.
+	 */
+	private static void run(int structure, int keyCount, int skew, int readPercentage)
+	{
+		Random rand = new Random(keyCount * 31 + skew * 7 + readPercentage);
+
+		// The structure holds the even keys. A write inserts the odd key above the one accessed and removes it again, so
+		// every insert adds a new key and every structure keeps the same size through every pass.
+		int[] keys = new int[keyCount];
+		for (int index = 0; index < keyCount; index++)
+		{
+			keys[index] = index * 2;
+		}
+		shuffle(keys, rand);
+		load(structure, keys);
+
+		// Sequential access walks the keys in ascending order rather than in insertion order.
+		if (skew == SEQUENTIAL)
+		{
+			Arrays.sort(keys);
+		}
+
+		int[] ranks = generateRanks(skew, keyCount, rand);
+		boolean[] isRead = new boolean[operations];
+		for (int index = 0; index < operations; index++)
+		{
+			isRead[index] = rand.nextInt(100) < readPercentage;
+		}
+
+		for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++)
+		{
+			execute(structure, keys, ranks, isRead, null);
+		}
+
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		long[] latencies = new long[operations * MEASUREMENT_ITERATIONS];
+		long[] iterationLatencies = new long[operations];
+		long totalTime = 0;
+		long allocatedBefore = allocatedBytes(threadBean);
+
+		for (int iteration = 0; iteration < MEASUREMENT_ITERATIONS; iteration++)
+		{
+			long startTime = System.nanoTime();
+			execute(structure, keys, ranks, isRead, null);
+			totalTime += System.nanoTime() - startTime;
+
+			execute(structure, keys, ranks, isRead, iterationLatencies);
+			System.arraycopy(iterationLatencies, 0, latencies, iteration * operations, operations);
+		}
+
+		// The allocations are counted over the timed and the sampled passes.
+		long allocated = allocatedBytes(threadBean) - allocatedBefore;
+		Arrays.sort(latencies);
+
+		double throughput = (double) operations * MEASUREMENT_ITERATIONS / (totalTime / 1e9);
+		String bytesPerOp = allocatedBefore < 0 ? "n/a" : String.format("%.1f", (double) allocated
+			/ (2L * operations * MEASUREMENT_ITERATIONS));
+
+		System.out.println(String.format("%-12s %9d %-10s %5d %12.0f %8d %8d %8d %8d %10s",
+			STRUCTURE_NAMES[structure], keyCount, SKEW_NAMES[skew], readPercentage, throughput,
+			percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99),
+			percentile(latencies, 0.999), bytesPerOp));
+
+		splayTree = null;
+		skipList = null;
+		treeMap = null;
+		intSkipList = null;
+		intSplayTree = null;
+	}
+
+	/**
+	 * Creates a new instance of the given structure holding 'keys'. The keys are inserted in the order given.
+	 */
+	private static void load(int structure, int[] keys)
+	{
+		switch (structure)
+		{
+			case SPLAY_TREE:
+				splayTree = new SplayTree();
+				for (int index = 0; index < keys.length; index++)
+				{
+					splayTree.insert(keys[index]);
+				}
+				break;
+			case SKIP_LIST:
+				skipList = new SkipList();
+				for (int index = 0; index < keys.length; index++)
+				{
+					skipList.insert(keys[index]);
+				}
+				break;
+			case TREE_MAP:
+				treeMap = new TreeMap<Integer, Integer>();
+				for (int index = 0; index < keys.length; index++)
+				{
+					Integer key = Integer.valueOf(keys[index]);
+					treeMap.put(key, key);
+				}
+				break;
+			case INT_SKIP_LIST:
+				intSkipList = new IntSkipList(keys.length);
+				for (int index = 0; index < keys.length; index++)
+				{
+					intSkipList.insert(keys[index]);
+				}
+				break;
+			default:
+				intSplayTree = new IntSplayTree(keys.length);
+				for (int index = 0; index < keys.length; index++)
+				{
+					intSplayTree.insert(keys[index]);
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Performs one pass over the operation sequence, a write being an insert and a remove of the same key. If
+	 * 'latencies' is not null the time taken by each operation is recorded in it.
+	 */
+	private static void execute(int structure, int[] keys, int[] ranks, boolean[] isRead, long[] latencies)
+	{
+		long sum = 0;
+
+		for (int index = 0; index < ranks.length; index++)
+		{
+			int key = isRead[index] ? keys[ranks[index]] : keys[ranks[index]] + 1;
+			long startTime = latencies == null ? 0 : System.nanoTime();
+
+			switch (structure)
+			{
+				case SPLAY_TREE:
+					if (isRead[index])
+					{
+						sum += splayTree.find(splayTree.getRoot(), key).getValue();
+					}
+					else
+					{
+						splayTree.insert(key);
+						splayTree.remove(key);
+					}
+					break;
+				case SKIP_LIST:
+					if (isRead[index])
+					{
+						sum += skipList.find(skipList.getStart(), key).getValue();
+					}
+					else
+					{
+						skipList.insert(key);
+						skipList.remove(key);
+					}
+					break;
+				case TREE_MAP:
+					if (isRead[index])
+					{
+						Integer result = treeMap.get(Integer.valueOf(key));
+						if (result != null)
+						{
+							sum += result.intValue();
+						}
+					}
+					else
+					{
+						Integer newKey = Integer.valueOf(key);
+						treeMap.put(newKey, newKey);
+						treeMap.remove(newKey);
+					}
+					break;
+				case INT_SKIP_LIST:
+					if (isRead[index])
+					{
+						if (intSkipList.contains(key))
+						{
+							sum += key;
+						}
+					}
+					else
+					{
+						intSkipList.insert(key);
+						intSkipList.remove(key);
+					}
+					break;
+				default:
+					if (isRead[index])
+					{
+						if (intSplayTree.contains(key))
+						{
+							sum += key;
+						}
+					}
+					else
+					{
+						intSplayTree.insert(key);
+						intSplayTree.remove(key);
+					}
+					break;
+			}
+
+			if (latencies != null)
+			{
+				latencies[index] = System.nanoTime() - startTime;
+			}
+		}
+
+		blackhole += sum;
+	}
+
+	/**
+	 * Generates the sequence of key ranks to access. A rank indexes the shuffled key array, so hot ranks under the
+	 * Zipfian skew are spread across the key space.
+	 */
+	private static int[] generateRanks(int skew, int keyCount, Random rand)
+	{
+		int[] ranks = new int[operations];
+
+		if (skew == ZIPFIAN)
+		{
+			double[] cumulative = new double[keyCount];
+			double total = 0;
+			for (int rank = 0; rank < keyCount; rank++)
+			{
+				total += 1.0 / Math.pow(rank + 1, ZIPF_EXPONENT);
+				cumulative[rank] = total;
+			}
+
+			for (int index = 0; index < operations; index++)
+			{
+				int rank = Arrays.binarySearch(cumulative, rand.nextDouble() * total);
+				ranks[index] = Math.min(rank < 0 ? -rank - 1 : rank, keyCount - 1);
+			}
+		}
+		else
+		{
+			for (int index = 0; index < operations; index++)
+			{
+				ranks[index] = skew == UNIFORM ? rand.nextInt(keyCount) : index % keyCount;
+			}
+		}
+
+		return (ranks);
+	}
+
+	/**
+	 * Returns the bytes allocated by the current thread so far, or a negative value if the JVM cannot report it.
+	 */
+	private static long allocatedBytes(ThreadMXBean threadBean)
+	{
+		if (threadBean instanceof com.sun.management.ThreadMXBean)
+		{
+			return (((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread()
+				.getId()));
+		}
+
+		return (-1);
+	}
+
+	private static long percentile(long[] sorted, double fraction)
+	{
+		return (sorted[Math.min((int) (sorted.length * fraction), sorted.length - 1)]);
+	}
+
+	private static void shuffle(int[] array, Random rand)
+	{
+		for (int index = array.length - 1; index > 0; index--)
+		{
+			int other = rand.nextInt(index + 1);
+			int temp = array[index];
+			array[index] = array[other];
+			array[other] = temp;
+		}
+	}
+}
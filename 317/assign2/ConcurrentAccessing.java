@@ -0,0 +1,243 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/////////////////////////////////////////////////
+///////////// Concurrent Accessing //////////////
+/////////////////////////////////////////////////
+/**
+ * Measures how the throughput of a shared index scales from 1 to N threads. Each thread performs a mix of 80%
+ * lookups, 10% inserts and 10% removes on uniform or Zipfian random keys against the lock-free Concurrent Skip List,
+ * an Int Skip List guarded by a single lock, java.util.concurrent.ConcurrentSkipListSet and a Shared Splay Tree that
+ * either splays on every lookup or on a sample of them.
+ *
+ * Usage: java ConcurrentAccessing [keyCount] [maxThreads] [seconds] [uniform|zipfian]
+ *
+ * @author simple
+ */
+public class ConcurrentAccessing
+{
+	public static final int CONCURRENT_SKIP_LIST = 0;
+
+	public static final int LOCKED_INT_SKIP_LIST = 1;
+
+	public static final int JDK_SKIP_LIST_SET = 2;
+
+	public static final int ALWAYS_SPLAY_TREE = 3;
+
+	public static final int SAMPLED_SPLAY_TREE = 4;
+
+	private static final String[] STRUCTURE_NAMES = {"ConcurrentSkipList", "locked IntSkipList",
+		"ConcurrentSkipListSet", "always-splay tree", "sampled-splay tree"};
+
+	private static final int LOOKUP_PERCENTAGE = 80;
+
+	private static final int INSERT_PERCENTAGE = 10;
+
+	/**
+	 * The exponent of the Zipfian distribution, as used by YCSB.
+	 */
+	private static final double ZIPF_EXPONENT = 0.99;
+
+	/**
+	 * The number of Zipfian keys generated up front for the threads to pick from.
+	 */
+	private static final int ZIPF_SAMPLES = 1 << 20;
+
+	private static ConcurrentSkipList concurrentSkipList;
+
+	private static IntSkipList intSkipList;
+
+	private static ConcurrentSkipListSet<Integer> skipListSet;
+
+	private static SharedSplayTree splayTree;
+
+	/**
+	 * The keys to access if they follow a Zipfian distribution, otherwise null.
+	 */
+	private static int[] zipfianKeys;
+
+	private static volatile boolean running;
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		int keyCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		if (args.length > 3 && args[3].equals("zipfian"))
+		{
+			zipfianKeys = generateZipfianKeys(keyCount * 2);
+		}
+
+		System.out.println(String.format("%-22s %7s %14s %8s", "structure", "threads", "ops/s", "speedup"));
+
+		for (int structure = CONCURRENT_SKIP_LIST; structure <= SAMPLED_SPLAY_TREE; structure++)
+		{
+			double singleThreaded = 0;
+
+			for (int threads = 1; threads <= maxThreads; threads = threads * 2 > maxThreads && threads < maxThreads
+				? maxThreads : threads * 2)
+			{
+				load(structure, keyCount);
+
+				// Warm up with the same number of threads, then measure.
+				run(structure, threads, keyCount, 1);
+				double throughput = run(structure, threads, keyCount, seconds) / (double) seconds;
+
+				if (threads == 1)
+				{
+					singleThreaded = throughput;
+				}
+
+				System.out.println(String.format("%-22s %7d %14.0f %8.2f", STRUCTURE_NAMES[structure], threads,
+					throughput, throughput / singleThreaded));
+			}
+		}
+	}
+
+	/**
+	 * Creates a new instance of the given structure holding every second key in the range of keys accessed.
+	 */
+	private static void load(int structure, int keyCount)
+	{
+		concurrentSkipList = null;
+		intSkipList = null;
+		skipListSet = null;
+		splayTree = null;
+
+		switch (structure)
+		{
+			case CONCURRENT_SKIP_LIST:
+				concurrentSkipList = new ConcurrentSkipList();
+				break;
+			case LOCKED_INT_SKIP_LIST:
+				intSkipList = new IntSkipList(keyCount);
+				break;
+			case JDK_SKIP_LIST_SET:
+				skipListSet = new ConcurrentSkipListSet<Integer>();
+				break;
+			case ALWAYS_SPLAY_TREE:
+				splayTree = new SharedSplayTree(1);
+				break;
+			default:
+				splayTree = new SharedSplayTree();
+				break;
+		}
+
+		for (int key = 0; key < keyCount * 2; key += 2)
+		{
+			operate(structure, LOOKUP_PERCENTAGE, key);
+		}
+	}
+
+	/**
+	 * Runs 'threads' threads against the structure for 'seconds' seconds.
+	 *
+	 * @return The total number of operations completed.
+	 */
+	private static long run(final int structure, int threads, final int keyCount, int seconds)
+		throws InterruptedException
+	{
+		final AtomicLong operations = new AtomicLong();
+		Thread workers[] = new Thread[threads];
+
+		running = true;
+		for (int index = 0; index < threads; index++)
+		{
+			workers[index] = new Thread()
+			{
+				public void run()
+				{
+					ThreadLocalRandom rand = ThreadLocalRandom.current();
+					long count = 0;
+
+					while (running)
+					{
+						int key = zipfianKeys == null ? rand.nextInt(keyCount * 2) : zipfianKeys[rand.nextInt(
+							ZIPF_SAMPLES)];
+						operate(structure, rand.nextInt(100), key);
+						count++;
+					}
+
+					operations.addAndGet(count);
+				}
+			};
+			workers[index].start();
+		}
+
+		Thread.sleep(seconds * 1000L);
+		running = false;
+
+		for (int index = 0; index < threads; index++)
+		{
+			workers[index].join();
+		}
+
+		return (operations.get());
+	}
+
+	/**
+	 * Performs a lookup, insert or remove of 'key' depending on where 'choice' (0 to 99) falls in the operation mix.
+	 * Choices of LOOKUP_PERCENTAGE to LOOKUP_PERCENTAGE + INSERT_PERCENTAGE - 1 are inserts.
+	 */
+	private static boolean operate(int structure, int choice, int key)
+	{
+		boolean insert = choice >= LOOKUP_PERCENTAGE && choice < LOOKUP_PERCENTAGE + INSERT_PERCENTAGE;
+		boolean remove = choice >= LOOKUP_PERCENTAGE + INSERT_PERCENTAGE;
+
+		switch (structure)
+		{
+			case CONCURRENT_SKIP_LIST:
+				return (insert ? concurrentSkipList.insert(key) : remove ? concurrentSkipList.remove(key)
+					: concurrentSkipList.contains(key));
+			case LOCKED_INT_SKIP_LIST:
+				synchronized (intSkipList)
+				{
+					return (insert ? intSkipList.insert(key) : remove ? intSkipList.remove(key) : intSkipList
+						.contains(key));
+				}
+			case JDK_SKIP_LIST_SET:
+				Integer boxedKey = Integer.valueOf(key);
+				return (insert ? skipListSet.add(boxedKey) : remove ? skipListSet.remove(boxedKey) : skipListSet
+					.contains(boxedKey));
+			default:
+				return (insert ? splayTree.insert(key) : remove ? splayTree.remove(key) : splayTree.contains(key));
+		}
+	}
+
+	/**
+	 * Generates keys from 0 to 'range' - 1 following a Zipfian distribution. The most frequent keys are scattered
+	 * across the range rather than being the smallest ones.
+	 */
+	private static int[] generateZipfianKeys(int range)
+	{
+		Random rand = new Random(range);
+
+		double cumulative[] = new double[range];
+		double total = 0;
+		for (int rank = 0; rank < range; rank++)
+		{
+			total += 1.0 / Math.pow(rank + 1, ZIPF_EXPONENT);
+			cumulative[rank] = total;
+		}
+
+		int keyOfRank[] = new int[range];
+		for (int index = 0; index < range; index++)
+		{
+			int other = rand.nextInt(index + 1);
+			keyOfRank[index] = keyOfRank[other];
+			keyOfRank[other] = index;
+		}
+
+		int keys[] = new int[ZIPF_SAMPLES];
+		for (int index = 0; index < ZIPF_SAMPLES; index++)
+		{
+			int rank = Arrays.binarySearch(cumulative, rand.nextDouble() * total);
+			keys[index] = keyOfRank[Math.min(rank < 0 ? -rank - 1 : rank, range - 1)];
+		}
+
+		return (keys);
+	}
+}
@@ -0,0 +1,276 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/////////////////////////////////////////////////
+///////////// Concurrent Skip List //////////////
+/////////////////////////////////////////////////
+/**
+ * A lock-free Skip List of distinct int values that can be shared by any number of threads. Nodes are linked with
+ * compare-and-set on marked 'next' references: a node is removed by first marking its references from the top of its
+ * tower down and then physically unlinking it, which searches do as they pass. A value is present once it is linked
+ * at the bottom level and absent once its bottom level reference is marked, which makes 'insert', 'remove' and
+ * 'contains' linearizable.
+ *
+ * The find/insert API of 'SkipList' is kept, except that inserting a value that is already present has no effect.
+ *
+ * @author simple
+ */
+public class ConcurrentSkipList
+{
+	/**
+	 *
+	 */
+	public ConcurrentSkipList()
+	{
+		// Create start and end nodes. The end node is never compared, so the full int range can be stored.
+		start = new ConcurrentSkipNode(Integer.MIN_VALUE, MAX_LEVEL);
+		end = new ConcurrentSkipNode(Integer.MAX_VALUE, MAX_LEVEL);
+
+		for (int level = 0; level <= MAX_LEVEL; level++)
+		{
+			start.setNext(level, end);
+		}
+	}
+
+	/**
+	 * The highest level a tower can reach.
+	 */
+	private static final int MAX_LEVEL = 31;
+
+	private final ConcurrentSkipNode start;
+
+	private final ConcurrentSkipNode end;
+
+	/**
+	 * The highest level any tower has reached, so searches need not start from empty levels.
+	 */
+	private final AtomicInteger height = new AtomicInteger(0);
+
+	private final AtomicInteger size = new AtomicInteger(0);
+
+	public ConcurrentSkipNode getStart()
+	{
+		return (start);
+	}
+
+	public int size()
+	{
+		return (size.get());
+	}
+
+	/**
+	 * Finds the node with value 'n', searching from 'node' downwards, without modifying the Concurrent Skip List.
+	 *
+	 * @return The node with value 'n', or the node before where 'n' would be at the bottom level (which may be the
+	 * start node).
+	 */
+	public ConcurrentSkipNode find(ConcurrentSkipNode node, int n)
+	{
+		ConcurrentSkipNode before = node;
+		ConcurrentSkipNode current = end;
+
+		for (int level = Math.min(node.getTopLevel(), height.get()); level >= 0; level--)
+		{
+			current = unmarked(before.getNext(level));
+
+			while (current != end)
+			{
+				ConcurrentSkipNode after = current.getNext(level);
+
+				// Step over nodes that have been removed from this level.
+				if (after.isMarked())
+				{
+					current = after.getTarget();
+				}
+				else if (current.getValue() < n)
+				{
+					before = current;
+					current = after;
+				}
+				else
+				{
+					break;
+				}
+			}
+		}
+
+		if (current != end && current.getValue() == n)
+		{
+			return (current);
+		}
+
+		return (before);
+	}
+
+	public boolean contains(int n)
+	{
+		ConcurrentSkipNode node = find(start, n);
+
+		return (node != start && node.getValue() == n);
+	}
+
+	/**
+	 * Inserts 'n' into the Concurrent Skip List.
+	 *
+	 * @return False if 'n' was already present.
+	 */
+	public boolean insert(int n)
+	{
+		// Decide the height that this item will have randomly.
+		int itemHeight = Math.min(Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << 31)),
+			MAX_LEVEL);
+
+		int currentHeight;
+		while (itemHeight > (currentHeight = height.get()))
+		{
+			height.compareAndSet(currentHeight, itemHeight);
+		}
+
+		ConcurrentSkipNode before[] = new ConcurrentSkipNode[MAX_LEVEL + 1];
+		ConcurrentSkipNode after[] = new ConcurrentSkipNode[MAX_LEVEL + 1];
+		ConcurrentSkipNode newNode = new ConcurrentSkipNode(n, itemHeight);
+
+		while (true)
+		{
+			if (findAndClean(n, before, after))
+			{
+				return (false);
+			}
+
+			for (int level = 0; level <= itemHeight; level++)
+			{
+				newNode.setNext(level, after[level]);
+			}
+
+			// The value is present as soon as it is linked at the bottom level.
+			if (before[0].compareAndSetNext(0, after[0], newNode))
+			{
+				break;
+			}
+		}
+		size.incrementAndGet();
+
+		for (int level = 1; level <= itemHeight; level++)
+		{
+			while (!before[level].compareAndSetNext(level, after[level], newNode))
+			{
+				findAndClean(n, before, after);
+
+				// Stop linking if the new node is already being removed, otherwise point it at the new successor.
+				ConcurrentSkipNode link = newNode.getNext(level);
+				if (link.isMarked() || (link != after[level] && !newNode.compareAndSetNext(level, link, after[level])))
+				{
+					return (true);
+				}
+			}
+		}
+
+		return (true);
+	}
+
+	/**
+	 * Removes 'n' from the Concurrent Skip List.
+	 *
+	 * @return False if 'n' was not present.
+	 */
+	public boolean remove(int n)
+	{
+		ConcurrentSkipNode before[] = new ConcurrentSkipNode[MAX_LEVEL + 1];
+		ConcurrentSkipNode after[] = new ConcurrentSkipNode[MAX_LEVEL + 1];
+
+		if (!findAndClean(n, before, after))
+		{
+			return (false);
+		}
+
+		ConcurrentSkipNode victim = after[0];
+
+		// Mark the upper levels first so that the node stops being reachable from above.
+		for (int level = victim.getTopLevel(); level >= 1; level--)
+		{
+			ConcurrentSkipNode link = victim.getNext(level);
+			while (!link.isMarked() && !victim.compareAndSetNext(level, link, link.getMarkedReference()))
+			{
+				link = victim.getNext(level);
+			}
+		}
+
+		// Whichever thread marks the bottom level is the one that removed the value.
+		while (true)
+		{
+			ConcurrentSkipNode link = victim.getNext(0);
+			if (link.isMarked())
+			{
+				return (false);
+			}
+
+			if (victim.compareAndSetNext(0, link, link.getMarkedReference()))
+			{
+				size.decrementAndGet();
+
+				// Unlink the node physically.
+				findAndClean(n, before, after);
+
+				return (true);
+			}
+		}
+	}
+
+	/**
+	 * Finds the last node with a value less than 'n' and the node after it at every level up to the current height,
+	 * recording them in 'before' and 'after'. Marked nodes met along the way are unlinked, and the search restarts if
+	 * another thread changes a link first.
+	 *
+	 * @return True if a node with value 'n' is present at the bottom level.
+	 */
+	private boolean findAndClean(int n, ConcurrentSkipNode[] before, ConcurrentSkipNode[] after)
+	{
+		retry: while (true)
+		{
+			ConcurrentSkipNode previous = start;
+			ConcurrentSkipNode current = end;
+
+			for (int level = height.get(); level >= 0; level--)
+			{
+				current = previous.getNext(level);
+				if (current.isMarked())
+				{
+					continue retry;
+				}
+
+				while (current != end)
+				{
+					ConcurrentSkipNode next = current.getNext(level);
+
+					if (next.isMarked())
+					{
+						if (!previous.compareAndSetNext(level, current, next.getTarget()))
+						{
+							continue retry;
+						}
+						current = next.getTarget();
+					}
+					else if (current.getValue() < n)
+					{
+						previous = current;
+						current = next;
+					}
+					else
+					{
+						break;
+					}
+				}
+
+				before[level] = previous;
+				after[level] = current;
+			}
+
+			return (current != end && current.getValue() == n);
+		}
+	}
+
+	private static ConcurrentSkipNode unmarked(ConcurrentSkipNode link)
+	{
+		return (link.isMarked() ? link.getTarget() : link);
+	}
+}
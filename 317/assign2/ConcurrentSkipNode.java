@@ -0,0 +1,128 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/////////////////////////////////////////////////
+///////////// Concurrent Skip Node //////////////
+/////////////////////////////////////////////////
+/**
+ * A node of a Concurrent Skip List. Rather than before/after/above/below links a node holds one 'next' reference
+ * per level of its tower, which is only ever changed by compare-and-set.
+ *
+ * A 'next' reference is marked, meaning that this node has been removed from that level, by replacing the node it
+ * refers to with that node's marked reference. Every node creates its marked reference once, so marking does not
+ * allocate and a marked reference can be compared by identity.
+ *
+ * @author simple
+ */
+public class ConcurrentSkipNode
+{
+	/**
+	 * Creates an instance of a Concurrent Skip Node with value 'n' and a tower reaching level 'topLevel'.
+	 *
+	 * @param n The value of the Concurrent Skip Node.
+	 * @param topLevel The highest level this Concurrent Skip Node is linked into.
+	 */
+	public ConcurrentSkipNode(int n, int topLevel)
+	{
+		value = n;
+		this.topLevel = topLevel;
+		next = new ConcurrentSkipNode[topLevel + 1];
+		target = null;
+		markedReference = new ConcurrentSkipNode(this);
+	}
+
+	/**
+	 * Creates the marked reference to 'node'.
+	 */
+	private ConcurrentSkipNode(ConcurrentSkipNode node)
+	{
+		value = node.value;
+		topLevel = -1;
+		next = null;
+		target = node;
+		markedReference = null;
+	}
+
+	private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(ConcurrentSkipNode[].class);
+
+	/**
+	 * The value of this Concurrent Skip Node.
+	 */
+	private final int value;
+
+	/**
+	 * The highest level this Concurrent Skip Node is linked into.
+	 */
+	private final int topLevel;
+
+	/**
+	 * The node after this one at each level, or that node's marked reference if this node has been removed from that
+	 * level.
+	 */
+	private final ConcurrentSkipNode next[];
+
+	/**
+	 * The node referred to if this is a marked reference, otherwise null.
+	 */
+	private final ConcurrentSkipNode target;
+
+	/**
+	 * The marked reference to this Concurrent Skip Node.
+	 */
+	private final ConcurrentSkipNode markedReference;
+
+	public int getValue()
+	{
+		return (value);
+	}
+
+	public int getTopLevel()
+	{
+		return (topLevel);
+	}
+
+	/**
+	 * @return The node after this one at 'level', which is a marked reference if this node has been removed from
+	 * that level.
+	 */
+	public ConcurrentSkipNode getNext(int level)
+	{
+		return ((ConcurrentSkipNode) NEXT.getVolatile(next, level));
+	}
+
+	/**
+	 * Sets the node after this one at 'level'. Only for use before this node is reachable by other threads.
+	 */
+	public void setNext(int level, ConcurrentSkipNode node)
+	{
+		next[level] = node;
+	}
+
+	/**
+	 * Atomically sets the node after this one at 'level' to 'node' if it is currently 'expected'.
+	 *
+	 * @return False if the node after this one was not 'expected'.
+	 */
+	public boolean compareAndSetNext(int level, ConcurrentSkipNode expected, ConcurrentSkipNode node)
+	{
+		return (NEXT.compareAndSet(next, level, expected, node));
+	}
+
+	public boolean isMarked()
+	{
+		return (target != null);
+	}
+
+	/**
+	 * @return The node referred to by this marked reference.
+	 */
+	public ConcurrentSkipNode getTarget()
+	{
+		return (target);
+	}
+
+	public ConcurrentSkipNode getMarkedReference()
+	{
+		return (markedReference);
+	}
+}
@@ -0,0 +1,395 @@
+import java.util.Arrays;
+
+/////////////////////////////////////////////////
+///////////////// Int Skip List /////////////////
+/////////////////////////////////////////////////
+/**
+ * A Skip List of distinct int keys that does not create an object per node. Each node is a block of a single pooled
+ * int array holding its key, the height of its tower and then its tower of 'after' links, so a search touches one
+ * block per step instead of following separate node objects. Blocks of removed nodes are kept on a free list per
+ * height and reused by later insertions.
+ *
+ * The head of the list is the block at offset 0, which has a tower of the maximum height and no key, so the full int
+ * range can be stored. Methods that return a node return 'NIL' when there is no such node; the key of a node is read
+ * with 'getKey'.
+ *
+ * Instances are not thread safe.
+ *
+ * @author simple
+ */
+public class IntSkipList
+{
+	/**
+	 * Creates an empty Int Skip List.
+	 */
+	public IntSkipList()
+	{
+		this(16);
+	}
+
+	/**
+	 * Creates an empty Int Skip List with room for 'initialCapacity' keys before the pool needs to grow.
+	 *
+	 * @param initialCapacity The number of keys to allocate room for.
+	 */
+	public IntSkipList(int initialCapacity)
+	{
+		pool = new int[LINKS + MAX_LEVEL + initialCapacity * (LINKS + 2)];
+
+		clear();
+	}
+
+	/**
+	 * Returned by methods that find a node when no such node exists.
+	 */
+	public static final int NIL = -1;
+
+	/**
+	 * The maximum height of a tower.
+	 */
+	private static final int MAX_LEVEL = 32;
+
+	/**
+	 * The offset of the key within a node block.
+	 */
+	private static final int KEY = 0;
+
+	/**
+	 * The offset of the tower height within a node block.
+	 */
+	private static final int HEIGHT = 1;
+
+	/**
+	 * The offset of the level 0 link within a node block.
+	 */
+	private static final int LINKS = 2;
+
+	/**
+	 * The node at the start of every level.
+	 */
+	private static final int HEAD = 0;
+
+	/**
+	 * The node blocks. Each link is the offset of the node after this one at that level.
+	 */
+	private int pool[];
+
+	/**
+	 * The number of entries of 'pool' in use, including the blocks on the free lists.
+	 */
+	private int poolSize;
+
+	/**
+	 * The first free node for each tower height. Free nodes are chained through their level 0 link.
+	 */
+	private int freeByHeight[] = new int[MAX_LEVEL + 1];
+
+	/**
+	 * The number of levels currently in use.
+	 */
+	private int level;
+
+	private int size;
+
+	/**
+	 * The last node visited at each level by the most recent search.
+	 */
+	private int update[] = new int[MAX_LEVEL];
+
+	private int seed = (int) System.nanoTime() | 1;
+
+	/**
+	 * Removes every key from the Int Skip List.
+	 */
+	public void clear()
+	{
+		pool[HEAD + HEIGHT] = MAX_LEVEL;
+		Arrays.fill(pool, HEAD + LINKS, HEAD + LINKS + MAX_LEVEL, NIL);
+		poolSize = LINKS + MAX_LEVEL;
+		Arrays.fill(freeByHeight, NIL);
+		level = 1;
+		size = 0;
+	}
+
+	public int size()
+	{
+		return (size);
+	}
+
+	public int getKey(int node)
+	{
+		return (pool[node + KEY]);
+	}
+
+	/**
+	 * @return The node with the smallest key or 'NIL' if the Int Skip List is empty.
+	 */
+	public int firstNode()
+	{
+		return (pool[HEAD + LINKS]);
+	}
+
+	/**
+	 * @return The node following 'node' or 'NIL' if 'node' has the largest key.
+	 */
+	public int nextNode(int node)
+	{
+		return (pool[node + LINKS]);
+	}
+
+	public boolean contains(int n)
+	{
+		int node = ceilingNode(n);
+
+		return (node != NIL && pool[node + KEY] == n);
+	}
+
+	/**
+	 * @return The node with the largest key less than or equal to 'n' or 'NIL' if there is none.
+	 */
+	public int floorNode(int n)
+	{
+		int node = HEAD;
+
+		for (int currentLevel = level - 1; currentLevel >= 0; currentLevel--)
+		{
+			int after;
+			while ((after = pool[node + LINKS + currentLevel]) != NIL && pool[after + KEY] <= n)
+			{
+				node = after;
+			}
+		}
+
+		return (node == HEAD ? NIL : node);
+	}
+
+	/**
+	 * @return The node with the smallest key greater than or equal to 'n' or 'NIL' if there is none.
+	 */
+	public int ceilingNode(int n)
+	{
+		int node = HEAD;
+
+		for (int currentLevel = level - 1; currentLevel >= 0; currentLevel--)
+		{
+			int after;
+			while ((after = pool[node + LINKS + currentLevel]) != NIL && pool[after + KEY] < n)
+			{
+				node = after;
+			}
+		}
+
+		return (pool[node + LINKS]);
+	}
+
+	/**
+	 * Copies the keys from 'low' to 'high' inclusive into 'destination' in ascending order, stopping early if
+	 * 'destination' is full.
+	 *
+	 * @return The number of keys copied.
+	 */
+	public int range(int low, int high, int[] destination)
+	{
+		int count = 0;
+
+		for (int node = ceilingNode(low); node != NIL && pool[node + KEY] <= high && count < destination.length; node =
+			pool[node + LINKS])
+		{
+			destination[count++] = pool[node + KEY];
+		}
+
+		return (count);
+	}
+
+	/**
+	 * Inserts 'n' into the Int Skip List.
+	 *
+	 * @return False if 'n' was already present.
+	 */
+	public boolean insert(int n)
+	{
+		int node = findPredecessors(n);
+		if (node != NIL && pool[node + KEY] == n)
+		{
+			return (false);
+		}
+
+		int itemHeight = randomHeight();
+		while (level < itemHeight)
+		{
+			update[level++] = HEAD;
+		}
+
+		node = allocate(itemHeight);
+		pool[node + KEY] = n;
+
+		for (int currentLevel = 0; currentLevel < itemHeight; currentLevel++)
+		{
+			int previous = update[currentLevel] + LINKS + currentLevel;
+			pool[node + LINKS + currentLevel] = pool[previous];
+			pool[previous] = node;
+		}
+
+		size++;
+
+		return (true);
+	}
+
+	/**
+	 * Removes 'n' from the Int Skip List.
+	 *
+	 * @return False if 'n' was not present.
+	 */
+	public boolean remove(int n)
+	{
+		int node = findPredecessors(n);
+		if (node == NIL || pool[node + KEY] != n)
+		{
+			return (false);
+		}
+
+		int itemHeight = pool[node + HEIGHT];
+		for (int currentLevel = 0; currentLevel < itemHeight; currentLevel++)
+		{
+			pool[update[currentLevel] + LINKS + currentLevel] = pool[node + LINKS + currentLevel];
+		}
+
+		while (level > 1 && pool[HEAD + LINKS + level - 1] == NIL)
+		{
+			level--;
+		}
+
+		pool[node + LINKS] = freeByHeight[itemHeight];
+		freeByHeight[itemHeight] = node;
+		size--;
+
+		return (true);
+	}
+
+	/**
+	 * Replaces the contents of the Int Skip List with the keys in 'sorted' from 'offset' to 'offset + length'. The
+	 * keys must be strictly increasing. Towers are given deterministic heights so that the resulting list is
+	 * perfectly balanced, which takes linear time instead of the O(n log n) of repeated insertion.
+	 *
+	 * @throws IllegalArgumentException If the keys are not strictly increasing.
+	 */
+	public void bulkLoad(int[] sorted, int offset, int length)
+	{
+		long required = LINKS + MAX_LEVEL;
+		for (int index = 0; index < length; index++)
+		{
+			if (index > 0 && sorted[offset + index] <= sorted[offset + index - 1])
+			{
+				throw new IllegalArgumentException("Keys must be strictly increasing at index " + (offset + index));
+			}
+			required += LINKS + bulkHeight(index);
+		}
+
+		if (required > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("Too many keys to load: " + length);
+		}
+		if (pool.length < required)
+		{
+			pool = new int[(int) required];
+		}
+
+		clear();
+		for (int currentLevel = 0; currentLevel < MAX_LEVEL; currentLevel++)
+		{
+			update[currentLevel] = HEAD;
+		}
+
+		for (int index = 0; index < length; index++)
+		{
+			int itemHeight = bulkHeight(index);
+			int node = allocate(itemHeight);
+			pool[node + KEY] = sorted[offset + index];
+
+			for (int currentLevel = 0; currentLevel < itemHeight; currentLevel++)
+			{
+				pool[update[currentLevel] + LINKS + currentLevel] = node;
+				pool[node + LINKS + currentLevel] = NIL;
+				update[currentLevel] = node;
+			}
+
+			if (itemHeight > level)
+			{
+				level = itemHeight;
+			}
+		}
+
+		size = length;
+	}
+
+	/**
+	 * Finds the last node with a key less than 'n' at every level and records them in 'update'.
+	 *
+	 * @return The first node with a key greater than or equal to 'n' or 'NIL' if there is none.
+	 */
+	private int findPredecessors(int n)
+	{
+		int node = HEAD;
+
+		for (int currentLevel = level - 1; currentLevel >= 0; currentLevel--)
+		{
+			int after;
+			while ((after = pool[node + LINKS + currentLevel]) != NIL && pool[after + KEY] < n)
+			{
+				node = after;
+			}
+			update[currentLevel] = node;
+		}
+
+		return (pool[node + LINKS]);
+	}
+
+	/**
+	 * Takes a node with a tower of height 'itemHeight' from the free list, or from the end of the pool if there is
+	 * none free.
+	 */
+	private int allocate(int itemHeight)
+	{
+		int node = freeByHeight[itemHeight];
+
+		if (node != NIL)
+		{
+			freeByHeight[itemHeight] = pool[node + LINKS];
+			return (node);
+		}
+
+		int blockSize = LINKS + itemHeight;
+		if (poolSize + blockSize > pool.length)
+		{
+			pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + blockSize));
+		}
+
+		node = poolSize;
+		pool[node + HEIGHT] = itemHeight;
+		poolSize += blockSize;
+
+		return (node);
+	}
+
+	/**
+	 * Decides the height of a new tower, each level being half as likely as the one below it.
+	 */
+	private int randomHeight()
+	{
+		// Xorshift, which never produces zero from a non-zero seed.
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+
+		return (Math.min(Integer.numberOfTrailingZeros(seed) + 1, MAX_LEVEL));
+	}
+
+	/**
+	 * The height of the tower at position 'index' of a bulk load, so that every second tower reaches level 1, every
+	 * fourth reaches level 2 and so on.
+	 */
+	private static int bulkHeight(int index)
+	{
+		return (Math.min(Integer.numberOfTrailingZeros(index + 1) + 1, MAX_LEVEL));
+	}
+}
@@ -0,0 +1,328 @@
+import java.util.Arrays;
+
+/////////////////////////////////////////////////
+///////////////// Int Splay Tree ////////////////
+/////////////////////////////////////////////////
+/**
+ * A Splay Tree of distinct int keys that splays top-down. Splaying top-down breaks the tree into a left tree, a middle
+ * tree and a right tree on the way down and joins them when the key is reached, so no parent links or recursion are
+ * needed. Nodes are slots of the parallel arrays 'keys', 'left' and 'right', which costs 12 bytes per key; the slots
+ * of removed nodes are kept on a free list and reused.
+ *
+ * Instances are not thread safe.
+ *
+ * @author simple
+ */
+public class IntSplayTree
+{
+	/**
+	 * Constructs an empty Int Splay Tree.
+	 */
+	public IntSplayTree()
+	{
+		this(16);
+	}
+
+	/**
+	 * Constructs an empty Int Splay Tree with room for 'initialCapacity' keys before the arrays need to grow.
+	 *
+	 * @param initialCapacity The number of keys to allocate room for.
+	 */
+	public IntSplayTree(int initialCapacity)
+	{
+		keys = new int[initialCapacity + 1];
+		left = new int[initialCapacity + 1];
+		right = new int[initialCapacity + 1];
+
+		clear();
+	}
+
+	/**
+	 * The slot used as a null link.
+	 */
+	private static final int NIL = -1;
+
+	/**
+	 * The slot used to collect the left and right trees while splaying. Its right link holds the left tree and its
+	 * left link holds the right tree.
+	 */
+	private static final int HEADER = 0;
+
+	private int keys[];
+
+	/**
+	 * The left child of each node. The slots on the free list are chained through this array.
+	 */
+	private int left[];
+
+	private int right[];
+
+	/**
+	 * The number of slots that have been used, including the header and the free slots.
+	 */
+	private int slotCount;
+
+	private int freeSlot;
+
+	private int root;
+
+	private int size;
+
+	/**
+	 * Removes every key from the Int Splay Tree.
+	 */
+	public void clear()
+	{
+		slotCount = 1;
+		freeSlot = NIL;
+		root = NIL;
+		size = 0;
+	}
+
+	public int size()
+	{
+		return (size);
+	}
+
+	/**
+	 * Splays the node with key 'n', or the last node reached while searching for it, to the root.
+	 *
+	 * @return True if 'n' is in the Int Splay Tree.
+	 */
+	public boolean contains(int n)
+	{
+		if (root == NIL)
+		{
+			return (false);
+		}
+
+		root = splay(n, root);
+
+		return (keys[root] == n);
+	}
+
+	/**
+	 * Searches for 'n' like an ordinary binary search tree, without splaying. This never modifies the Int Splay Tree,
+	 * and it is safe to call while another thread is modifying it: it may then return the wrong answer, but it will
+	 * not fail or loop forever, so it can be used under an optimistic read that is validated afterwards.
+	 *
+	 * @return True if 'n' is in the Int Splay Tree.
+	 */
+	public boolean containsWithoutSplaying(int n)
+	{
+		int currentKeys[] = keys;
+		int currentLeft[] = left;
+		int currentRight[] = right;
+
+		// A concurrent modification may leave links that are out of range or that form a cycle, but no valid path is
+		// longer than the number of slots.
+		int limit = Math.min(currentKeys.length, Math.min(currentLeft.length, currentRight.length));
+		int t = root;
+
+		for (int steps = 0; t >= 0 && t < limit && steps < limit; steps++)
+		{
+			int key = currentKeys[t];
+			if (n == key)
+			{
+				return (true);
+			}
+
+			t = (n < key) ? currentLeft[t] : currentRight[t];
+		}
+
+		return (false);
+	}
+
+	/**
+	 * Inserts a node with key 'n', which becomes the root of the Int Splay Tree.
+	 *
+	 * @return False if 'n' was already present.
+	 */
+	public boolean insert(int n)
+	{
+		if (root == NIL)
+		{
+			root = allocate(n);
+			left[root] = NIL;
+			right[root] = NIL;
+			size++;
+
+			return (true);
+		}
+
+		root = splay(n, root);
+		if (keys[root] == n)
+		{
+			return (false);
+		}
+
+		// Split the tree around the old root, which is the closest key to 'n'.
+		int newNode = allocate(n);
+		if (n < keys[root])
+		{
+			left[newNode] = left[root];
+			right[newNode] = root;
+			left[root] = NIL;
+		}
+		else
+		{
+			right[newNode] = right[root];
+			left[newNode] = root;
+			right[root] = NIL;
+		}
+
+		root = newNode;
+		size++;
+
+		return (true);
+	}
+
+	/**
+	 * Removes the node with key 'n' from the Int Splay Tree.
+	 *
+	 * @return False if 'n' was not present.
+	 */
+	public boolean remove(int n)
+	{
+		if (root == NIL)
+		{
+			return (false);
+		}
+
+		root = splay(n, root);
+		if (keys[root] != n)
+		{
+			return (false);
+		}
+
+		int oldRoot = root;
+		if (left[root] == NIL)
+		{
+			root = right[root];
+		}
+		else
+		{
+			// Every key in the left subtree is less than 'n', so splaying it for 'n' brings its maximum to the top,
+			// which then has no right child.
+			int newRoot = splay(n, left[root]);
+			right[newRoot] = right[oldRoot];
+			root = newRoot;
+		}
+
+		left[oldRoot] = freeSlot;
+		freeSlot = oldRoot;
+		size--;
+
+		return (true);
+	}
+
+	/**
+	 * Splays top-down from 't' towards 'n'.
+	 *
+	 * @return The new root of the subtree, which is the node with key 'n' or the last node reached while searching for
+	 * it.
+	 */
+	private int splay(int n, int t)
+	{
+		// The last node of the left tree and the first node of the right tree.
+		int leftMax = HEADER;
+		int rightMin = HEADER;
+
+		left[HEADER] = NIL;
+		right[HEADER] = NIL;
+
+		while (true)
+		{
+			if (n < keys[t])
+			{
+				int child = left[t];
+				if (child == NIL)
+				{
+					break;
+				}
+
+				if (n < keys[child])
+				{
+					// Zig Zig: rotate right.
+					left[t] = right[child];
+					right[child] = t;
+					t = child;
+					if (left[t] == NIL)
+					{
+						break;
+					}
+				}
+
+				// Link t into the right tree.
+				left[rightMin] = t;
+				rightMin = t;
+				t = left[t];
+			}
+			else if (n > keys[t])
+			{
+				int child = right[t];
+				if (child == NIL)
+				{
+					break;
+				}
+
+				if (n > keys[child])
+				{
+					// Zig Zig: rotate left.
+					right[t] = left[child];
+					left[child] = t;
+					t = child;
+					if (right[t] == NIL)
+					{
+						break;
+					}
+				}
+
+				// Link t into the left tree.
+				right[leftMax] = t;
+				leftMax = t;
+				t = right[t];
+			}
+			else
+			{
+				break;
+			}
+		}
+
+		// Join the left, middle and right trees.
+		right[leftMax] = left[t];
+		left[rightMin] = right[t];
+		left[t] = right[HEADER];
+		right[t] = left[HEADER];
+
+		return (t);
+	}
+
+	/**
+	 * Takes a slot from the free list, or from the end of the arrays if none are free, and gives it the key 'n'.
+	 */
+	private int allocate(int n)
+	{
+		int slot = freeSlot;
+
+		if (slot != NIL)
+		{
+			freeSlot = left[slot];
+		}
+		else
+		{
+			if (slotCount == keys.length)
+			{
+				keys = Arrays.copyOf(keys, slotCount * 2);
+				left = Arrays.copyOf(left, slotCount * 2);
+				right = Arrays.copyOf(right, slotCount * 2);
+			}
+
+			slot = slotCount++;
+		}
+
+		keys[slot] = n;
+
+		return (slot);
+	}
+}
@@ -0,0 +1,130 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/////////////////////////////////////////////////
+/////////////// Parallel Sorting ////////////////
+/////////////////////////////////////////////////
+/**
+ * Sorts int arrays in place using every core, either with a ForkJoin quick sort or, for large arrays, with a sample
+ * sort. Both sort small partitions with 'Sorting.quickSort' and 'Sorting.insertionSort'.
+ *
+ * The quick sort needs no extra memory but its first partitions are done by a single thread. The sample sort
+ * distributes the elements into one bucket per task in parallel and then sorts the buckets independently, which
+ * scales better but needs a buffer as large as the array.
+ *
+ * @author simple
+ */
+public class ParallelSorting
+{
+	/**
+	 * Parts of the array this size or smaller are sorted by a single thread.
+	 */
+	public static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+
+	/**
+	 * Arrays smaller than this are quick sorted rather than sample sorted.
+	 */
+	public static final int SAMPLE_SORT_THRESHOLD = 1 << 16;
+
+	/**
+	 * The number of buckets per thread in a sample sort, so that uneven buckets balance out.
+	 */
+	private static final int BUCKETS_PER_THREAD = 4;
+
+	/**
+	 * The most buckets a sample sort uses, so that a bucket number fits in a byte.
+	 */
+	private static final int MAX_BUCKETS = 256;
+
+	/**
+	 * The number of samples taken per bucket when choosing the splitters.
+	 */
+	private static final int OVERSAMPLING = 64;
+
+	/**
+	 * Quick sorts 'array' in parallel on the common pool.
+	 */
+	public static void quickSort(int[] array)
+	{
+		quickSort(array, Sorting.THRESHOLD, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Quick sorts 'array' in parallel on 'pool'.
+	 *
+	 * @param cutoff Partitions of this many or fewer elements are insertion sorted.
+	 */
+	public static void quickSort(int[] array, int cutoff, ForkJoinPool pool)
+	{
+		pool.invoke(new QuickSortTask(array, 0, array.length, cutoff, Math.max(SEQUENTIAL_THRESHOLD, cutoff)));
+	}
+
+	/**
+	 * Sample sorts 'array' in parallel on the common pool.
+	 */
+	public static void sampleSort(int[] array)
+	{
+		sampleSort(array, Sorting.THRESHOLD, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Sample sorts 'array' in parallel on 'pool'. Arrays smaller than SAMPLE_SORT_THRESHOLD are quick sorted instead.
+	 *
+	 * @param cutoff Partitions of this many or fewer elements are insertion sorted.
+	 */
+	public static void sampleSort(int[] array, int cutoff, ForkJoinPool pool)
+	{
+		int n = array.length;
+		int threads = pool.getParallelism();
+
+		if (n < SAMPLE_SORT_THRESHOLD || threads == 1)
+		{
+			quickSort(array, cutoff, pool);
+			return;
+		}
+
+		int bucketCount = Math.min(MAX_BUCKETS, threads * BUCKETS_PER_THREAD);
+		int blockCount = Math.min(threads * BUCKETS_PER_THREAD, n / SEQUENTIAL_THRESHOLD);
+		int blockSize = (n + blockCount - 1) / blockCount;
+
+		// Choose the splitters from a sorted random sample.
+		Random rand = new Random(n);
+		int sample[] = new int[bucketCount * OVERSAMPLING];
+		for (int index = 0; index < sample.length; index++)
+		{
+			sample[index] = array[rand.nextInt(n)];
+		}
+		Arrays.sort(sample);
+
+		int splitters[] = new int[bucketCount - 1];
+		for (int index = 0; index < splitters.length; index++)
+		{
+			splitters[index] = sample[(index + 1) * OVERSAMPLING];
+		}
+
+		int counts[][] = new int[blockCount][bucketCount];
+		int bucketStarts[] = new int[bucketCount + 1];
+		SampleSortTask task = new SampleSortTask(array, new int[n], splitters, new byte[n], counts, bucketStarts,
+			blockSize, cutoff);
+
+		pool.invoke(task);
+
+		// Turn the counts into the position of each block's first element of each bucket.
+		int position = 0;
+		for (int bucket = 0; bucket < bucketCount; bucket++)
+		{
+			bucketStarts[bucket] = position;
+			for (int block = 0; block < blockCount; block++)
+			{
+				int count = counts[block][bucket];
+				counts[block][bucket] = position;
+				position += count;
+			}
+		}
+		bucketStarts[bucketCount] = position;
+
+		pool.invoke(task.forPhase(SampleSortTask.DISTRIBUTE));
+		pool.invoke(task.forPhase(SampleSortTask.SORT));
+	}
+}
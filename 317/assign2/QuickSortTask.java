@@ -0,0 +1,98 @@
+import java.util.concurrent.RecursiveAction;
+
+/////////////////////////////////////////////////
+//////////////// Quick Sort Task ////////////////
+/////////////////////////////////////////////////
+/**
+ * Quick sorts part of an array in place on a ForkJoinPool. Each partition forks a task for one side and continues with
+ * the other, until a part is small enough to be sorted sequentially by 'Sorting.quickSort'.
+ *
+ * @author simple
+ */
+public class QuickSortTask extends RecursiveAction
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a task to sort the elements of 'array' from 'from' to 'to' - 1.
+	 *
+	 * @param cutoff Partitions of this many or fewer elements are insertion sorted.
+	 * @param sequentialThreshold Parts of this many or fewer elements are sorted without forking further tasks.
+	 */
+	public QuickSortTask(int[] array, int from, int to, int cutoff, int sequentialThreshold)
+	{
+		this.array = array;
+		this.from = from;
+		this.to = to;
+		this.cutoff = cutoff;
+		this.sequentialThreshold = sequentialThreshold;
+	}
+
+	private final int array[];
+
+	private final int from;
+
+	private final int to;
+
+	private final int cutoff;
+
+	private final int sequentialThreshold;
+
+	protected void compute()
+	{
+		int start = from;
+		int end = to;
+		QuickSortTask pending[] = null;
+		int pendingCount = 0;
+
+		while (end - start > sequentialThreshold)
+		{
+			int split = Sorting.partition(array, start, end);
+
+			// Fork the smaller side and carry on with the larger.
+			if (split + 1 - start < end - (split + 1))
+			{
+				pending = push(pending, pendingCount++, new QuickSortTask(array, start, split + 1, cutoff,
+					sequentialThreshold));
+				start = split + 1;
+			}
+			else
+			{
+				pending = push(pending, pendingCount++, new QuickSortTask(array, split + 1, end, cutoff,
+					sequentialThreshold));
+				end = split + 1;
+			}
+			pending[pendingCount - 1].fork();
+		}
+
+		Sorting.quickSort(array, start, end, cutoff);
+
+		while (pendingCount > 0)
+		{
+			pending[--pendingCount].join();
+		}
+	}
+
+	/**
+	 * Stores 'task' at 'index' of 'pending', growing it if it is full.
+	 *
+	 * @return The array now holding the pending tasks.
+	 */
+	private static QuickSortTask[] push(QuickSortTask[] pending, int index, QuickSortTask task)
+	{
+		if (pending == null)
+		{
+			pending = new QuickSortTask[32];
+		}
+		else if (index == pending.length)
+		{
+			QuickSortTask morePending[] = new QuickSortTask[index * 2];
+			System.arraycopy(pending, 0, morePending, 0, index);
+			pending = morePending;
+		}
+
+		pending[index] = task;
+
+		return (pending);
+	}
+}
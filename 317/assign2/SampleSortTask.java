@@ -0,0 +1,195 @@
+import java.util.concurrent.RecursiveAction;
+
+/////////////////////////////////////////////////
+//////////////// Sample Sort Task ///////////////
+/////////////////////////////////////////////////
+/**
+ * Runs one phase of a parallel sample sort over a range of blocks or buckets on a ForkJoinPool. The range is split in
+ * half until a single block or bucket remains, which is then processed. Every task of a sort shares the same arrays.
+ *
+ * @author simple
+ */
+public class SampleSortTask extends RecursiveAction
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a task for the first phase of a sample sort of 'array'.
+	 *
+	 * @param array The array being sorted.
+	 * @param buffer An array the same length as 'array' that the elements are distributed into.
+	 * @param splitters The sorted splitters. Bucket b holds the elements greater than splitters[b - 1] and no greater
+	 * than splitters[b].
+	 * @param bucketOf The bucket of each element of 'array', filled in by the CLASSIFY phase.
+	 * @param counts The number of elements of each block in each bucket. After the CLASSIFY phase these must be
+	 * replaced by the position in 'buffer' of each block's first element in each bucket.
+	 * @param bucketStarts The position in 'buffer' of the first element of each bucket, plus the length of the array.
+	 * @param blockSize The number of elements in each block but the last.
+	 * @param cutoff Partitions of this many or fewer elements are insertion sorted.
+	 */
+	public SampleSortTask(int[] array, int[] buffer, int[] splitters, byte[] bucketOf, int[][] counts,
+		int[] bucketStarts, int blockSize, int cutoff)
+	{
+		this.array = array;
+		this.buffer = buffer;
+		this.splitters = splitters;
+		this.bucketOf = bucketOf;
+		this.counts = counts;
+		this.bucketStarts = bucketStarts;
+		this.blockSize = blockSize;
+		this.cutoff = cutoff;
+		phase = CLASSIFY;
+		first = 0;
+		last = counts.length - 1;
+	}
+
+	/**
+	 * Creates a task for part of the range of 'parent'.
+	 */
+	private SampleSortTask(SampleSortTask parent, int phase, int first, int last)
+	{
+		array = parent.array;
+		buffer = parent.buffer;
+		splitters = parent.splitters;
+		bucketOf = parent.bucketOf;
+		counts = parent.counts;
+		bucketStarts = parent.bucketStarts;
+		blockSize = parent.blockSize;
+		cutoff = parent.cutoff;
+		this.phase = phase;
+		this.first = first;
+		this.last = last;
+	}
+
+	/**
+	 * Finds the bucket of each element of a block and counts the elements of the block in each bucket.
+	 */
+	public static final int CLASSIFY = 0;
+
+	/**
+	 * Copies each element of a block to its bucket in the buffer.
+	 */
+	public static final int DISTRIBUTE = 1;
+
+	/**
+	 * Sorts a bucket in the buffer and copies it back to the array.
+	 */
+	public static final int SORT = 2;
+
+	private final int array[];
+
+	private final int buffer[];
+
+	private final int splitters[];
+
+	private final byte bucketOf[];
+
+	private final int counts[][];
+
+	private final int bucketStarts[];
+
+	private final int blockSize;
+
+	private final int cutoff;
+
+	private final int phase;
+
+	/**
+	 * The first block or bucket to process.
+	 */
+	private final int first;
+
+	/**
+	 * The last block or bucket to process.
+	 */
+	private final int last;
+
+	/**
+	 * Creates a task that runs 'phase' over every block, or every bucket for the SORT phase.
+	 */
+	public SampleSortTask forPhase(int phase)
+	{
+		return (new SampleSortTask(this, phase, 0, (phase == SORT ? bucketStarts.length - 1 : counts.length) - 1));
+	}
+
+	protected void compute()
+	{
+		if (first < last)
+		{
+			int middle = (first + last) >>> 1;
+			invokeAll(new SampleSortTask(this, phase, first, middle), new SampleSortTask(this, phase, middle + 1,
+				last));
+			return;
+		}
+
+		switch (phase)
+		{
+			case CLASSIFY:
+				classify(first);
+				break;
+			case DISTRIBUTE:
+				distribute(first);
+				break;
+			default:
+				sort(first);
+				break;
+		}
+	}
+
+	private void classify(int block)
+	{
+		int blockCounts[] = counts[block];
+		int end = Math.min(array.length, (block + 1) * blockSize);
+
+		for (int index = block * blockSize; index < end; index++)
+		{
+			int bucket = bucket(array[index]);
+			bucketOf[index] = (byte) bucket;
+			blockCounts[bucket]++;
+		}
+	}
+
+	private void distribute(int block)
+	{
+		int positions[] = counts[block];
+		int end = Math.min(array.length, (block + 1) * blockSize);
+
+		for (int index = block * blockSize; index < end; index++)
+		{
+			buffer[positions[bucketOf[index] & 0xFF]++] = array[index];
+		}
+	}
+
+	private void sort(int bucket)
+	{
+		int start = bucketStarts[bucket];
+		int end = bucketStarts[bucket + 1];
+
+		Sorting.quickSort(buffer, start, end, cutoff);
+		System.arraycopy(buffer, start, array, start, end - start);
+	}
+
+	/**
+	 * Binary searches the splitters for the bucket of 'x'.
+	 */
+	private int bucket(int x)
+	{
+		int low = 0;
+		int high = splitters.length;
+
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if (x <= splitters[middle])
+			{
+				high = middle;
+			}
+			else
+			{
+				low = middle + 1;
+			}
+		}
+
+		return (low);
+	}
+}
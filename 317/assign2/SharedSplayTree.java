@@ -0,0 +1,129 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
+
+/////////////////////////////////////////////////
+/////////////// Shared Splay Tree ///////////////
+/////////////////////////////////////////////////
+/**
+ * An Int Splay Tree that can be shared by several threads. Because splaying restructures the tree, a lookup that
+ * splays is a write. Most lookups here therefore do not splay: they search under an optimistic read of a StampedLock
+ * and only fall back to a read lock if a writer got in the way. A sampled fraction of lookups, one in
+ * 'splaySampleRate', takes the write lock and splays instead, so keys that are looked up often still move towards the
+ * root. Inserts and removes always take the write lock.
+ *
+ * @author simple
+ */
+public class SharedSplayTree
+{
+	/**
+	 * Constructs an empty Shared Splay Tree that splays on one in 64 lookups.
+	 */
+	public SharedSplayTree()
+	{
+		this(64);
+	}
+
+	/**
+	 * Constructs an empty Shared Splay Tree.
+	 *
+	 * @param splaySampleRate One in this many lookups splays. A rate of 1 splays on every lookup, as an Int Splay Tree
+	 * does.
+	 */
+	public SharedSplayTree(int splaySampleRate)
+	{
+		if (splaySampleRate < 1)
+		{
+			throw new IllegalArgumentException("The splay sample rate must be at least 1: " + splaySampleRate);
+		}
+
+		this.splaySampleRate = splaySampleRate;
+	}
+
+	private final IntSplayTree tree = new IntSplayTree();
+
+	private final StampedLock lock = new StampedLock();
+
+	private final int splaySampleRate;
+
+	public boolean contains(int n)
+	{
+		if (splaySampleRate == 1 || ThreadLocalRandom.current().nextInt(splaySampleRate) == 0)
+		{
+			long stamp = lock.writeLock();
+			try
+			{
+				return (tree.contains(n));
+			}
+			finally
+			{
+				lock.unlockWrite(stamp);
+			}
+		}
+
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0)
+		{
+			boolean found = tree.containsWithoutSplaying(n);
+			if (lock.validate(stamp))
+			{
+				return (found);
+			}
+		}
+
+		// A writer changed the tree during the search.
+		stamp = lock.readLock();
+		try
+		{
+			return (tree.containsWithoutSplaying(n));
+		}
+		finally
+		{
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * @return False if 'n' was already present.
+	 */
+	public boolean insert(int n)
+	{
+		long stamp = lock.writeLock();
+		try
+		{
+			return (tree.insert(n));
+		}
+		finally
+		{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * @return False if 'n' was not present.
+	 */
+	public boolean remove(int n)
+	{
+		long stamp = lock.writeLock();
+		try
+		{
+			return (tree.remove(n));
+		}
+		finally
+		{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	public int size()
+	{
+		long stamp = lock.readLock();
+		try
+		{
+			return (tree.size());
+		}
+		finally
+		{
+			lock.unlockRead(stamp);
+		}
+	}
+}
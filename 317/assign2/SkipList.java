@@ -25,9 +25,9 @@ public class SkipList
 		height = 0;
 	}
 
-	private final int MIN = -99999;
+	private final int MIN = Integer.MIN_VALUE;
 
-	private final int MAX = 99999;
+	private final int MAX = Integer.MAX_VALUE;
 
 	private SkipNode topStart;
 
@@ -134,6 +134,31 @@ public class SkipList
 		}
 	}
 
-	public void remove()
-	{}
+	/**
+	 * Removes the item with the value 'n', unlinking every node of its tower. Nothing is removed if there is no such
+	 * item.
+	 * 
+	 * @param n The value of the item to be removed.
+	 */
+	public void remove(int n)
+	{
+		if (n == MIN || n == MAX)
+		{
+			return;
+		}
+
+		// Find returns the top node of the tower, as the search meets it before descending past it.
+		SkipNode node = find(topStart, n);
+		if (node.getValue() != n)
+		{
+			return;
+		}
+
+		while (node != null)
+		{
+			node.getBefore().setAfter(node.getAfter());
+			node.getAfter().setBefore(node.getBefore());
+			node = node.getBelow();
+		}
+	}
 }
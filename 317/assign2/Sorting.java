@@ -10,7 +10,10 @@ import java.util.Random;
  */
 public class Sorting
 {
-	private static final int THRESHOLD = 50;
+	/**
+	 * Partitions no larger than this are insertion sorted rather than quick sorted.
+	 */
+	public static final int THRESHOLD = 50;
 
 	private static Random rand = new Random(System.currentTimeMillis());
 
@@ -115,6 +118,123 @@ public class Sorting
 		}
 	}
 
+	/**
+	 * Quick sorts the elements of 'array' from 'from' to 'to' - 1 in place, without allocating. Partitions of
+	 * 'cutoff' or fewer elements are insertion sorted. The smaller side of each partition is sorted recursively and
+	 * the larger side iteratively, so the recursion is at most log2(n) deep.
+	 */
+	public static void quickSort(int[] array, int from, int to, int cutoff)
+	{
+		// Partitioning needs at least three elements.
+		if (cutoff < 2)
+		{
+			cutoff = 2;
+		}
+
+		while (to - from > cutoff)
+		{
+			int split = partition(array, from, to);
+
+			if (split + 1 - from < to - (split + 1))
+			{
+				quickSort(array, from, split + 1, cutoff);
+				from = split + 1;
+			}
+			else
+			{
+				quickSort(array, split + 1, to, cutoff);
+				to = split + 1;
+			}
+		}
+
+		insertionSort(array, from, to);
+	}
+
+	/**
+	 * Partitions the elements of 'array' from 'from' to 'to' - 1, of which there must be at least three, in place
+	 * around the median of the first, middle and last elements, using Hoare's scheme so that runs of equal elements
+	 * are split evenly.
+	 *
+	 * @return The index 'split' such that every element up to and including 'split' is no greater than every element
+	 * after it. Both sides are non-empty.
+	 */
+	public static int partition(int[] array, int from, int to)
+	{
+		int pivot = array[medianOfThree(array, from, to)];
+		int left = from - 1;
+		int right = to;
+
+		while (true)
+		{
+			do
+			{
+				left++;
+			}
+			while (array[left] < pivot);
+
+			do
+			{
+				right--;
+			}
+			while (array[right] > pivot);
+
+			if (left >= right)
+			{
+				return (right);
+			}
+
+			int temp = array[left];
+			array[left] = array[right];
+			array[right] = temp;
+		}
+	}
+
+	/**
+	 * @return The index of the median of the first, middle and last of the elements from 'from' to 'to' - 1.
+	 */
+	public static int medianOfThree(int[] array, int from, int to)
+	{
+		int first = from;
+		int middle = (from + to) >>> 1;
+		int last = to - 1;
+
+		if ((array[first] >= array[middle] && array[first] <= array[last])
+			|| (array[first] <= array[middle] && array[first] >= array[last]))
+		{
+			return (first);
+		}
+		else if (
+			(array[middle] >= array[first] && array[middle] <= array[last])
+				|| (array[middle] <= array[first] && array[middle] >= array[last]))
+		{
+			return (middle);
+		}
+		else
+		{
+			return (last);
+		}
+	}
+
+	/**
+	 * Insertion sorts the elements of 'array' from 'from' to 'to' - 1 in place.
+	 */
+	public static void insertionSort(int[] array, int from, int to)
+	{
+		for (int sortedSize = from + 1; sortedSize < to; sortedSize++)
+		{
+			int current = array[sortedSize];
+			int index = sortedSize;
+
+			while (index > from && array[index - 1] > current)
+			{
+				array[index] = array[index - 1];
+				index--;
+			}
+
+			array[index] = current;
+		}
+	}
+
 	private static int[] insertionSort(int array[])
 	{
 		for (int sortedSize = 1; sortedSize < array.length; sortedSize++)
@@ -0,0 +1,122 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/////////////////////////////////////////////////
+/////////////// Sorting Benchmark ///////////////
+/////////////////////////////////////////////////
+/**
+ * Compares the parallel quick sort and sample sort of 'ParallelSorting' with Arrays.parallelSort and the sequential
+ * Arrays.sort on arrays of random ints. Each sort is repeated on freshly generated data and the best and median
+ * times are reported; every result is checked to be sorted.
+ *
+ * Usage: java SortingBenchmark [sizes] [repeats] [cutoff] (e.g. java -Xmx6g SortingBenchmark 1000000,500000000 3 50)
+ *
+ * @author simple
+ */
+public class SortingBenchmark
+{
+	public static final int PARALLEL_QUICK_SORT = 0;
+
+	public static final int SAMPLE_SORT = 1;
+
+	public static final int ARRAYS_PARALLEL_SORT = 2;
+
+	public static final int ARRAYS_SORT = 3;
+
+	private static final String[] SORT_NAMES = {"parallel quick sort", "sample sort", "Arrays.parallelSort",
+		"Arrays.sort"};
+
+	public static void main(String[] args)
+	{
+		int sizes[] = {1000000, 10000000, 100000000};
+		if (args.length > 0)
+		{
+			String[] values = args[0].split(",");
+			sizes = new int[values.length];
+			for (int index = 0; index < values.length; index++)
+			{
+				sizes[index] = Integer.parseInt(values[index]);
+			}
+		}
+		int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int cutoff = args.length > 2 ? Integer.parseInt(args[2]) : Sorting.THRESHOLD;
+
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		System.out.println("Threads: " + pool.getParallelism() + ", insertion sort cutoff: " + cutoff);
+		System.out.println(String.format("%-20s %11s %10s %10s %12s", "sort", "size", "best ms", "median ms",
+			"Mints/s"));
+
+		for (int sizeIndex = 0; sizeIndex < sizes.length; sizeIndex++)
+		{
+			int array[] = new int[sizes[sizeIndex]];
+
+			for (int sort = PARALLEL_QUICK_SORT; sort <= ARRAYS_SORT; sort++)
+			{
+				// One untimed run to warm up.
+				long times[] = new long[repeats];
+				for (int repeat = -1; repeat < repeats; repeat++)
+				{
+					fill(array, repeat + 1);
+
+					long startTime = System.nanoTime();
+					sort(sort, array, cutoff, pool);
+					long time = System.nanoTime() - startTime;
+
+					checkSorted(array, SORT_NAMES[sort]);
+					if (repeat >= 0)
+					{
+						times[repeat] = time;
+					}
+				}
+
+				Arrays.sort(times);
+				System.out.println(String.format("%-20s %11d %10.1f %10.1f %12.1f", SORT_NAMES[sort], array.length,
+					times[0] / 1e6, times[repeats / 2] / 1e6, array.length / (times[0] / 1e3)));
+			}
+		}
+	}
+
+	private static void sort(int sort, int[] array, int cutoff, ForkJoinPool pool)
+	{
+		switch (sort)
+		{
+			case PARALLEL_QUICK_SORT:
+				ParallelSorting.quickSort(array, cutoff, pool);
+				break;
+			case SAMPLE_SORT:
+				ParallelSorting.sampleSort(array, cutoff, pool);
+				break;
+			case ARRAYS_PARALLEL_SORT:
+				Arrays.parallelSort(array);
+				break;
+			default:
+				Arrays.sort(array);
+				break;
+		}
+	}
+
+	/**
+	 * Fills 'array' with random ints, the same ints for the same 'seed'.
+	 */
+	private static void fill(int[] array, long seed)
+	{
+		SplittableRandom rand = new SplittableRandom(seed);
+
+		for (int index = 0; index < array.length; index++)
+		{
+			array[index] = rand.nextInt();
+		}
+	}
+
+	private static void checkSorted(int[] array, String name)
+	{
+		for (int index = 1; index < array.length; index++)
+		{
+			if (array[index - 1] > array[index])
+			{
+				throw new IllegalStateException(name + " left the array unsorted at index " + index);
+			}
+		}
+	}
+}
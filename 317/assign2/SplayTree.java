@@ -25,8 +25,9 @@ public class SplayTree
 	}
 
 	/**
-	 * Recursively finds the node with the value equal to the value being searched for or an external node if one is
-	 * reached before a match can be found.
+	 * Finds the node with the value equal to the value being searched for or an external node if one is reached before
+	 * a match can be found. The search walks down from 'root' iteratively, so a degenerate tree cannot overflow the
+	 * stack.
 	 * 
 	 * @param root The root of the tree to search in.
 	 * @param n The value to search for.
@@ -35,38 +36,27 @@ public class SplayTree
 	 */
 	public SplayNode find(SplayNode root, int n)
 	{
-		// If the value being searched for is the same as the root value return the root.
-		if (n == root.getValue())
-		{
-			return (root);
-		}
+		SplayNode node = root;
 
-		if (n <= root.getValue())
+		// Stop when the value being searched for is the same as the node value.
+		while (n != node.getValue())
 		{
-			if (root.getLeft() != null)
-			{
-				return (find(root.getLeft(), n));
-			}
-			else
-			{
-				return (root);
-			}
-		}
-		else
-		{
-			if (root.getRight() != null)
-			{
-				return (find(root.getRight(), n));
-			}
-			else
+			SplayNode child = (n < node.getValue()) ? node.getLeft() : node.getRight();
+
+			if (child == null)
 			{
-				return (root);
+				break;
 			}
+
+			node = child;
 		}
+
+		return (node);
 	}
 
 	/**
-	 * Inserts a node into the Splay Tree with the value 'n'. The node is splayed after insertion.
+	 * Inserts a node into the Splay Tree with the value 'n' if no node has that value. The node is splayed after
+	 * insertion.
 	 * 
 	 * @param n The value of the node to be inserted.
 	 */
@@ -83,7 +73,14 @@ public class SplayTree
 		{
 			SplayNode insertLocation = find(root, n);
 
-			if (n <= insertLocation.getValue())
+			// The value is already present, attaching the new node would overwrite one of its children.
+			if (n == insertLocation.getValue())
+			{
+				splay(insertLocation);
+				return;
+			}
+
+			if (n < insertLocation.getValue())
 			{
 				insertLocation.setLeft(newNode);
 			}
@@ -97,12 +94,57 @@ public class SplayTree
 	}
 
 	/**
-	 * Removes the node with the value 'n'. 
+	 * Removes the node with the value 'n'. The node is splayed to the root and unlinked, and the largest node of its
+	 * left subtree is splayed to become the new root. If there is no such node the external node reached is splayed
+	 * instead.
 	 * 
 	 * @param n The value of the node to be removed.
 	 */
 	public void remove(int n)
-	{}
+	{
+		if (root == null)
+		{
+			return;
+		}
+
+		SplayNode node = find(root, n);
+		splay(node);
+
+		if (node.getValue() != n)
+		{
+			return;
+		}
+
+		SplayNode leftTree = node.getLeft();
+		SplayNode rightTree = node.getRight();
+
+		if (leftTree == null)
+		{
+			root = rightTree;
+			if (rightTree != null)
+			{
+				rightTree.setParent(null);
+			}
+		}
+		else
+		{
+			// Splay the largest node of the left subtree, which then has no right child, to the root.
+			root = leftTree;
+			leftTree.setParent(null);
+
+			SplayNode largest = leftTree;
+			while (largest.getRight() != null)
+			{
+				largest = largest.getRight();
+			}
+			splay(largest);
+
+			largest.setRight(rightTree);
+		}
+
+		node.setLeft(null);
+		node.setRight(null);
+	}
 
 	/**
 	 * Splays 'node' repetidly until 'node' becomes the root of the Splay Tree.
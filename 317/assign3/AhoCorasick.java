@@ -0,0 +1,532 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/////////////////////////////////////////////////
+////////////////// Aho-Corasick /////////////////
+/////////////////////////////////////////////////
+/**
+ * An Aho-Corasick automaton that finds every occurrence of many patterns in a single pass over a text, in time
+ * proportional to the length of the text plus the number of matches.
+ * 
+ * The trie of the patterns is held in a double array: the state reached from state s on a symbol with code c is
+ * base[s] + c if check[base[s] + c] is s, so a transition is two array reads. The base and check of each state are
+ * interleaved with the first state along its failure links at which a pattern ends, so that taking a transition and
+ * testing for a match touch the same cache line. When there is no transition the
+ * automaton follows failure links to the longest proper suffix of the current state that is in the trie. Chars that
+ * occur in no pattern have code 0 and send the automaton straight back to the root.
+ * 
+ * Texts can be scanned from a CharSequence, a Reader or a ByteBuffer, and files are scanned through memory-mapped
+ * chunks. The state is carried from one chunk to the next, so matches that straddle chunks are found. Bytes are read
+ * as ISO-8859-1 chars, so ASCII patterns match ASCII and UTF-8 text. A null MatchHandler only counts the matches.
+ * 
+ * @author simple
+ */
+public class AhoCorasick
+{
+	/**
+	 * Receives the matches found by a scan.
+	 */
+	public interface MatchHandler
+	{
+		/**
+		 * @param pattern The index of the pattern matched, in the array given to the automaton. Patterns given more
+		 *        than once are reported under their first index.
+		 * @param start The index in the text of the first char of the match.
+		 */
+		void match(int pattern, long start);
+	}
+
+	/**
+	 * @throws IllegalArgumentException If any pattern is empty.
+	 */
+	public AhoCorasick(String[] patterns)
+	{
+		patternLengths = new int[patterns.length];
+		codes = new int[Character.MAX_VALUE + 1];
+		int codeCount = 1;
+		int trieSize = 1;
+
+		for (int index = 0; index < patterns.length; index++)
+		{
+			if (patterns[index].length() == 0)
+			{
+				throw new IllegalArgumentException("Pattern " + index + " is empty");
+			}
+			patternLengths[index] = patterns[index].length();
+			trieSize += patterns[index].length();
+
+			for (int pIndex = 0; pIndex < patterns[index].length(); pIndex++)
+			{
+				char c = patterns[index].charAt(pIndex);
+				if (codes[c] == 0)
+				{
+					codes[c] = codeCount++;
+				}
+			}
+		}
+
+		buildTrie(patterns, trieSize);
+	}
+
+	private static final int ROOT = 0;
+
+	private static final int NIL = -1;
+
+	/**
+	 * The number of chars read from a Reader at a time.
+	 */
+	private static final int READ_CHUNK = 1 << 16;
+
+	/**
+	 * The number of bytes of a file mapped at a time.
+	 */
+	private static final int MAP_CHUNK = 1 << 26;
+
+	private final int patternLengths[];
+
+	/**
+	 * The code of each char, or 0 for chars in no pattern.
+	 */
+	private final int codes[];
+
+	/**
+	 * The base, check and match of each state, at offsets BASE, CHECK and MATCH from UNIT times the state.
+	 */
+	private int units[];
+
+	private static final int UNIT = 3;
+
+	private static final int BASE = 0;
+
+	/**
+	 * The state each state is reached from, or NIL for unused positions.
+	 */
+	private static final int CHECK = 1;
+
+	/**
+	 * The state itself if a pattern ends at it, else its output link.
+	 */
+	private static final int MATCH = 2;
+
+	/**
+	 * The number of positions in the double array.
+	 */
+	private int positionCount;
+
+	/**
+	 * The bases and checks of the states while building.
+	 */
+	private int base[];
+
+	private int check[];
+
+	private int fail[];
+
+	/**
+	 * The pattern that ends at each state, or NIL.
+	 */
+	private int outputs[];
+
+	/**
+	 * The nearest state along the failure links of each state at which a pattern ends, or NIL.
+	 */
+	private int outputLinks[];
+
+	/**
+	 * Reports every match in 'text'.
+	 * 
+	 * @return The number of matches.
+	 */
+	public long scan(CharSequence text, MatchHandler handler)
+	{
+		long matches = 0;
+		int state = ROOT;
+
+		for (int index = 0; index < text.length(); index++)
+		{
+			state = step(state, text.charAt(index));
+			if (units[state * UNIT + MATCH] != NIL)
+			{
+				matches += report(units[state * UNIT + MATCH], index, handler);
+			}
+		}
+
+		return (matches);
+	}
+
+	/**
+	 * Reports every match in the chars read from 'reader', which is read to the end but not closed.
+	 * 
+	 * @return The number of matches.
+	 */
+	public long scan(Reader reader, MatchHandler handler) throws IOException
+	{
+		char buffer[] = new char[READ_CHUNK];
+		long matches = 0;
+		long offset = 0;
+		int state = ROOT;
+		int length;
+
+		while ((length = reader.read(buffer)) != -1)
+		{
+			for (int index = 0; index < length; index++)
+			{
+				state = step(state, buffer[index]);
+				if (units[state * UNIT + MATCH] != NIL)
+				{
+					matches += report(units[state * UNIT + MATCH], offset + index, handler);
+				}
+			}
+			offset += length;
+		}
+
+		return (matches);
+	}
+
+	/**
+	 * Reports every match in the remaining bytes of 'buffer', without changing its position.
+	 * 
+	 * @return The number of matches.
+	 */
+	public long scan(ByteBuffer buffer, MatchHandler handler)
+	{
+		long matches[] = new long[1];
+		scan(buffer, 0, ROOT, handler, matches);
+
+		return (matches[0]);
+	}
+
+	/**
+	 * Reports every match in 'file', which is mapped into memory a chunk at a time.
+	 * 
+	 * @return The number of matches.
+	 */
+	public long scan(File file, MatchHandler handler) throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try
+		{
+			FileChannel channel = raf.getChannel();
+			long size = channel.size();
+			long matches[] = new long[1];
+			int state = ROOT;
+
+			for (long offset = 0; offset < size; offset += MAP_CHUNK)
+			{
+				MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAP_CHUNK, size
+					- offset));
+				state = scan(chunk, offset, state, handler, matches);
+			}
+
+			return (matches[0]);
+		}
+		finally
+		{
+			raf.close();
+		}
+	}
+
+	/**
+	 * Scans the remaining bytes of 'buffer' from 'state', numbering them from 'offset', and adds the number of matches
+	 * to matches[0]. The automaton is not changed, so any number of threads may scan with it at once.
+	 * 
+	 * @return The state the scan ended in, so that a file scan can carry it to the next chunk.
+	 */
+	private int scan(ByteBuffer buffer, long offset, int state, MatchHandler handler, long[] matches)
+	{
+		int start = buffer.position();
+		int end = buffer.limit();
+
+		for (int index = start; index < end; index++)
+		{
+			state = step(state, buffer.get(index) & 0xFF);
+			if (units[state * UNIT + MATCH] != NIL)
+			{
+				matches[0] += report(units[state * UNIT + MATCH], offset + index - start, handler);
+			}
+		}
+
+		return (state);
+	}
+
+	private int step(int state, int c)
+	{
+		int code = codes[c];
+		if (code == 0)
+		{
+			return (ROOT);
+		}
+
+		while (true)
+		{
+			int next = units[state * UNIT + BASE] + code;
+			if (next < positionCount && units[next * UNIT + CHECK] == state)
+			{
+				return (next);
+			}
+			if (state == ROOT)
+			{
+				return (ROOT);
+			}
+			state = fail[state];
+		}
+	}
+
+	/**
+	 * Reports the pattern that ends at 'state', which ends at the char at 'end', and those along its output links.
+	 * 
+	 * @return The number of patterns reported.
+	 */
+	private int report(int state, long end, MatchHandler handler)
+	{
+		int count = 0;
+
+		while (state != NIL)
+		{
+			int pattern = outputs[state];
+			if (handler != null)
+			{
+				handler.match(pattern, end - patternLengths[pattern] + 1);
+			}
+			count++;
+			state = outputLinks[state];
+		}
+
+		return (count);
+	}
+
+	/**
+	 * Builds a trie of the patterns with linked lists of children, then lays it out in the double array breadth
+	 * first. Each node's children are given the first base at which all their positions are free, and the failure
+	 * links are set as the children are placed, since the failure link of a node always leads to a shallower one.
+	 */
+	private void buildTrie(String[] patterns, int trieSize)
+	{
+		int firstChildren[] = new int[trieSize];
+		int siblings[] = new int[trieSize];
+		int trieCodes[] = new int[trieSize];
+		int trieOutputs[] = new int[trieSize];
+		Arrays.fill(firstChildren, NIL);
+		Arrays.fill(trieOutputs, NIL);
+		int nodeCount = 1;
+
+		for (int index = 0; index < patterns.length; index++)
+		{
+			int node = ROOT;
+			for (int pIndex = 0; pIndex < patterns[index].length(); pIndex++)
+			{
+				int code = codes[patterns[index].charAt(pIndex)];
+				int child = firstChildren[node];
+				while (child != NIL && trieCodes[child] != code)
+				{
+					child = siblings[child];
+				}
+
+				if (child == NIL)
+				{
+					child = nodeCount++;
+					trieCodes[child] = code;
+					siblings[child] = firstChildren[node];
+					firstChildren[node] = child;
+				}
+				node = child;
+			}
+
+			if (trieOutputs[node] == NIL)
+			{
+				trieOutputs[node] = index;
+			}
+		}
+
+		int capacity = Math.max(nodeCount * 2, 16);
+		base = new int[capacity];
+		check = new int[capacity];
+		fail = new int[capacity];
+		outputs = new int[capacity];
+		outputLinks = new int[capacity];
+		Arrays.fill(check, NIL);
+
+		int positions[] = new int[nodeCount];
+		int queue[] = new int[nodeCount];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = ROOT;
+		positions[ROOT] = ROOT;
+		outputs[ROOT] = NIL;
+		outputLinks[ROOT] = NIL;
+
+		freePositions = new int[capacity];
+		for (int index = 0; index < capacity; index++)
+		{
+			freePositions[index] = index;
+		}
+
+		// The root's position is taken although nothing leads to it.
+		occupy(ROOT, ROOT);
+		int childCodes[] = new int[16];
+
+		while (head < tail)
+		{
+			int node = queue[head++];
+			int position = positions[node];
+
+			int childCount = 0;
+			for (int child = firstChildren[node]; child != NIL; child = siblings[child])
+			{
+				if (childCount == childCodes.length)
+				{
+					childCodes = Arrays.copyOf(childCodes, childCount * 2);
+				}
+				childCodes[childCount++] = trieCodes[child];
+			}
+			if (childCount == 0)
+			{
+				continue;
+			}
+			Arrays.sort(childCodes, 0, childCount);
+
+			// Try the free positions for the first child in turn, keeping every base positive.
+			int firstPosition = findFree(childCodes[0] + 1);
+			while (!fits(firstPosition - childCodes[0], childCodes, childCount))
+			{
+				firstPosition = findFree(firstPosition + 1);
+			}
+			int nodeBase = firstPosition - childCodes[0];
+			base[position] = nodeBase;
+
+			for (int child = firstChildren[node]; child != NIL; child = siblings[child])
+			{
+				int childPosition = nodeBase + trieCodes[child];
+				occupy(childPosition, position);
+				positions[child] = childPosition;
+				queue[tail++] = child;
+
+				int failure = ROOT;
+				if (position != ROOT)
+				{
+					failure = fail[position];
+					while (true)
+					{
+						int next = base[failure] + trieCodes[child];
+						if (next < check.length && check[next] == failure)
+						{
+							failure = next;
+							break;
+						}
+						if (failure == ROOT)
+						{
+							break;
+						}
+						failure = fail[failure];
+					}
+				}
+
+				fail[childPosition] = failure;
+				outputs[childPosition] = trieOutputs[child];
+				outputLinks[childPosition] = outputs[failure] != NIL ? failure : outputLinks[failure];
+			}
+		}
+
+		// A state's match is itself if a pattern ends at it, else its output link.
+		positionCount = check.length;
+		units = new int[positionCount * UNIT];
+		for (int position = 0; position < positionCount; position++)
+		{
+			units[position * UNIT + BASE] = base[position];
+			units[position * UNIT + CHECK] = check[position];
+			units[position * UNIT + MATCH] = NIL;
+			if (check[position] != NIL)
+			{
+				units[position * UNIT + MATCH] = outputs[position] != NIL ? position : outputLinks[position];
+			}
+		}
+
+		base = null;
+		check = null;
+		freePositions = null;
+	}
+
+	/**
+	 * While building, the next position that may be free at or after each position. Following the chain leads to a
+	 * free position, and the chains are shortened as they are followed, so that a search for a free position skips
+	 * the taken ones.
+	 */
+	private int freePositions[];
+
+	/**
+	 * @return The first free position at or after 'position'.
+	 */
+	private int findFree(int position)
+	{
+		int free = position;
+		while (true)
+		{
+			ensureCapacity(free + 1);
+			int next = freePositions[free];
+			if (next == free)
+			{
+				return (free);
+			}
+
+			// Point the position passed one step further on.
+			ensureCapacity(next + 1);
+			freePositions[free] = freePositions[next];
+			free = next;
+		}
+	}
+
+	private void occupy(int position, int parent)
+	{
+		check[position] = parent;
+		freePositions[position] = position + 1;
+	}
+
+	/**
+	 * @return Whether the positions of children with the given codes are all free for the base 'nodeBase'.
+	 */
+	private boolean fits(int nodeBase, int[] childCodes, int childCount)
+	{
+		ensureCapacity(nodeBase + childCodes[childCount - 1] + 1);
+
+		for (int index = 0; index < childCount; index++)
+		{
+			if (check[nodeBase + childCodes[index]] != NIL)
+			{
+				return (false);
+			}
+		}
+
+		return (true);
+	}
+
+	/**
+	 * Grows the arrays, while building, to at least 'length' positions.
+	 */
+	private void ensureCapacity(int length)
+	{
+		if (length <= check.length)
+		{
+			return;
+		}
+
+		int oldLength = check.length;
+		int newLength = Math.max(oldLength * 2, length);
+		base = Arrays.copyOf(base, newLength);
+		check = Arrays.copyOf(check, newLength);
+		fail = Arrays.copyOf(fail, newLength);
+		outputs = Arrays.copyOf(outputs, newLength);
+		outputLinks = Arrays.copyOf(outputLinks, newLength);
+		freePositions = Arrays.copyOf(freePositions, newLength);
+		Arrays.fill(check, oldLength, newLength, NIL);
+		for (int index = oldLength; index < newLength; index++)
+		{
+			freePositions[index] = index;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+/////////////////////////////////////////////////
+//////////// Aho-Corasick Benchmark /////////////
+/////////////////////////////////////////////////
+/**
+ * Measures the throughput in MB/s of scanning a file for many patterns at once with 'AhoCorasick', against finding
+ * each pattern in turn with 'PatternMatching.knuthMorrisPratt' and 'PatternMatching.boyerMoore'.
+ * 
+ * Half the patterns are substrings of the text and half are substrings with one char changed, which mostly do not
+ * occur. The single pattern methods are timed on a sample of the patterns and their time scaled up to the whole set.
+ * They stop at the first occurrence while the automaton finds them all, so their figures flatter them.
+ * 
+ * Usage: java AhoCorasickBenchmark [file] [patterns] [sampled patterns]
+ * 
+ * @author simple
+ */
+public class AhoCorasickBenchmark
+{
+	private static final int REPEATS = 5;
+
+	private static final int MIN_PATTERN_LENGTH = 8;
+
+	private static final int MAX_PATTERN_LENGTH = 24;
+
+	public static void main(String[] args) throws IOException
+	{
+		File file = new File(args.length > 0 ? args[0] : "11633.txt");
+		int patternCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int sampleCount = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+		String t = readFile(file);
+		double megabytes = t.length() / 1e6;
+		System.out.println(file + ": " + t.length() + " chars, " + patternCount + " patterns");
+
+		Random rand = new Random(1);
+		String patterns[] = new String[patternCount];
+		for (int index = 0; index < patternCount; index++)
+		{
+			int length = MIN_PATTERN_LENGTH + rand.nextInt(MAX_PATTERN_LENGTH - MIN_PATTERN_LENGTH + 1);
+			int start = rand.nextInt(t.length() - length + 1);
+			char pattern[] = t.substring(start, start + length).toCharArray();
+			if (index % 2 == 1)
+			{
+				pattern[rand.nextInt(length)] = (char) ('0' + rand.nextInt(10));
+			}
+			patterns[index] = new String(pattern);
+		}
+
+		long startTime = System.nanoTime();
+		AhoCorasick automaton = new AhoCorasick(patterns);
+		System.out.println(String.format("  %-28s %10.1f ms", "Aho-Corasick build", (System.nanoTime() - startTime)
+			/ 1e6));
+
+		long best = Long.MAX_VALUE;
+		long matches = 0;
+		for (int repeat = -1; repeat < REPEATS; repeat++)
+		{
+			startTime = System.nanoTime();
+			matches = automaton.scan(t, null);
+			best = Math.min(best, System.nanoTime() - startTime);
+		}
+		report("Aho-Corasick (String)", megabytes, best, matches);
+
+		best = Long.MAX_VALUE;
+		for (int repeat = -1; repeat < REPEATS; repeat++)
+		{
+			startTime = System.nanoTime();
+			matches = automaton.scan(file, null);
+			best = Math.min(best, System.nanoTime() - startTime);
+		}
+		report("Aho-Corasick (mapped file)", megabytes, best, matches);
+
+		sampleCount = Math.min(sampleCount, patternCount);
+		for (int method = 0; method < 2; method++)
+		{
+			best = Long.MAX_VALUE;
+			matches = 0;
+			for (int repeat = -1; repeat < REPEATS; repeat++)
+			{
+				startTime = System.nanoTime();
+				matches = 0;
+				for (int index = 0; index < sampleCount; index++)
+				{
+					int result = method == 0 ? PatternMatching.knuthMorrisPratt(t, patterns[index]) : PatternMatching
+						.boyerMoore(t, patterns[index]);
+					if (result != -1)
+					{
+						matches++;
+					}
+				}
+				best = Math.min(best, System.nanoTime() - startTime);
+			}
+
+			// Scale the time for the sample up to the whole set of patterns.
+			report((method == 0 ? "repeated KMP" : "repeated Boyer Moore") + " (first only)", megabytes, best
+				* patternCount / sampleCount, matches * patternCount / sampleCount);
+		}
+	}
+
+	private static void report(String name, double megabytes, long nanoseconds, long matches)
+	{
+		System.out.println(String.format("  %-28s %10.1f ms %10.2f MB/s %12d matches", name, nanoseconds / 1e6,
+			megabytes / (nanoseconds / 1e9), matches));
+	}
+
+	/**
+	 * @return The contents of 'file' as ISO-8859-1 chars, the same chars 'AhoCorasick' scans a file as.
+	 */
+	private static String readFile(File file) throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try
+		{
+			byte bytes[] = new byte[(int) raf.length()];
+			raf.readFully(bytes);
+
+			return (new String(bytes, "ISO-8859-1"));
+		}
+		finally
+		{
+			raf.close();
+		}
+	}
+}
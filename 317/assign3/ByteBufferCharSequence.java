@@ -0,0 +1,67 @@
+import java.nio.ByteBuffer;
+
+/////////////////////////////////////////////////
+//////////// Byte Buffer Char Sequence //////////
+/////////////////////////////////////////////////
+/**
+ * The bytes of a ByteBuffer, from its position to its limit when wrapped, read as ISO-8859-1 chars without copying
+ * them. Wrapping a mapped buffer lets the String searches of 'PatternMatching' run over a file in place.
+ * 
+ * @author simple
+ */
+public class ByteBufferCharSequence implements CharSequence
+{
+	public ByteBufferCharSequence(ByteBuffer buffer)
+	{
+		this(buffer, buffer.position(), buffer.remaining());
+	}
+
+	private ByteBufferCharSequence(ByteBuffer buffer, int offset, int length)
+	{
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	private final ByteBuffer buffer;
+
+	private final int offset;
+
+	private final int length;
+
+	public int length()
+	{
+		return (length);
+	}
+
+	public char charAt(int index)
+	{
+		if (index < 0 || index >= length)
+		{
+			throw new IndexOutOfBoundsException("Index " + index + " is outside 0 to " + length);
+		}
+
+		return ((char) (buffer.get(offset + index) & 0xFF));
+	}
+
+	public CharSequence subSequence(int start, int end)
+	{
+		if (start < 0 || end > length || start > end)
+		{
+			throw new IndexOutOfBoundsException("Range " + start + " to " + end + " is outside 0 to " + length);
+		}
+
+		return (new ByteBufferCharSequence(buffer, offset + start, end - start));
+	}
+
+	public String toString()
+	{
+		char chars[] = new char[length];
+		for (int index = 0; index < length; index++)
+		{
+			chars[index] = (char) (buffer.get(offset + index) & 0xFF);
+		}
+
+		return (new String(chars));
+	}
+}
@@ -0,0 +1,100 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/////////////////////////////////////////////////
+/////////////// Huffman Benchmark ///////////////
+/////////////////////////////////////////////////
+/**
+ * Measures the throughput of compressing a file, repeated to the size asked for, through 'HuffmanOutputStream' and
+ * decompressing it through 'HuffmanInputStream', both in memory. The best of several runs is reported in MB/s of
+ * uncompressed data, and the round trip is checked.
+ * 
+ * Usage: java HuffmanBenchmark [file] [megabytes] [repeats]
+ * 
+ * @author simple
+ */
+public class HuffmanBenchmark
+{
+	private static final int COPY_BUFFER = 1 << 16;
+
+	public static void main(String[] args) throws IOException
+	{
+		File file = new File(args.length > 0 ? args[0] : "11633.txt");
+		int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+		int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+		byte contents[] = readFile(file);
+		byte data[] = new byte[megabytes << 20];
+		for (int index = 0; index < data.length; index += contents.length)
+		{
+			System.arraycopy(contents, 0, data, index, Math.min(contents.length, data.length - index));
+		}
+
+		byte compressed[] = null;
+		long best = Long.MAX_VALUE;
+		for (int repeat = -1; repeat < repeats; repeat++)
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length);
+			long startTime = System.nanoTime();
+			HuffmanOutputStream out = new HuffmanOutputStream(bytes);
+			for (int index = 0; index < data.length; index += COPY_BUFFER)
+			{
+				out.write(data, index, Math.min(COPY_BUFFER, data.length - index));
+			}
+			out.close();
+			best = Math.min(best, System.nanoTime() - startTime);
+			compressed = bytes.toByteArray();
+		}
+		System.out.println(String.format("%s x %d MB: compressed to %.1f%%", file, megabytes, 100.0
+			* compressed.length / data.length));
+		report("encode", data.length, best);
+
+		byte decompressed[] = new byte[data.length];
+		best = Long.MAX_VALUE;
+		for (int repeat = -1; repeat < repeats; repeat++)
+		{
+			long startTime = System.nanoTime();
+			HuffmanInputStream in = new HuffmanInputStream(new ByteArrayInputStream(compressed));
+			int position = 0;
+			int count;
+			while ((count = in.read(decompressed, position, Math.min(COPY_BUFFER, decompressed.length - position))) > 0)
+			{
+				position += count;
+			}
+			in.close();
+			best = Math.min(best, System.nanoTime() - startTime);
+
+			if (position != data.length || !Arrays.equals(data, decompressed))
+			{
+				throw new IllegalStateException("The data did not survive the round trip");
+			}
+		}
+		report("decode", data.length, best);
+	}
+
+	private static void report(String name, long bytes, long nanoseconds)
+	{
+		System.out.println(String.format("  %-8s %10.1f ms %10.1f MB/s", name, nanoseconds / 1e6, bytes / 1e6
+			/ (nanoseconds / 1e9)));
+	}
+
+	private static byte[] readFile(File file) throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try
+		{
+			byte bytes[] = new byte[(int) raf.length()];
+			raf.readFully(bytes);
+
+			return (bytes);
+		}
+		finally
+		{
+			raf.close();
+		}
+	}
+}
@@ -0,0 +1,354 @@
+import java.util.PriorityQueue;
+
+/////////////////////////////////////////////////
+////////////////// Huffman Code /////////////////
+/////////////////////////////////////////////////
+/**
+ * A canonical Huffman code for bytes. Only the length of each symbol's code is needed to rebuild the code: codes are
+ * assigned in order of length and then of symbol, each one more than the last and shifted left whenever the length
+ * grows, so that the codes of each length are consecutive numbers.
+ * 
+ * Codes are at most MAX_LENGTH bits so that a decoder can always see a whole code in its bit buffer. Decoding looks up
+ * the next TABLE_BITS bits in a table that gives the symbol and length of every code that short; the few longer
+ * codes are found by comparing the next bits with the first code of each longer length.
+ * 
+ * Bits are packed most significant first.
+ * 
+ * @author simple
+ */
+public class HuffmanCode
+{
+	/**
+	 * Creates the canonical code with the given code length for each of the SYMBOLS symbols, 0 for symbols that do
+	 * not occur.
+	 * 
+	 * @throws IllegalArgumentException If a length is out of range or the lengths do not form a prefix code.
+	 */
+	public HuffmanCode(int[] lengths)
+	{
+		if (lengths.length != SYMBOLS)
+		{
+			throw new IllegalArgumentException("There must be a length for each of " + SYMBOLS + " symbols");
+		}
+
+		this.lengths = lengths.clone();
+		codes = new int[SYMBOLS];
+		firstCodes = new int[MAX_LENGTH + 2];
+		firstIndices = new int[MAX_LENGTH + 2];
+		lengthCounts = new int[MAX_LENGTH + 1];
+		sortedSymbols = new int[SYMBOLS];
+		table = new short[1 << TABLE_BITS];
+
+		for (int symbol = 0; symbol < SYMBOLS; symbol++)
+		{
+			if (lengths[symbol] < 0 || lengths[symbol] > MAX_LENGTH)
+			{
+				throw new IllegalArgumentException("Symbol " + symbol + " has a code length of " + lengths[symbol]);
+			}
+			lengthCounts[lengths[symbol]]++;
+		}
+		lengthCounts[0] = 0;
+
+		// Check the Kraft inequality, so that no code is a prefix of another.
+		long space = 1L << MAX_LENGTH;
+		for (int length = 1; length <= MAX_LENGTH; length++)
+		{
+			space -= (long) lengthCounts[length] << (MAX_LENGTH - length);
+		}
+		if (space < 0)
+		{
+			throw new IllegalArgumentException("The code lengths are too short to form a prefix code");
+		}
+
+		int code = 0;
+		int index = 0;
+		for (int length = 1; length <= MAX_LENGTH; length++)
+		{
+			code = (code + lengthCounts[length - 1]) << 1;
+			firstCodes[length] = code;
+			firstIndices[length] = index;
+			index += lengthCounts[length];
+		}
+		firstCodes[MAX_LENGTH + 1] = Integer.MAX_VALUE;
+
+		int nextIndices[] = firstIndices.clone();
+		for (int symbol = 0; symbol < SYMBOLS; symbol++)
+		{
+			int length = lengths[symbol];
+			if (length > 0)
+			{
+				int rank = nextIndices[length]++;
+				sortedSymbols[rank] = symbol;
+				codes[symbol] = firstCodes[length] + rank - firstIndices[length];
+
+				if (length <= TABLE_BITS)
+				{
+					int start = codes[symbol] << (TABLE_BITS - length);
+					short entry = (short) (symbol << 4 | length);
+					for (int slot = start; slot < start + (1 << (TABLE_BITS - length)); slot++)
+					{
+						table[slot] = entry;
+					}
+				}
+			}
+		}
+	}
+
+	public static final int SYMBOLS = 256;
+
+	public static final int MAX_LENGTH = 15;
+
+	/**
+	 * The number of bits decoded with one table lookup.
+	 */
+	public static final int TABLE_BITS = 11;
+
+	/**
+	 * The number of bytes 'writeLengths' writes, two 4 bit lengths to a byte.
+	 */
+	public static final int LENGTHS_BYTES = SYMBOLS / 2;
+
+	private final int lengths[];
+
+	private final int codes[];
+
+	/**
+	 * The code of the first symbol of each length.
+	 */
+	private final int firstCodes[];
+
+	/**
+	 * The index in 'sortedSymbols' of the first symbol of each length.
+	 */
+	private final int firstIndices[];
+
+	private final int lengthCounts[];
+
+	/**
+	 * The symbols with codes in the order of their codes.
+	 */
+	private final int sortedSymbols[];
+
+	/**
+	 * The symbol shifted left 4 bits plus the length of the code that starts with each TABLE_BITS bits, or 0 if that
+	 * code is longer.
+	 */
+	private final short table[];
+
+	/**
+	 * Builds a Huffman code from the frequency of each symbol with a heap, repeatedly joining the two least frequent
+	 * trees. If the code would be longer than MAX_LENGTH the frequencies are halved, which flattens the tree, and it is
+	 * built again. A single symbol is given a 1 bit code.
+	 */
+	public static HuffmanCode build(long[] frequencies)
+	{
+		long weights[] = frequencies.clone();
+		int lengths[] = new int[SYMBOLS];
+
+		while (true)
+		{
+			// The weight of a tree is in the high bits and its node in the low 9 bits, so the smallest comes first.
+			PriorityQueue<Long> heap = new PriorityQueue<Long>();
+			int parents[] = new int[2 * SYMBOLS];
+			int nodeCount = SYMBOLS;
+
+			for (int symbol = 0; symbol < SYMBOLS; symbol++)
+			{
+				if (weights[symbol] > 0)
+				{
+					heap.add(Long.valueOf(weights[symbol] << 9 | symbol));
+				}
+			}
+
+			if (heap.size() == 1)
+			{
+				lengths[(int) (heap.peek().longValue() & 0x1FF)] = 1;
+				return (new HuffmanCode(lengths));
+			}
+
+			while (heap.size() > 1)
+			{
+				long a = heap.remove().longValue();
+				long b = heap.remove().longValue();
+				int node = nodeCount++;
+				parents[(int) (a & 0x1FF)] = node;
+				parents[(int) (b & 0x1FF)] = node;
+				heap.add(Long.valueOf(((a >>> 9) + (b >>> 9)) << 9 | node));
+			}
+
+			int root = nodeCount - 1;
+			int maxLength = 0;
+			for (int symbol = 0; symbol < SYMBOLS; symbol++)
+			{
+				lengths[symbol] = 0;
+				if (weights[symbol] > 0)
+				{
+					for (int node = symbol; node != root; node = parents[node])
+					{
+						lengths[symbol]++;
+					}
+					maxLength = Math.max(maxLength, lengths[symbol]);
+				}
+			}
+
+			if (maxLength <= MAX_LENGTH)
+			{
+				return (new HuffmanCode(lengths));
+			}
+
+			for (int symbol = 0; symbol < SYMBOLS; symbol++)
+			{
+				if (weights[symbol] > 0)
+				{
+					weights[symbol] = (weights[symbol] + 1) >>> 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a code written by 'writeLengths'.
+	 */
+	public static HuffmanCode readLengths(byte[] in, int offset)
+	{
+		int lengths[] = new int[SYMBOLS];
+
+		for (int index = 0; index < LENGTHS_BYTES; index++)
+		{
+			lengths[2 * index] = (in[offset + index] >>> 4) & 0xF;
+			lengths[2 * index + 1] = in[offset + index] & 0xF;
+		}
+
+		return (new HuffmanCode(lengths));
+	}
+
+	/**
+	 * Writes the code length of every symbol in LENGTHS_BYTES bytes.
+	 */
+	public void writeLengths(byte[] out, int offset)
+	{
+		for (int index = 0; index < LENGTHS_BYTES; index++)
+		{
+			out[offset + index] = (byte) (lengths[2 * index] << 4 | lengths[2 * index + 1]);
+		}
+	}
+
+	public int getLength(int symbol)
+	{
+		return (lengths[symbol]);
+	}
+
+	public int getCode(int symbol)
+	{
+		return (codes[symbol]);
+	}
+
+	/**
+	 * @return The number of bytes needed to encode 'count' symbols in the worst case, plus room for a decoder to read
+	 *         ahead.
+	 */
+	public static int maxEncodedBytes(int count)
+	{
+		return ((int) (((long) count * MAX_LENGTH + 7) / 8) + 8);
+	}
+
+	/**
+	 * Encodes the bytes of 'in' from 'from' to 'to' into 'out' from 'offset', padding the last byte with zeros.
+	 * 
+	 * @param out Room for at least maxEncodedBytes(to - from) bytes from 'offset'.
+	 * @return The number of bytes written.
+	 * @throws IllegalArgumentException If a byte has no code.
+	 */
+	public int encode(byte[] in, int from, int to, byte[] out, int offset)
+	{
+		long buffer = 0;
+		int bits = 0;
+		int position = offset;
+
+		for (int index = from; index < to; index++)
+		{
+			int symbol = in[index] & 0xFF;
+			int length = lengths[symbol];
+			if (length == 0)
+			{
+				throw new IllegalArgumentException("Byte " + symbol + " has no code");
+			}
+
+			buffer = buffer << length | codes[symbol];
+			bits += length;
+
+			if (bits >= 32)
+			{
+				bits -= 32;
+				int word = (int) (buffer >>> bits);
+				out[position] = (byte) (word >>> 24);
+				out[position + 1] = (byte) (word >>> 16);
+				out[position + 2] = (byte) (word >>> 8);
+				out[position + 3] = (byte) word;
+				position += 4;
+			}
+		}
+
+		while (bits > 0)
+		{
+			bits -= 8;
+			out[position++] = (byte) (bits >= 0 ? buffer >>> bits : buffer << -bits);
+		}
+
+		return (position - offset);
+	}
+
+	/**
+	 * Decodes 'count' symbols from 'in' into 'out'.
+	 * 
+	 * @param in Encoded bytes followed by at least 8 more bytes, whose values do not matter.
+	 * @throws IllegalArgumentException If the bits are not codes of this code.
+	 */
+	public void decode(byte[] in, byte[] out, int count)
+	{
+		// The next bits are at the top of 'buffer'.
+		long buffer = 0;
+		int bits = 0;
+		int position = 0;
+
+		for (int index = 0; index < count; index++)
+		{
+			if (bits < MAX_LENGTH)
+			{
+				while (bits <= 56)
+				{
+					buffer |= (long) (in[position++] & 0xFF) << (56 - bits);
+					bits += 8;
+				}
+			}
+
+			int entry = table[(int) (buffer >>> (64 - TABLE_BITS))];
+			int length = entry & 0xF;
+			int symbol;
+
+			if (length != 0)
+			{
+				symbol = entry >>> 4;
+			}
+			else
+			{
+				length = TABLE_BITS + 1;
+				int code = (int) (buffer >>> (64 - length));
+				while (code >= firstCodes[length] + lengthCounts[length])
+				{
+					length++;
+					if (length > MAX_LENGTH)
+					{
+						throw new IllegalArgumentException("Invalid code at symbol " + index);
+					}
+					code = (int) (buffer >>> (64 - length));
+				}
+				symbol = sortedSymbols[firstIndices[length] + code - firstCodes[length]];
+			}
+
+			out[index] = (byte) symbol;
+			buffer <<= length;
+			bits -= length;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/////////////////////////////////////////////////
+/////////////// Huffman Input Stream ////////////
+/////////////////////////////////////////////////
+/**
+ * Decompresses a stream written by 'HuffmanOutputStream', decoding a block at a time.
+ * 
+ * @author simple
+ */
+public class HuffmanInputStream extends FilterInputStream
+{
+	public HuffmanInputStream(InputStream in)
+	{
+		super(in);
+	}
+
+	private byte header[] = new byte[HuffmanOutputStream.HEADER_BYTES];
+
+	private byte encoded[] = new byte[0];
+
+	private byte block[] = new byte[0];
+
+	private int blockLength = 0;
+
+	private int position = 0;
+
+	private boolean started = false;
+
+	private boolean ended = false;
+
+	public int read() throws IOException
+	{
+		if (position == blockLength && !readBlock())
+		{
+			return (-1);
+		}
+
+		return (block[position++] & 0xFF);
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException
+	{
+		if (off < 0 || len < 0 || off + len > b.length)
+		{
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0)
+		{
+			return (0);
+		}
+
+		if (position == blockLength && !readBlock())
+		{
+			return (-1);
+		}
+
+		int count = Math.min(len, blockLength - position);
+		System.arraycopy(block, position, b, off, count);
+		position += count;
+
+		return (count);
+	}
+
+	public long skip(long n) throws IOException
+	{
+		long skipped = 0;
+
+		while (skipped < n && (position < blockLength || readBlock()))
+		{
+			int count = (int) Math.min(n - skipped, blockLength - position);
+			position += count;
+			skipped += count;
+		}
+
+		return (skipped);
+	}
+
+	public int available()
+	{
+		return (blockLength - position);
+	}
+
+	public boolean markSupported()
+	{
+		return (false);
+	}
+
+	public void mark(int readlimit)
+	{
+	}
+
+	public void reset() throws IOException
+	{
+		throw new IOException("mark/reset is not supported");
+	}
+
+	/**
+	 * Reads and decodes the next block.
+	 * 
+	 * @return False at the end of the stream.
+	 */
+	private boolean readBlock() throws IOException
+	{
+		if (ended)
+		{
+			return (false);
+		}
+
+		if (!started)
+		{
+			readFully(header, 0, 4);
+			if (getInt(header, 0) != HuffmanOutputStream.MAGIC)
+			{
+				throw new IOException("Not a Huffman stream");
+			}
+			started = true;
+		}
+
+		readFully(header, 0, 4);
+		int length = getInt(header, 0);
+		if (length == 0)
+		{
+			ended = true;
+			return (false);
+		}
+
+		readFully(header, 4, header.length - 4);
+		int encodedLength = getInt(header, 4);
+		if (length < 0 || encodedLength < 0 || encodedLength > HuffmanCode.maxEncodedBytes(length))
+		{
+			throw new IOException("Corrupt block header");
+		}
+
+		HuffmanCode code;
+		try
+		{
+			code = HuffmanCode.readLengths(header, 8);
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new IOException("Corrupt code lengths", e);
+		}
+
+		// The decoder reads up to 8 bytes past the encoded bytes.
+		if (encoded.length < encodedLength + 8)
+		{
+			encoded = new byte[encodedLength + 8];
+		}
+		readFully(encoded, 0, encodedLength);
+		if (block.length < length)
+		{
+			block = new byte[length];
+		}
+
+		try
+		{
+			code.decode(encoded, block, length);
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new IOException("Corrupt block", e);
+		}
+		catch (ArrayIndexOutOfBoundsException e)
+		{
+			throw new IOException("Corrupt block", e);
+		}
+
+		blockLength = length;
+		position = 0;
+
+		return (true);
+	}
+
+	private void readFully(byte[] b, int off, int len) throws IOException
+	{
+		while (len > 0)
+		{
+			int count = in.read(b, off, len);
+			if (count == -1)
+			{
+				throw new EOFException("The Huffman stream is truncated");
+			}
+			off += count;
+			len -= count;
+		}
+	}
+
+	private static int getInt(byte[] b, int offset)
+	{
+		return ((b[offset] & 0xFF) << 24 | (b[offset + 1] & 0xFF) << 16 | (b[offset + 2] & 0xFF) << 8 | (b[offset + 3]
+			& 0xFF));
+	}
+}
@@ -0,0 +1,178 @@
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/////////////////////////////////////////////////
+/////////////// Huffman Output Stream ///////////
+/////////////////////////////////////////////////
+/**
+ * Compresses the bytes written to it with Huffman codes, a block at a time. The frequencies of each block are counted
+ * in one pass and the block is written as its length, its encoded length, the code lengths of its canonical code and
+ * the encoded bytes, so that every block gets a code fitted to it and the stream is read back by
+ * 'HuffmanInputStream'. A block of length 0 ends the stream.
+ * 
+ * @author simple
+ */
+public class HuffmanOutputStream extends FilterOutputStream
+{
+	public HuffmanOutputStream(OutputStream out)
+	{
+		this(out, DEFAULT_BLOCK_SIZE);
+	}
+
+	public HuffmanOutputStream(OutputStream out, int blockSize)
+	{
+		super(out);
+
+		if (blockSize < 1)
+		{
+			throw new IllegalArgumentException("Blocks must hold at least one byte: " + blockSize);
+		}
+
+		block = new byte[blockSize];
+		encoded = new byte[HEADER_BYTES + HuffmanCode.maxEncodedBytes(blockSize)];
+	}
+
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+	/**
+	 * The first bytes of a stream, "HUF1".
+	 */
+	static final int MAGIC = 0x48554631;
+
+	/**
+	 * The block length, the encoded length and the code lengths.
+	 */
+	static final int HEADER_BYTES = 8 + HuffmanCode.LENGTHS_BYTES;
+
+	private final byte block[];
+
+	private final byte encoded[];
+
+	private int blockLength = 0;
+
+	private boolean started = false;
+
+	private boolean finished = false;
+
+	public void write(int b) throws IOException
+	{
+		if (blockLength == block.length)
+		{
+			writeBlock();
+		}
+
+		block[blockLength++] = (byte) b;
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		if (off < 0 || len < 0 || off + len > b.length)
+		{
+			throw new IndexOutOfBoundsException();
+		}
+
+		while (len > 0)
+		{
+			if (blockLength == block.length)
+			{
+				writeBlock();
+			}
+
+			int count = Math.min(len, block.length - blockLength);
+			System.arraycopy(b, off, block, blockLength, count);
+			blockLength += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	/**
+	 * Writes the bytes so far as a block, which may be short, and flushes the underlying stream.
+	 */
+	public void flush() throws IOException
+	{
+		if (blockLength > 0)
+		{
+			writeBlock();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes the remaining bytes and the end of the stream without closing the underlying stream.
+	 */
+	public void finish() throws IOException
+	{
+		if (finished)
+		{
+			return;
+		}
+
+		if (blockLength > 0)
+		{
+			writeBlock();
+		}
+		writeStart();
+
+		byte end[] = new byte[4];
+		out.write(end);
+		finished = true;
+	}
+
+	public void close() throws IOException
+	{
+		try
+		{
+			finish();
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+
+	private void writeStart() throws IOException
+	{
+		if (!started)
+		{
+			byte magic[] = new byte[4];
+			putInt(magic, 0, MAGIC);
+			out.write(magic);
+			started = true;
+		}
+	}
+
+	private void writeBlock() throws IOException
+	{
+		if (finished)
+		{
+			throw new IOException("The stream is finished");
+		}
+		writeStart();
+
+		long frequencies[] = new long[HuffmanCode.SYMBOLS];
+		for (int index = 0; index < blockLength; index++)
+		{
+			frequencies[block[index] & 0xFF]++;
+		}
+
+		HuffmanCode code = HuffmanCode.build(frequencies);
+		int encodedLength = code.encode(block, 0, blockLength, encoded, HEADER_BYTES);
+
+		putInt(encoded, 0, blockLength);
+		putInt(encoded, 4, encodedLength);
+		code.writeLengths(encoded, 8);
+		out.write(encoded, 0, HEADER_BYTES + encodedLength);
+
+		blockLength = 0;
+	}
+
+	static void putInt(byte[] b, int offset, int value)
+	{
+		b[offset] = (byte) (value >>> 24);
+		b[offset + 1] = (byte) (value >>> 16);
+		b[offset + 2] = (byte) (value >>> 8);
+		b[offset + 3] = (byte) value;
+	}
+}
@@ -1,5 +1,5 @@
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.PriorityQueue;
 
 /////////////////////////////////////////////////
 ////////////////// Huffman Trie /////////////////
@@ -14,25 +14,31 @@ public class HuffmanTrie
 	public HuffmanTrie(String t, String alphabet)
 	{
 		int frequencies[] = generateFrequencies(t, alphabet);
-		ArrayList auxList = new ArrayList();
+		PriorityQueue<Tree> auxHeap = new PriorityQueue<Tree>(Math.max(alphabet.length(), 1), new Comparator<Tree>()
+		{
+			public int compare(Tree a, Tree b)
+			{
+				return (Integer.compare(a.getRoot().getKey(), b.getRoot().getKey()));
+			}
+		});
 
 		for (int index = 0; index < alphabet.length(); index++)
 		{
 			Tree currentTree = new Tree(new TreeNode(alphabet.substring(index, index + 1), frequencies[index]));
-			auxList.add(currentTree);
+			auxHeap.add(currentTree);
 		}
 
-		while (auxList.size() > 1)
+		while (auxHeap.size() > 1)
 		{
-			Tree tree1 = removeMin(auxList);
-			Tree tree2 = removeMin(auxList);
+			Tree tree1 = auxHeap.remove();
+			Tree tree2 = auxHeap.remove();
 
 			Tree newTree = join(tree1, tree2);
 
-			auxList.add(newTree);
+			auxHeap.add(newTree);
 		}
 
-		myTree = (Tree) auxList.remove(0);
+		myTree = auxHeap.remove();
 	}
 
 	private Tree myTree;
@@ -58,23 +64,21 @@ public class HuffmanTrie
 			calcCompressedSize(depth + 1, root.getLeftChild()) + calcCompressedSize(depth + 1, root.getRightChild()));
 	}
 
+	/**
+	 * Counts every char in a single pass over the text.
+	 */
 	private int[] generateFrequencies(String t, String alphabet)
 	{
-		int frequencies[] = new int[alphabet.length()];
-		int count = 0;
+		int counts[] = new int[Character.MAX_VALUE + 1];
+		for (int tIndex = 0; tIndex < t.length(); tIndex++)
+		{
+			counts[t.charAt(tIndex)]++;
+		}
 
+		int frequencies[] = new int[alphabet.length()];
 		for (int alphaIndex = 0; alphaIndex < alphabet.length(); alphaIndex++)
 		{
-			for (int tIndex = 0; tIndex < t.length(); tIndex++)
-			{
-				if (t.charAt(tIndex) == alphabet.charAt(alphaIndex))
-				{
-					count++;
-				}
-			}
-
-			frequencies[alphaIndex] = count;
-			count = 0;
+			frequencies[alphaIndex] = counts[alphabet.charAt(alphaIndex)];
 		}
 
 		return (frequencies);
@@ -84,33 +88,10 @@ public class HuffmanTrie
 	{
 		Tree newTree = new Tree(new TreeNode(null, a.getRoot().getKey() + b.getRoot().getKey()));
 
-		newTree.insert(a.getRoot(), a.getRoot().getKey());
-		newTree.insert(b.getRoot(), b.getRoot().getKey());
+		// The trees become the children of the new root; inserting them by key would wrap them in new leaves.
+		newTree.getRoot().setLeftChild(a.getRoot());
+		newTree.getRoot().setRightChild(b.getRoot());
 
 		return (newTree);
 	}
-
-	private Tree removeMin(ArrayList list)
-	{
-		Iterator listIter = list.iterator();
-		Tree smallestTree = null;
-
-		while (listIter.hasNext())
-		{
-			Tree currentTree = (Tree) listIter.next();
-
-			if (smallestTree == null)
-			{
-				smallestTree = currentTree;
-			}
-			else if (currentTree.getRoot().getKey() < smallestTree.getRoot().getKey())
-			{
-				smallestTree = currentTree;
-			}
-		}
-
-		list.remove(list.indexOf(smallestTree));
-
-		return (smallestTree);
-	}
 }
@@ -0,0 +1,113 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/////////////////////////////////////////////////
+///////////////// LCS Benchmark /////////////////
+/////////////////////////////////////////////////
+/**
+ * Times the longest common subsequence methods of 'PatternMatching' on a prefix of a text file against a pattern
+ * taken from later in the file, reporting the best time of several runs and the table cells computed per second.
+ * The full table is skipped when it would not fit in half the heap.
+ * 
+ * Usage: java LcsBenchmark [file] [text length] [pattern length] [repeats]
+ * 
+ * @author simple
+ */
+public class LcsBenchmark
+{
+	private static final int TABLE = 0;
+
+	private static final int TWO_ROWS = 1;
+
+	private static final int HIRSCHBERG = 2;
+
+	private static final int BIT_PARALLEL = 3;
+
+	private static final int PARALLEL = 4;
+
+	private static final String[] MODE_NAMES = {"full table", "two rows", "Hirschberg", "bit-parallel",
+		"anti-diagonal parallel"};
+
+	public static void main(String[] args) throws IOException
+	{
+		String contents = readFile(new File(args.length > 0 ? args[0] : "11633.txt"));
+		int textLength = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+		int patternLength = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+		int repeats = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+		StringBuilder buf = new StringBuilder();
+		while (buf.length() < textLength + patternLength)
+		{
+			buf.append(contents);
+		}
+		String t = buf.substring(0, textLength);
+		String p = buf.substring(buf.length() - patternLength);
+		double cells = (double) textLength * patternLength;
+
+		System.out.println("Text: " + textLength + " chars, pattern: " + patternLength + " chars, threads: "
+			+ Runtime.getRuntime().availableProcessors());
+
+		int expected = -1;
+		for (int mode = TABLE; mode <= PARALLEL; mode++)
+		{
+			if (mode == TABLE && 4.0 * (textLength + 1) * (patternLength + 1) > Runtime.getRuntime().maxMemory() / 2)
+			{
+				System.out.println(String.format("  %-24s skipped, the table needs %.1f GB", MODE_NAMES[mode], 4.0
+					* (textLength + 1) * (patternLength + 1) / 1e9));
+				continue;
+			}
+
+			long best = Long.MAX_VALUE;
+			int length = 0;
+			for (int repeat = -1; repeat < repeats; repeat++)
+			{
+				long startTime = System.nanoTime();
+				length = run(mode, t, p);
+				best = Math.min(best, System.nanoTime() - startTime);
+			}
+
+			if (expected != -1 && length != expected)
+			{
+				throw new IllegalStateException(MODE_NAMES[mode] + " found " + length + " rather than " + expected);
+			}
+			expected = length;
+
+			System.out.println(String.format("  %-24s %10.1f ms %10.2f Gcells/s  LCS %d", MODE_NAMES[mode], best / 1e6,
+				cells / best, length));
+		}
+	}
+
+	private static int run(int mode, String t, String p)
+	{
+		switch (mode)
+		{
+			case TABLE:
+				return (PatternMatching.longestCommonSubsequence(t, p));
+			case TWO_ROWS:
+				return (PatternMatching.lcsLength(t, p));
+			case HIRSCHBERG:
+				return (PatternMatching.hirschberg(t, p).length());
+			case BIT_PARALLEL:
+				return (PatternMatching.bitParallelLcsLength(t, p));
+			default:
+				return (PatternMatching.parallelLcsLength(t, p));
+		}
+	}
+
+	private static String readFile(File file) throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try
+		{
+			byte bytes[] = new byte[(int) raf.length()];
+			raf.readFully(bytes);
+
+			return (new String(bytes, "ISO-8859-1"));
+		}
+		finally
+		{
+			raf.close();
+		}
+	}
+}
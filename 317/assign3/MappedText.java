@@ -0,0 +1,224 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/////////////////////////////////////////////////
+////////////////// Mapped Text //////////////////
+/////////////////////////////////////////////////
+/**
+ * A text file searched in place with the single pattern searches of 'PatternMatching', one memory-mapped window at a
+ * time, so that the file is never read into a String and may be larger than 2GB. Bytes are read as ISO-8859-1 chars.
+ * 
+ * The file is divided into chunks, and each window maps one chunk plus the first p.length() - 1 bytes of the next,
+ * so a match that starts in a chunk is found in that chunk's window even if it straddles into the next chunk. In
+ * parallel searches the windows are searched by separate tasks and the earliest match wins; windows after a match
+ * already found are skipped.
+ * 
+ * @author simple
+ */
+public class MappedText implements Closeable
+{
+	public MappedText(File file) throws IOException
+	{
+		this(file, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param chunkSize The number of bytes searched by each window, not counting the overlap with the next.
+	 */
+	public MappedText(File file, int chunkSize) throws IOException
+	{
+		if (chunkSize < 1)
+		{
+			throw new IllegalArgumentException("Chunks must hold at least one byte: " + chunkSize);
+		}
+
+		this.chunkSize = chunkSize;
+		raf = new RandomAccessFile(file, "r");
+		channel = raf.getChannel();
+		length = channel.size();
+	}
+
+	public static final int BRUTE_FORCE = 0;
+
+	public static final int BOYER_MOORE = 1;
+
+	public static final int KNUTH_MORRIS_PRATT = 2;
+
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 28;
+
+	/**
+	 * The smallest chunk a parallel search divides the file into.
+	 */
+	private static final int MIN_PARALLEL_CHUNK_SIZE = 1 << 20;
+
+	private final int chunkSize;
+
+	private final RandomAccessFile raf;
+
+	private final FileChannel channel;
+
+	private final long length;
+
+	public long length()
+	{
+		return (length);
+	}
+
+	/**
+	 * Maps 'count' bytes from 'start', which must lie within the file.
+	 */
+	public CharSequence window(long start, int count) throws IOException
+	{
+		return (new ByteBufferCharSequence(channel.map(FileChannel.MapMode.READ_ONLY, start, count)));
+	}
+
+	/**
+	 * Searches the chunks in order with 'algorithm', one of BRUTE_FORCE, BOYER_MOORE or KNUTH_MORRIS_PRATT.
+	 * 
+	 * @return The index of the first occurrence of 'p' in the file, or -1 if it does not occur.
+	 */
+	public long search(String p, int algorithm) throws IOException
+	{
+		checkPatternLength(p, chunkSize);
+
+		for (long start = 0; start < length; start += chunkSize)
+		{
+			long result = searchWindow(p, algorithm, start, chunkSize);
+			if (result != -1)
+			{
+				return (result);
+			}
+		}
+
+		return (-1);
+	}
+
+	/**
+	 * Searches with 'algorithm' on the common pool, dividing the file into chunks so that every thread has several.
+	 * 
+	 * @return The index of the first occurrence of 'p' in the file, or -1 if it does not occur.
+	 */
+	public long parallelSearch(String p, int algorithm) throws IOException
+	{
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		long perThread = length / (pool.getParallelism() * 4L) + 1;
+		int parallelChunkSize = (int) Math.min(chunkSize, Math.max(perThread, MIN_PARALLEL_CHUNK_SIZE));
+
+		return (parallelSearch(p, algorithm, parallelChunkSize, pool));
+	}
+
+	/**
+	 * Searches chunks of 'parallelChunkSize' bytes as separate tasks on 'executor'.
+	 * 
+	 * @return The index of the first occurrence of 'p' in the file, or -1 if it does not occur.
+	 */
+	public long parallelSearch(final String p, final int algorithm, final int parallelChunkSize,
+		ExecutorService executor) throws IOException
+	{
+		checkPatternLength(p, parallelChunkSize);
+
+		// The earliest match found so far, or Long.MAX_VALUE.
+		final AtomicLong first = new AtomicLong(Long.MAX_VALUE);
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+
+		for (long chunkStart = 0; chunkStart < length; chunkStart += parallelChunkSize)
+		{
+			final long start = chunkStart;
+			tasks.add(new Callable<Void>()
+			{
+				public Void call() throws IOException
+				{
+					if (start < first.get())
+					{
+						long result = searchWindow(p, algorithm, start, parallelChunkSize);
+						while (result != -1)
+						{
+							long current = first.get();
+							if (result >= current || first.compareAndSet(current, result))
+							{
+								break;
+							}
+						}
+					}
+
+					return (null);
+				}
+			});
+		}
+
+		try
+		{
+			List<Future<Void>> futures = executor.invokeAll(tasks);
+			for (int index = 0; index < futures.size(); index++)
+			{
+				futures.get(index).get();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("The search was interrupted", e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IOException("A search task failed", e.getCause());
+		}
+
+		return (first.get() == Long.MAX_VALUE ? -1 : first.get());
+	}
+
+	public void close() throws IOException
+	{
+		raf.close();
+	}
+
+	/**
+	 * Searches for matches of 'p' that start in the chunk of 'count' bytes from 'start', mapping p.length() - 1 more
+	 * bytes after it where the file has them.
+	 * 
+	 * @return The index in the file of the first match, or -1.
+	 */
+	private long searchWindow(String p, int algorithm, long start, int count) throws IOException
+	{
+		long end = Math.min(length, start + count + Math.max(p.length() - 1, 0));
+		CharSequence t = window(start, (int) (end - start));
+
+		int result;
+		switch (algorithm)
+		{
+			case BRUTE_FORCE:
+				result = PatternMatching.bruteForce(t, p);
+				break;
+			case BOYER_MOORE:
+				result = PatternMatching.boyerMoore(t, p);
+				break;
+			case KNUTH_MORRIS_PRATT:
+				result = PatternMatching.knuthMorrisPratt(t, p);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+		}
+
+		// The overlap is a char shorter than 'p', so every match found starts in this chunk.
+		return (result == -1 ? -1 : start + result);
+	}
+
+	private static void checkPatternLength(String p, int count)
+	{
+		if ((long) count + p.length() > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("A pattern of " + p.length() + " chars is too long to search for");
+		}
+	}
+}
@@ -1,4 +1,11 @@
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /////////////////////////////////////////////////
 //////////////// Pattern Matching ///////////////
@@ -16,10 +23,11 @@ public abstract class PatternMatching
 		String line;
 		String t = new String();
 		String p = new String();
+		File file = new File("01hgp10.txt");
 
 		try
 		{
-			bufReader = new BufferedReader(new FileReader(new File("01hgp10.txt")));
+			bufReader = new BufferedReader(new FileReader(file));
 			StringBuffer buf = new StringBuffer();
 			while ((line = bufReader.readLine()) != null)
 			{
@@ -38,17 +46,22 @@ public abstract class PatternMatching
 
 		long startTime = System.currentTimeMillis();
 
-		//System.out.println("Brute force: " + bruteForce(t, p));
-		//System.out.println("Boyer Moore: " + boyerMoore(t, p));
-		//System.out.println("KMP: " + knuthMorrisPratt(t, p));
+		// The single pattern searches run over the file in place; the others need the text in a String.
+		//System.out.println("Brute force: " + mappedSearch(file, p, MappedText.BRUTE_FORCE, false));
+		//System.out.println("Boyer Moore: " + mappedSearch(file, p, MappedText.BOYER_MOORE, false));
+		//System.out.println("KMP: " + mappedSearch(file, p, MappedText.KNUTH_MORRIS_PRATT, false));
+		//System.out.println("Parallel KMP: " + mappedSearch(file, p, MappedText.KNUTH_MORRIS_PRATT, true));
+		//System.out.println("Aho-Corasick: " + ahoCorasickSearch(file, p.split(" ")));
 		System.out.println("Suffix Trie: " + compressedSuffixTrieSearch(t, p));
+		//System.out.println("Suffix Array: " + suffixArraySearch(t, p, new File("01hgp10.sa")));
 		//System.out.println("Huffman: " + huffmanTrieCompression(t));
 		//System.out.println("LCS: " + longestCommonSubsequence(t, p));
+		//System.out.println("LCS (bit-parallel): " + bitParallelLcsLength(t, p));
 
 		System.out.println("Time taken: " + (System.currentTimeMillis() - startTime));
 	}
 
-	public static int bruteForce(String t, String p)
+	public static int bruteForce(CharSequence t, String p)
 	{
 		for (int tIndex = 0; tIndex <= t.length() - p.length(); tIndex++)
 		{
@@ -67,10 +80,14 @@ public abstract class PatternMatching
 		return (-1);
 	}
 
-	public static int boyerMoore(String t, String p)
+	public static int boyerMoore(CharSequence t, String p)
 	{
-		String alphabet = generateAlphabet(t);
-		int[] lFunc = lastOccurenceFunction(p, alphabet);
+		if (p.length() > t.length())
+		{
+			return (-1);
+		}
+
+		int[] lFunc = lastOccurenceFunction(p);
 		int tIndex = p.length() - 1;
 		int pIndex = p.length() - 1;
 		int l;
@@ -91,7 +108,7 @@ public abstract class PatternMatching
 			}
 			else
 			{
-				l = lFunc[alphabet.indexOf(String.valueOf(t.charAt(tIndex)))];
+				l = lFunc[t.charAt(tIndex)];
 				tIndex = tIndex + p.length() - min(pIndex, 1 + l);
 				pIndex = p.length() - 1;
 			}
@@ -101,6 +118,23 @@ public abstract class PatternMatching
 		return (-1);
 	}
 
+	/**
+	 * @return The last index of every char in 'p', indexed by char, or -1 for chars not in 'p'. Unlike the version
+	 *         over an alphabet, this does not need a pass over the text to find its alphabet.
+	 */
+	public static int[] lastOccurenceFunction(String p)
+	{
+		int lFunc[] = new int[Character.MAX_VALUE + 1];
+		Arrays.fill(lFunc, -1);
+
+		for (int index = 0; index < p.length(); index++)
+		{
+			lFunc[p.charAt(index)] = index;
+		}
+
+		return (lFunc);
+	}
+
 	public static int[] lastOccurenceFunction(String p, String alphabet)
 	{
 		int lFunc[] = new int[alphabet.length()];
@@ -113,7 +147,7 @@ public abstract class PatternMatching
 		return (lFunc);
 	}
 
-	public static int knuthMorrisPratt(String t, String p)
+	public static int knuthMorrisPratt(CharSequence t, String p)
 	{
 		int fFunc[] = failureFunction(p);
 		int tIndex = 0;
@@ -149,6 +183,33 @@ public abstract class PatternMatching
 		return (-1);
 	}
 
+	/**
+	 * Counts the occurrences of all of 'patterns' in 'file' in a single pass, without reading the file into a String.
+	 */
+	public static long ahoCorasickSearch(File file, String[] patterns)
+	{
+		long startTime = System.currentTimeMillis();
+
+		AhoCorasick automaton = new AhoCorasick(patterns);
+
+		System.out.println("Time taken (create): " + (System.currentTimeMillis() - startTime));
+		startTime = System.currentTimeMillis();
+
+		long result = -1;
+		try
+		{
+			result = automaton.scan(file, null);
+		}
+		catch (IOException e)
+		{
+			System.out.println("reading error.");
+		}
+
+		System.out.println("Time taken (search): " + (System.currentTimeMillis() - startTime));
+
+		return (result);
+	}
+
 	public static int[] failureFunction(String p)
 	{
 		int fFunc[] = new int[p.length()];
@@ -177,6 +238,42 @@ public abstract class PatternMatching
 		return (fFunc);
 	}
 
+	/**
+	 * Searches 'file' in place with 'algorithm', one of MappedText.BRUTE_FORCE, BOYER_MOORE or KNUTH_MORRIS_PRATT.
+	 * Unlike the text main() reads, the file keeps its line breaks.
+	 */
+	public static long mappedSearch(File file, String p, int algorithm, boolean parallel)
+	{
+		long result = -1;
+		MappedText text = null;
+
+		try
+		{
+			text = new MappedText(file);
+			result = parallel ? text.parallelSearch(p, algorithm) : text.search(p, algorithm);
+		}
+		catch (IOException e)
+		{
+			System.out.println("reading error.");
+		}
+		finally
+		{
+			try
+			{
+				if (text != null)
+				{
+					text.close();
+				}
+			}
+			catch (IOException e)
+			{
+				System.out.println("reading error.");
+			}
+		}
+
+		return (result);
+	}
+
 	public static int compressedSuffixTrieSearch(String t, String p)
 	{
 		long startTime = System.currentTimeMillis();
@@ -189,6 +286,56 @@ public abstract class PatternMatching
 		int result = myTrie.search(p);
 		
 		System.out.println("Time taken (search): " + (System.currentTimeMillis() - startTime));
+		System.out.println("Occurrences: " + myTrie.count(p));
+
+		return (result);
+	}
+
+	/**
+	 * Searches a suffix array index of 't', which is loaded from 'indexFile' if it was saved there before and built
+	 * and saved otherwise.
+	 */
+	public static int suffixArraySearch(String t, String p, File indexFile)
+	{
+		long startTime = System.currentTimeMillis();
+
+		SuffixArray index = null;
+		try
+		{
+			if (indexFile.exists())
+			{
+				index = SuffixArray.load(indexFile);
+				if (!index.hasText(t))
+				{
+					index = null;
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			index = null;
+		}
+
+		if (index == null)
+		{
+			index = new SuffixArray(t);
+			try
+			{
+				index.save(indexFile);
+			}
+			catch (IOException e)
+			{
+				System.out.println("writing error.");
+			}
+		}
+
+		System.out.println("Time taken (create): " + (System.currentTimeMillis() - startTime));
+		startTime = System.currentTimeMillis();
+
+		int result = index.search(p);
+
+		System.out.println("Time taken (search): " + (System.currentTimeMillis() - startTime));
+		System.out.println("Occurrences: " + index.count(p));
 
 		return (result);
 	}
@@ -231,14 +378,323 @@ public abstract class PatternMatching
 		return (table[t.length()][p.length()]);
 	}
 
-	public static String generateAlphabet(String t)
+	/**
+	 * The length of the longest common subsequence, computed a row of the table at a time, keeping only two rows of
+	 * the length of the shorter string.
+	 */
+	public static int lcsLength(CharSequence t, CharSequence p)
+	{
+		if (p.length() > t.length())
+		{
+			CharSequence swap = t;
+			t = p;
+			p = swap;
+		}
+
+		int previous[] = new int[p.length() + 1];
+		int current[] = new int[p.length() + 1];
+
+		for (int tIndex = 1; tIndex <= t.length(); tIndex++)
+		{
+			char c = t.charAt(tIndex - 1);
+			for (int pIndex = 1; pIndex <= p.length(); pIndex++)
+			{
+				if (c == p.charAt(pIndex - 1))
+				{
+					current[pIndex] = previous[pIndex - 1] + 1;
+				}
+				else
+				{
+					current[pIndex] = max(previous[pIndex], current[pIndex - 1]);
+				}
+			}
+
+			int swap[] = previous;
+			previous = current;
+			current = swap;
+		}
+
+		return (previous[p.length()]);
+	}
+
+	/**
+	 * Finds a longest common subsequence in space linear in the lengths of the strings with Hirschberg's algorithm.
+	 * The first half of 't' is matched forwards and the second half backwards against 'p', the split of 'p' where
+	 * the two lengths add up to the most is where an LCS crosses the middle of 't', and each side is solved
+	 * recursively.
+	 */
+	public static String hirschberg(CharSequence t, CharSequence p)
+	{
+		StringBuilder lcs = new StringBuilder();
+		int forward[] = new int[p.length() + 1];
+		int backward[] = new int[p.length() + 1];
+
+		hirschberg(t, 0, t.length(), p, 0, p.length(), forward, backward, lcs);
+
+		return (lcs.toString());
+	}
+
+	private static void hirschberg(CharSequence t, int tStart, int tEnd, CharSequence p, int pStart, int pEnd,
+		int[] forward, int[] backward, StringBuilder lcs)
+	{
+		if (tEnd - tStart == 0 || pEnd - pStart == 0)
+		{
+			return;
+		}
+		if (tEnd - tStart == 1)
+		{
+			char c = t.charAt(tStart);
+			for (int pIndex = pStart; pIndex < pEnd; pIndex++)
+			{
+				if (p.charAt(pIndex) == c)
+				{
+					lcs.append(c);
+					return;
+				}
+			}
+			return;
+		}
+
+		int tMiddle = (tStart + tEnd) >>> 1;
+		int pLength = pEnd - pStart;
+
+		// forward[k] is the LCS length of t[tStart, tMiddle) and p[pStart, pStart + k).
+		Arrays.fill(forward, 0, pLength + 1, 0);
+		for (int tIndex = tStart; tIndex < tMiddle; tIndex++)
+		{
+			char c = t.charAt(tIndex);
+			int diagonal = 0;
+			for (int k = 1; k <= pLength; k++)
+			{
+				int above = forward[k];
+				forward[k] = c == p.charAt(pStart + k - 1) ? diagonal + 1 : max(above, forward[k - 1]);
+				diagonal = above;
+			}
+		}
+
+		// backward[k] is the LCS length of t[tMiddle, tEnd) and p[pEnd - k, pEnd).
+		Arrays.fill(backward, 0, pLength + 1, 0);
+		for (int tIndex = tEnd - 1; tIndex >= tMiddle; tIndex--)
+		{
+			char c = t.charAt(tIndex);
+			int diagonal = 0;
+			for (int k = 1; k <= pLength; k++)
+			{
+				int above = backward[k];
+				backward[k] = c == p.charAt(pEnd - k) ? diagonal + 1 : max(above, backward[k - 1]);
+				diagonal = above;
+			}
+		}
+
+		int split = 0;
+		int best = -1;
+		for (int k = 0; k <= pLength; k++)
+		{
+			if (forward[k] + backward[pLength - k] > best)
+			{
+				best = forward[k] + backward[pLength - k];
+				split = k;
+			}
+		}
+
+		hirschberg(t, tStart, tMiddle, p, pStart, pStart + split, forward, backward, lcs);
+		hirschberg(t, tMiddle, tEnd, p, pStart + split, pEnd, forward, backward, lcs);
+	}
+
+	/**
+	 * The length of the longest common subsequence by the bit-parallel algorithm of Allison and Dix, in Hyyro's
+	 * form. A bit vector V over the chars of the shorter string has a 0 for each char matched so far; for each char
+	 * of the longer string, U = V & M, where M marks where that char occurs, and V becomes (V + U) | (V - U). The
+	 * addition carries across the words of V, so each char of the longer string costs one pass over
+	 * (shorter length / 64) words. Chars that do not occur in the shorter string leave V unchanged and are skipped.
+	 */
+	public static int bitParallelLcsLength(CharSequence t, CharSequence p)
+	{
+		if (p.length() > t.length())
+		{
+			CharSequence swap = t;
+			t = p;
+			p = swap;
+		}
+
+		int m = p.length();
+		int words = (m + 63) >>> 6;
+
+		// The match mask of each distinct char of 'p', found through its code.
+		int codes[] = new int[Character.MAX_VALUE + 1];
+		long masks[][] = new long[1][];
+		int codeCount = 1;
+		for (int pIndex = 0; pIndex < m; pIndex++)
+		{
+			char c = p.charAt(pIndex);
+			if (codes[c] == 0)
+			{
+				if (codeCount == masks.length)
+				{
+					masks = Arrays.copyOf(masks, codeCount * 2);
+				}
+				masks[codeCount] = new long[words];
+				codes[c] = codeCount++;
+			}
+			masks[codes[c]][pIndex >>> 6] |= 1L << pIndex;
+		}
+
+		long v[] = new long[words];
+		Arrays.fill(v, -1L);
+
+		for (int tIndex = 0; tIndex < t.length(); tIndex++)
+		{
+			int code = codes[t.charAt(tIndex)];
+			if (code == 0)
+			{
+				continue;
+			}
+
+			long mask[] = masks[code];
+			long carry = 0;
+			for (int word = 0; word < words; word++)
+			{
+				long x = v[word];
+				long u = x & mask[word];
+				long sum = x + u + carry;
+				// Unsigned overflow of x + u + carry, where u is at most x.
+				carry = Long.compareUnsigned(sum, x) < 0 || (carry != 0 && sum == x) ? 1 : 0;
+				// U is a subset of V, so V - U is V & ~M and never borrows.
+				v[word] = sum | (x & ~mask[word]);
+			}
+		}
+
+		int zeros = 0;
+		for (int word = 0; word < words; word++)
+		{
+			long used = word < words - 1 || (m & 63) == 0 ? -1L : (1L << (m & 63)) - 1;
+			zeros += Long.bitCount(~v[word] & used);
+		}
+
+		return (zeros);
+	}
+
+	/**
+	 * The number of chars of each string in a tile of the parallel LCS table.
+	 */
+	public static final int LCS_TILE_SIZE = 2048;
+
+	/**
+	 * The length of the longest common subsequence on the common pool.
+	 */
+	public static int parallelLcsLength(CharSequence t, CharSequence p)
+	{
+		return (parallelLcsLength(t, p, LCS_TILE_SIZE, ForkJoinPool.commonPool()));
+	}
+
+	/**
+	 * The length of the longest common subsequence, with the table divided into tiles of 'tileSize' by 'tileSize'
+	 * that are filled an anti-diagonal at a time, the tiles of each anti-diagonal in parallel on 'pool'. Only the
+	 * edges of the tiles are kept: the bottom row of the tiles above each column, the right column of the tiles left
+	 * of each row, and for each row of tiles the corner that the next tile along needs.
+	 */
+	public static int parallelLcsLength(final CharSequence t, final CharSequence p, final int tileSize,
+		ForkJoinPool pool)
+	{
+		if (tileSize < 1)
+		{
+			throw new IllegalArgumentException("Tiles must be at least 1 by 1: " + tileSize);
+		}
+
+		final int rows = (t.length() + tileSize - 1) / tileSize;
+		final int columns = (p.length() + tileSize - 1) / tileSize;
+		final int bottomRows[] = new int[p.length() + 1];
+		final int rightColumns[] = new int[t.length() + 1];
+		final int corners[] = new int[rows];
+		List<Callable<Void>> tiles = new ArrayList<Callable<Void>>();
+
+		for (int diagonal = 0; diagonal < rows + columns - 1; diagonal++)
+		{
+			tiles.clear();
+			for (int row = max(0, diagonal - columns + 1); row <= min(diagonal, rows - 1); row++)
+			{
+				final int tileRow = row;
+				final int tileColumn = diagonal - row;
+				tiles.add(new Callable<Void>()
+				{
+					public Void call()
+					{
+						fillLcsTile(t, p, tileRow, tileColumn, tileSize, bottomRows, rightColumns, corners);
+						return (null);
+					}
+				});
+			}
+
+			List<Future<Void>> futures = pool.invokeAll(tiles);
+			for (int index = 0; index < futures.size(); index++)
+			{
+				try
+				{
+					futures.get(index).get();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("The LCS was interrupted", e);
+				}
+				catch (ExecutionException e)
+				{
+					throw new IllegalStateException("An LCS tile failed", e.getCause());
+				}
+			}
+		}
+
+		return (bottomRows[p.length()]);
+	}
+
+	/**
+	 * Fills one tile of the LCS table from the edges left by the tiles above and to the left of it, and leaves its
+	 * own bottom row, right column and the corner for the next tile in its row.
+	 */
+	private static void fillLcsTile(CharSequence t, CharSequence p, int tileRow, int tileColumn, int tileSize,
+		int[] bottomRows, int[] rightColumns, int[] corners)
+	{
+		int tStart = tileRow * tileSize + 1;
+		int tEnd = min(tStart + tileSize, t.length() + 1);
+		int pStart = tileColumn * tileSize + 1;
+		int pEnd = min(pStart + tileSize, p.length() + 1);
+		int width = pEnd - pStart;
+
+		// row[k] is the table at column pStart - 1 + k of the row being filled.
+		int row[] = new int[width + 1];
+		System.arraycopy(bottomRows, pStart, row, 1, width);
+		row[0] = tileColumn == 0 ? 0 : corners[tileRow];
+
+		// The tile to the right needs the row above this tile at its last column, which is about to be overwritten.
+		corners[tileRow] = bottomRows[pEnd - 1];
+
+		for (int tIndex = tStart; tIndex < tEnd; tIndex++)
+		{
+			char c = t.charAt(tIndex - 1);
+			int diagonal = row[0];
+			row[0] = rightColumns[tIndex];
+			for (int k = 1; k <= width; k++)
+			{
+				int above = row[k];
+				row[k] = c == p.charAt(pStart + k - 2) ? diagonal + 1 : max(above, row[k - 1]);
+				diagonal = above;
+			}
+			rightColumns[tIndex] = row[width];
+		}
+
+		System.arraycopy(row, 1, bottomRows, pStart, width);
+	}
+
+	public static String generateAlphabet(CharSequence t)
 	{
 		StringBuffer buf = new StringBuffer();
+		boolean seen[] = new boolean[Character.MAX_VALUE + 1];
 
 		for (int index = 0; index < t.length(); index++)
 		{
-			if (buf.indexOf(String.valueOf(t.charAt(index))) == -1)
+			if (!seen[t.charAt(index)])
 			{
+				seen[t.charAt(index)] = true;
 				buf.append(t.charAt(index));
 			}
 		}
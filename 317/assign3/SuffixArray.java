@@ -0,0 +1,537 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/////////////////////////////////////////////////
+////////////////// Suffix Array /////////////////
+/////////////////////////////////////////////////
+/**
+ * A suffix array of a text with its LCP array, a compact alternative to 'SuffixTrie' that needs 10 bytes per char of
+ * text including the text itself.
+ * 
+ * The suffix array is built in linear time by induced sorting (SA-IS) and the LCP array from it by Kasai's algorithm.
+ * A pattern is found by binary searching the suffixes for the range that starts with it, skipping the chars already
+ * known to match both ends of the range.
+ * 
+ * An index can be saved to a file and loaded again by mapping the file into memory, so that it is usable at once
+ * without reading or rebuilding it. A mapped file is limited to 2GB, so indexes of texts of up to about 200 million
+ * chars can be saved.
+ * 
+ * @author simple
+ */
+public class SuffixArray
+{
+	public SuffixArray(String t)
+	{
+		int s[] = new int[t.length()];
+		int upper = 0;
+		for (int index = 0; index < s.length; index++)
+		{
+			s[index] = t.charAt(index);
+			upper = Math.max(upper, s[index]);
+		}
+
+		int sa[] = induceSort(s, upper);
+		int lcp[] = buildLcp(t, sa);
+
+		text = CharBuffer.wrap(t);
+		suffixes = IntBuffer.wrap(sa);
+		lcps = IntBuffer.wrap(lcp);
+	}
+
+	private SuffixArray(CharBuffer text, IntBuffer suffixes, IntBuffer lcps)
+	{
+		this.text = text;
+		this.suffixes = suffixes;
+		this.lcps = lcps;
+	}
+
+	/**
+	 * The first int of an index file, "SUFA".
+	 */
+	private static final int MAGIC = 0x53554641;
+
+	private static final int VERSION = 1;
+
+	/**
+	 * The magic number, the version and the length of the text.
+	 */
+	private static final int HEADER_BYTES = 12;
+
+	private final CharBuffer text;
+
+	/**
+	 * The start of each suffix of the text, in sorted order.
+	 */
+	private final IntBuffer suffixes;
+
+	/**
+	 * The length of the common prefix of each suffix and the one before it in sorted order, 0 for the first.
+	 */
+	private final IntBuffer lcps;
+
+	/**
+	 * Maps an index saved by 'save' into memory.
+	 * 
+	 * @throws IOException If the file cannot be read or is not an index.
+	 */
+	public static SuffixArray load(File file) throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try
+		{
+			FileChannel channel = raf.getChannel();
+			if (channel.size() < HEADER_BYTES)
+			{
+				throw new IOException(file + " is not a suffix array index");
+			}
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			int n = buffer.getInt(4 + 4);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || n < 0
+				|| channel.size() != HEADER_BYTES + 10L * n)
+			{
+				throw new IOException(file + " is not a suffix array index");
+			}
+
+			// The mapping stays valid after the channel is closed.
+			return (new SuffixArray(slice(buffer, HEADER_BYTES, 2 * n).asCharBuffer(), slice(buffer,
+				HEADER_BYTES + 2 * n, 4 * n).asIntBuffer(), slice(buffer, HEADER_BYTES + 6 * n, 4 * n).asIntBuffer()));
+		}
+		finally
+		{
+			raf.close();
+		}
+	}
+
+	/**
+	 * Saves the text, the suffix array and the LCP array to 'file', which is replaced.
+	 */
+	public void save(File file) throws IOException
+	{
+		int n = length();
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try
+		{
+			raf.setLength(0);
+			MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + 10L * n);
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(n);
+			slice(buffer, HEADER_BYTES, 2 * n).asCharBuffer().put(text.duplicate());
+			slice(buffer, HEADER_BYTES + 2 * n, 4 * n).asIntBuffer().put(suffixes.duplicate());
+			slice(buffer, HEADER_BYTES + 6 * n, 4 * n).asIntBuffer().put(lcps.duplicate());
+			buffer.force();
+		}
+		finally
+		{
+			raf.close();
+		}
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length)
+	{
+		ByteBuffer duplicate = buffer.duplicate();
+		duplicate.position(offset);
+		duplicate.limit(offset + length);
+
+		return (duplicate.slice());
+	}
+
+	/**
+	 * @return The length of the text.
+	 */
+	public int length()
+	{
+		return (text.limit());
+	}
+
+	/**
+	 * @return Whether this is an index of 't'.
+	 */
+	public boolean hasText(String t)
+	{
+		if (t.length() != length())
+		{
+			return (false);
+		}
+
+		for (int index = 0; index < t.length(); index++)
+		{
+			if (text.get(index) != t.charAt(index))
+			{
+				return (false);
+			}
+		}
+
+		return (true);
+	}
+
+	/**
+	 * @return The start of the suffix at position 'rank' in sorted order.
+	 */
+	public int getSuffix(int rank)
+	{
+		return (suffixes.get(rank));
+	}
+
+	/**
+	 * @return The length of the common prefix of the suffixes at positions 'rank' - 1 and 'rank' in sorted order.
+	 */
+	public int getLcp(int rank)
+	{
+		return (lcps.get(rank));
+	}
+
+	/**
+	 * @return The index of the first occurrence of 'p' in the text, or -1 if it does not occur.
+	 */
+	public int search(String p)
+	{
+		int low = bound(p, false);
+		int high = bound(p, true);
+		if (low == high)
+		{
+			return (-1);
+		}
+
+		int first = suffixes.get(low);
+		for (int rank = low + 1; rank < high; rank++)
+		{
+			first = Math.min(first, suffixes.get(rank));
+		}
+
+		return (first);
+	}
+
+	/**
+	 * @return The number of occurrences of 'p' in the text, overlapping ones included.
+	 */
+	public int count(String p)
+	{
+		return (bound(p, true) - bound(p, false));
+	}
+
+	/**
+	 * @return The indices of every occurrence of 'p' in the text, in ascending order.
+	 */
+	public int[] findAll(String p)
+	{
+		int low = bound(p, false);
+		int occurrences[] = new int[bound(p, true) - low];
+
+		for (int index = 0; index < occurrences.length; index++)
+		{
+			occurrences[index] = suffixes.get(low + index);
+		}
+		Arrays.sort(occurrences);
+
+		return (occurrences);
+	}
+
+	/**
+	 * @return The longest string that occurs in the text more than once.
+	 */
+	public String longestRepeat()
+	{
+		int longest = 0;
+
+		for (int rank = 1; rank < length(); rank++)
+		{
+			if (lcps.get(rank) > lcps.get(longest))
+			{
+				longest = rank;
+			}
+		}
+
+		int start = length() == 0 ? 0 : suffixes.get(longest);
+		int end = start + (length() == 0 ? 0 : lcps.get(longest));
+
+		return (text.subSequence(start, end).toString());
+	}
+
+	/**
+	 * Binary searches for the bounds of the range of suffixes that start with 'p'. 'lowMatch' and 'highMatch' are the
+	 * numbers of chars of 'p' that the suffixes just outside the range searched match, and every suffix between them
+	 * matches at least the smaller of the two.
+	 * 
+	 * @param upper Whether to find the end of the range rather than its start.
+	 * @return The position in sorted order of the first suffix that starts with 'p' (or after it), or that sorts
+	 *         after 'p' if 'upper' is set.
+	 */
+	private int bound(String p, boolean upper)
+	{
+		int n = length();
+		int low = 0;
+		int high = n;
+		int lowMatch = 0;
+		int highMatch = 0;
+
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			int suffix = suffixes.get(middle);
+			int match = Math.min(lowMatch, highMatch);
+			while (match < p.length() && suffix + match < n && text.get(suffix + match) == p.charAt(match))
+			{
+				match++;
+			}
+
+			boolean before;
+			if (match == p.length())
+			{
+				before = upper;
+			}
+			else if (suffix + match == n)
+			{
+				// The suffix is a prefix of 'p'.
+				before = true;
+			}
+			else
+			{
+				before = text.get(suffix + match) < p.charAt(match);
+			}
+
+			if (before)
+			{
+				low = middle + 1;
+				lowMatch = match;
+			}
+			else
+			{
+				high = middle;
+				highMatch = match;
+			}
+		}
+
+		return (low);
+	}
+
+	/**
+	 * Sorts the suffixes of 's', whose symbols are between 0 and 'upper', by induced sorting (Nong, Zhang and Chan).
+	 * 
+	 * Each suffix is of type S if it is smaller than the suffix after it and of type L if it is larger. The leftmost
+	 * S suffixes of each run (LMS suffixes) are placed at the ends of their buckets and the L and S suffixes are then
+	 * induced from them in two scans. Doing this once sorts the LMS substrings; if they are not all different they are
+	 * renamed and sorted recursively, and the induction is repeated from the LMS suffixes in their true order.
+	 * 
+	 * @return The start of each suffix in sorted order.
+	 */
+	private static int[] induceSort(int[] s, int upper)
+	{
+		int n = s.length;
+		if (n == 0)
+		{
+			return (new int[0]);
+		}
+		if (n == 1)
+		{
+			return (new int[] {0});
+		}
+		if (n == 2)
+		{
+			return (s[0] < s[1] ? new int[] {0, 1} : new int[] {1, 0});
+		}
+
+		int sa[] = new int[n];
+		boolean sType[] = new boolean[n];
+		for (int index = n - 2; index >= 0; index--)
+		{
+			sType[index] = s[index] == s[index + 1] ? sType[index + 1] : s[index] < s[index + 1];
+		}
+
+		// The start of the L part and of the S part of each symbol's bucket.
+		int lStarts[] = new int[upper + 1];
+		int sStarts[] = new int[upper + 1];
+		for (int index = 0; index < n; index++)
+		{
+			if (!sType[index])
+			{
+				sStarts[s[index]]++;
+			}
+			else
+			{
+				// An S symbol is never the largest.
+				lStarts[s[index] + 1]++;
+			}
+		}
+		for (int symbol = 0; symbol <= upper; symbol++)
+		{
+			sStarts[symbol] += lStarts[symbol];
+			if (symbol < upper)
+			{
+				lStarts[symbol + 1] += sStarts[symbol];
+			}
+		}
+
+		int lmsNames[] = new int[n];
+		Arrays.fill(lmsNames, -1);
+		int lmsCount = 0;
+		for (int index = 1; index < n; index++)
+		{
+			if (!sType[index - 1] && sType[index])
+			{
+				lmsNames[index] = lmsCount++;
+			}
+		}
+
+		int lms[] = new int[lmsCount];
+		lmsCount = 0;
+		for (int index = 1; index < n; index++)
+		{
+			if (!sType[index - 1] && sType[index])
+			{
+				lms[lmsCount++] = index;
+			}
+		}
+
+		int buckets[] = new int[upper + 1];
+		induce(s, sa, sType, lms, lStarts, sStarts, buckets);
+
+		if (lmsCount > 0)
+		{
+			int sortedLms[] = new int[lmsCount];
+			int sortedCount = 0;
+			for (int rank = 0; rank < n; rank++)
+			{
+				if (lmsNames[sa[rank]] != -1)
+				{
+					sortedLms[sortedCount++] = sa[rank];
+				}
+			}
+
+			// Name the LMS substrings in sorted order, equal substrings getting equal names.
+			int reduced[] = new int[lmsCount];
+			int reducedUpper = 0;
+			reduced[lmsNames[sortedLms[0]]] = 0;
+			for (int rank = 1; rank < lmsCount; rank++)
+			{
+				int left = sortedLms[rank - 1];
+				int right = sortedLms[rank];
+				int leftEnd = lmsNames[left] + 1 < lmsCount ? lms[lmsNames[left] + 1] : n;
+				int rightEnd = lmsNames[right] + 1 < lmsCount ? lms[lmsNames[right] + 1] : n;
+
+				boolean same = true;
+				if (leftEnd - left != rightEnd - right)
+				{
+					same = false;
+				}
+				else
+				{
+					while (left < leftEnd && s[left] == s[right])
+					{
+						left++;
+						right++;
+					}
+					if (left == n || s[left] != s[right])
+					{
+						same = false;
+					}
+				}
+
+				if (!same)
+				{
+					reducedUpper++;
+				}
+				reduced[lmsNames[sortedLms[rank]]] = reducedUpper;
+			}
+
+			int reducedSa[] = induceSort(reduced, reducedUpper);
+			for (int rank = 0; rank < lmsCount; rank++)
+			{
+				sortedLms[rank] = lms[reducedSa[rank]];
+			}
+
+			induce(s, sa, sType, sortedLms, lStarts, sStarts, buckets);
+		}
+
+		return (sa);
+	}
+
+	/**
+	 * Places the LMS suffixes 'lms' in their buckets in the order given, then induces the order of the L suffixes
+	 * from left to right and of the S suffixes from right to left.
+	 */
+	private static void induce(int[] s, int[] sa, boolean[] sType, int[] lms, int[] lStarts, int[] sStarts,
+		int[] buckets)
+	{
+		int n = s.length;
+		Arrays.fill(sa, -1);
+
+		System.arraycopy(sStarts, 0, buckets, 0, buckets.length);
+		for (int index = 0; index < lms.length; index++)
+		{
+			sa[buckets[s[lms[index]]]++] = lms[index];
+		}
+
+		System.arraycopy(lStarts, 0, buckets, 0, buckets.length);
+		sa[buckets[s[n - 1]]++] = n - 1;
+		for (int rank = 0; rank < n; rank++)
+		{
+			int suffix = sa[rank];
+			if (suffix >= 1 && !sType[suffix - 1])
+			{
+				sa[buckets[s[suffix - 1]]++] = suffix - 1;
+			}
+		}
+
+		System.arraycopy(lStarts, 0, buckets, 0, buckets.length);
+		for (int rank = n - 1; rank >= 0; rank--)
+		{
+			int suffix = sa[rank];
+			if (suffix >= 1 && sType[suffix - 1])
+			{
+				// An S suffix is smaller than the one after it, so its symbol is not the largest and its bucket ends
+				// where the next bucket's L part starts.
+				sa[--buckets[s[suffix - 1] + 1]] = suffix - 1;
+			}
+		}
+	}
+
+	/**
+	 * Kasai's algorithm. The suffixes are visited in text order, and each one's common prefix with the suffix before
+	 * it in sorted order is at most one shorter than the last, so the text is compared only O(n) times.
+	 * 
+	 * @return The LCP array of 't' with suffix array 'sa'.
+	 */
+	private static int[] buildLcp(String t, int[] sa)
+	{
+		int n = sa.length;
+		int ranks[] = new int[n];
+		for (int rank = 0; rank < n; rank++)
+		{
+			ranks[sa[rank]] = rank;
+		}
+
+		int lcp[] = new int[n];
+		int match = 0;
+		for (int suffix = 0; suffix < n; suffix++)
+		{
+			if (ranks[suffix] == 0)
+			{
+				match = 0;
+				continue;
+			}
+
+			int previous = sa[ranks[suffix] - 1];
+			while (suffix + match < n && previous + match < n && t.charAt(suffix + match) == t.charAt(previous + match))
+			{
+				match++;
+			}
+			lcp[ranks[suffix]] = match;
+
+			if (match > 0)
+			{
+				match--;
+			}
+		}
+
+		return (lcp);
+	}
+}
@@ -1,11 +1,18 @@
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
 
 /////////////////////////////////////////////////
 ////////////////// Suffix Trie //////////////////
 /////////////////////////////////////////////////
 /**
+ * A compressed suffix trie (suffix tree) of a text, built in linear time with Ukkonen's algorithm.
  * 
+ * Nodes are numbered and held in parallel int arrays. Each node records the edge leading to it as the range
+ * [start, end) of the text; leaves end past a virtual terminator at the end of the text, so that every suffix ends at
+ * its own leaf. The children of the root are found through a table indexed by char, the children of every other node
+ * through a list of siblings, which stays short for natural text.
+ * 
+ * Once built, every node knows how many leaves are below it and the smallest suffix among them, so searching for the
+ * first occurrence of a pattern or counting its occurrences takes time proportional to the length of the pattern.
  * 
  * @author simple
  */
@@ -13,126 +20,407 @@ public class SuffixTrie
 {
 	public SuffixTrie(String t)
 	{
-		myString = t;
+		text = t.toCharArray();
 
-		for (int index = myString.length() - 1; index >= 0; index--)
-		{
-			insertString(index, root);
-		}
+		// A text of n chars plus the terminator has n + 1 leaves and at most n internal nodes besides the root.
+		int capacity = 2 * text.length + 2;
+		starts = new int[capacity];
+		ends = new int[capacity];
+		links = new int[capacity];
+		firstChildren = new int[capacity];
+		siblings = new int[capacity];
+		rootChildren = new int[TERMINATOR + 1];
+		Arrays.fill(rootChildren, NIL);
+
+		newNode(0, 0);
+		build();
+
+		// Suffix links are only needed while building.
+		links = null;
+		countLeaves();
+	}
+
+	private static final int ROOT = 0;
+
+	private static final int NIL = -1;
+
+	/**
+	 * The symbol after the last char of the text, which matches no char.
+	 */
+	private static final int TERMINATOR = Character.MAX_VALUE + 1;
+
+	private final char text[];
+
+	private int nodeCount;
+
+	/**
+	 * The index in the text of the first char on the edge into each node.
+	 */
+	private int starts[];
+
+	/**
+	 * The index in the text after the last char on the edge into each node.
+	 */
+	private int ends[];
+
+	/**
+	 * The suffix link of each internal node.
+	 */
+	private int links[];
+
+	private int firstChildren[];
+
+	private int siblings[];
+
+	private int rootChildren[];
+
+	/**
+	 * The number of leaves, and so suffixes, below each node.
+	 */
+	private int leafCounts[];
+
+	/**
+	 * The smallest suffix below each node, which is where the string spelt out by the node first occurs.
+	 */
+	private int firstOccurrences[];
+
+	/**
+	 * @return The index of the first occurrence of 'p' in the text, or -1 if it does not occur.
+	 */
+	public int search(String p)
+	{
+		int node = findNode(p);
+
+		return (node == NIL ? -1 : firstOccurrences[node]);
 	}
 
-	String myString;
+	/**
+	 * @return The number of occurrences of 'p' in the text, overlapping ones included.
+	 */
+	public int count(String p)
+	{
+		int node = findNode(p);
 
-	TrieNode root = new TrieNode(-1, -1);
+		return (node == NIL ? 0 : leafCounts[node]);
+	}
 
-	private void insertString(int newStringStart, TrieNode root)
+	/**
+	 * @return The indices of every occurrence of 'p' in the text, in ascending order.
+	 */
+	public int[] findAll(String p)
 	{
-		Iterator childIter = root.getChildren().iterator();
-		boolean inserted = false;
+		int node = findNode(p);
+		if (node == NIL)
+		{
+			return (new int[0]);
+		}
 
-		while (childIter.hasNext() && !inserted)
+		int occurrences[] = new int[leafCounts[node]];
+		int occurrenceCount = 0;
+		int stack[] = new int[64];
+		int top = 0;
+		stack[top++] = node;
+
+		while (top > 0)
 		{
-			TrieNode currentChild = (TrieNode) childIter.next();
-			int nodeStart = currentChild.getStart();
-			int nodeEnd = currentChild.getEnd();
-
-			int nodeIndex = nodeStart;
-			int newStringIndex = newStringStart;
-			while (nodeIndex <= nodeEnd
-				&& newStringIndex < myString.length()
-				&& myString.charAt(nodeIndex) == myString.charAt(newStringIndex))
+			int currentNode = stack[--top];
+
+			if (isLeaf(currentNode))
 			{
-				nodeIndex++;
-				newStringIndex++;
+				occurrences[occurrenceCount++] = firstOccurrences[currentNode];
 			}
-
-			if (nodeIndex > nodeStart)
+			else
 			{
-				if (nodeIndex <= nodeEnd)
+				for (int child = firstChild(currentNode); child != NIL; child = nextChild(currentNode, child))
 				{
-					ArrayList currentChildren = currentChild.getChildren();
-					currentChild.setChildren(null);
-					currentChild.setValues(nodeStart, nodeIndex - 1);
-					
-					currentChild.addChild(nodeIndex, nodeEnd, currentChildren);
-					currentChild.addChild(newStringIndex, myString.length() - 1, null);
-				}
-				else
-				{
-					insertString(newStringIndex, currentChild);
+					if (top == stack.length)
+					{
+						stack = Arrays.copyOf(stack, top * 2);
+					}
+					stack[top++] = child;
 				}
-
-				inserted = true;
 			}
 		}
 
-		if (!inserted)
-		{
-			root.addChild(newStringStart, myString.length() - 1, null);
-		}
+		Arrays.sort(occurrences);
+
+		return (occurrences);
 	}
 
-	public int search(String p)
+	/**
+	 * @return The node at or below which the path spelling 'p' ends, or NIL if 'p' does not occur.
+	 */
+	private int findNode(String p)
 	{
-		return (search(p, root));
+		int node = ROOT;
+		int pIndex = 0;
+
+		while (pIndex < p.length())
+		{
+			int child = getChild(node, p.charAt(pIndex));
+			if (child == NIL)
+			{
+				return (NIL);
+			}
+
+			int end = ends[child];
+			for (int tIndex = starts[child]; tIndex < end && pIndex < p.length(); tIndex++, pIndex++)
+			{
+				if (symbol(tIndex) != p.charAt(pIndex))
+				{
+					return (NIL);
+				}
+			}
+
+			node = child;
+		}
+
+		return (node);
 	}
 
-	public int search(String p, TrieNode node)
+	/**
+	 * Ukkonen's algorithm. The active point (activeNode, activeEdge, activeLength) is where the longest suffix that
+	 * is already in the tree implicitly ends, and 'remainder' is the number of suffixes still to be made explicit.
+	 * Leaves are created ending at the terminator, so they grow with the text without being updated.
+	 */
+	private void build()
 	{
-		Iterator childIter = node.getChildren().iterator();
+		int n = text.length;
+		int activeNode = ROOT;
+		int activeEdge = 0;
+		int activeLength = 0;
+		int remainder = 0;
 
-		while (childIter.hasNext())
+		for (int index = 0; index <= n; index++)
 		{
-			TrieNode currentChild = (TrieNode) childIter.next();
-			int nodeStart = currentChild.getStart();
-			int nodeEnd = currentChild.getEnd();
+			int symbol = symbol(index);
+			int lastInternal = NIL;
+			remainder++;
 
-			boolean fail = false;
-			for (int nodeIndex = nodeStart; nodeIndex <= nodeEnd; nodeIndex++)
+			while (remainder > 0)
 			{
-				int matchIndex = 0;
-				while (nodeIndex + matchIndex <= nodeEnd && !fail)
+				if (activeLength == 0)
 				{
-					if (matchIndex < p.length())
-					{
-						if (myString.charAt(nodeIndex + matchIndex) != p.charAt(matchIndex))
-						{
-							fail = true;
-						}
-						else
-						{
-							matchIndex++;
-						}
-					}
-					else
+					activeEdge = index;
+				}
+
+				int next = getChild(activeNode, symbol(activeEdge));
+				if (next == NIL)
+				{
+					addChild(activeNode, newNode(index, n + 1));
+					if (lastInternal != NIL)
 					{
-						return (nodeIndex);
+						links[lastInternal] = activeNode;
+						lastInternal = NIL;
 					}
 				}
-
-				if (fail == false)
+				else
 				{
-					if (matchIndex == p.length())
+					int edgeLength = Math.min(ends[next], index + 1) - starts[next];
+					if (activeLength >= edgeLength)
 					{
-						return (nodeIndex);
+						// Walk down to the next node.
+						activeEdge += edgeLength;
+						activeLength -= edgeLength;
+						activeNode = next;
+						continue;
 					}
-					else
+
+					if (symbol(starts[next] + activeLength) == symbol)
 					{
-						if (search(p.substring(matchIndex), currentChild) == 0)
+						// The suffix is already in the tree, and so are all shorter ones.
+						if (lastInternal != NIL)
 						{
-							return (nodeIndex);
+							links[lastInternal] = activeNode;
 						}
+						activeLength++;
+						break;
+					}
+
+					int split = newNode(starts[next], starts[next] + activeLength);
+					replaceChild(activeNode, next, split);
+					starts[next] += activeLength;
+					addChild(split, newNode(index, n + 1));
+					addChild(split, next);
+
+					if (lastInternal != NIL)
+					{
+						links[lastInternal] = split;
 					}
+					lastInternal = split;
 				}
+
+				remainder--;
+				if (activeNode == ROOT && activeLength > 0)
+				{
+					activeLength--;
+					activeEdge = index - remainder + 1;
+				}
+				else if (activeNode != ROOT)
+				{
+					activeNode = links[activeNode];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Fills in the leaf count and first occurrence of every node. The nodes are listed in pre-order with an explicit
+	 * stack, as a repetitive text makes the tree as deep as the text is long, and then visited in reverse so that
+	 * every node comes after its children.
+	 */
+	private void countLeaves()
+	{
+		leafCounts = new int[nodeCount];
+		firstOccurrences = new int[nodeCount];
+		int depths[] = new int[nodeCount];
+		int order[] = new int[nodeCount];
+		int orderCount = 0;
+
+		// Every node is pushed exactly once.
+		int stack[] = new int[nodeCount];
+		int top = 0;
+		stack[top++] = ROOT;
+
+		while (top > 0)
+		{
+			int node = stack[--top];
+			order[orderCount++] = node;
+
+			for (int child = firstChild(node); child != NIL; child = nextChild(node, child))
+			{
+				depths[child] = depths[node] + ends[child] - starts[child];
+				stack[top++] = child;
+			}
+		}
+
+		for (int index = orderCount - 1; index >= 0; index--)
+		{
+			int node = order[index];
+
+			if (isLeaf(node))
+			{
+				leafCounts[node] = 1;
+				firstOccurrences[node] = text.length + 1 - depths[node];
+			}
+			else
+			{
+				int first = Integer.MAX_VALUE;
+				for (int child = firstChild(node); child != NIL; child = nextChild(node, child))
+				{
+					leafCounts[node] += leafCounts[child];
+					first = Math.min(first, firstOccurrences[child]);
+				}
+				firstOccurrences[node] = first;
 			}
+		}
+	}
+
+	private int symbol(int index)
+	{
+		return (index < text.length ? text[index] : TERMINATOR);
+	}
+
+	private boolean isLeaf(int node)
+	{
+		return (node != ROOT && ends[node] == text.length + 1);
+	}
 
-			int childSearch = search(p, currentChild);
-			if (childSearch != -1)
+	private int newNode(int start, int end)
+	{
+		starts[nodeCount] = start;
+		ends[nodeCount] = end;
+		links[nodeCount] = ROOT;
+		firstChildren[nodeCount] = NIL;
+		siblings[nodeCount] = NIL;
+
+		return (nodeCount++);
+	}
+
+	/**
+	 * @return The child of 'node' whose edge starts with 'symbol', or NIL.
+	 */
+	private int getChild(int node, int symbol)
+	{
+		if (node == ROOT)
+		{
+			return (rootChildren[symbol]);
+		}
+
+		for (int child = firstChildren[node]; child != NIL; child = siblings[child])
+		{
+			if (symbol(starts[child]) == symbol)
+			{
+				return (child);
+			}
+		}
+
+		return (NIL);
+	}
+
+	private void addChild(int node, int child)
+	{
+		if (node == ROOT)
+		{
+			rootChildren[symbol(starts[child])] = child;
+		}
+		else
+		{
+			siblings[child] = firstChildren[node];
+			firstChildren[node] = child;
+		}
+	}
+
+	/**
+	 * Puts 'newChild', whose edge starts with the same symbol, in the place of 'oldChild'.
+	 */
+	private void replaceChild(int node, int oldChild, int newChild)
+	{
+		if (node == ROOT)
+		{
+			rootChildren[symbol(starts[newChild])] = newChild;
+			return;
+		}
+
+		siblings[newChild] = siblings[oldChild];
+		if (firstChildren[node] == oldChild)
+		{
+			firstChildren[node] = newChild;
+		}
+		else
+		{
+			int previous = firstChildren[node];
+			while (siblings[previous] != oldChild)
+			{
+				previous = siblings[previous];
+			}
+			siblings[previous] = newChild;
+		}
+	}
+
+	private int firstChild(int node)
+	{
+		return (node == ROOT ? nextRootChild(0) : firstChildren[node]);
+	}
+
+	private int nextChild(int node, int child)
+	{
+		return (node == ROOT ? nextRootChild(symbol(starts[child]) + 1) : siblings[child]);
+	}
+
+	/**
+	 * @return The first child of the root whose edge starts with 'symbol' or a later symbol, or NIL.
+	 */
+	private int nextRootChild(int symbol)
+	{
+		for (; symbol <= TERMINATOR; symbol++)
+		{
+			if (rootChildren[symbol] != NIL)
 			{
-				return (childSearch);
+				return (rootChildren[symbol]);
 			}
 		}
 
-		return (-1);
+		return (NIL);
 	}
 }
@@ -0,0 +1,123 @@
+/////////////////////////////////////////////////
+/////////////////// CSR Graph ///////////////////
+/////////////////////////////////////////////////
+/**
+ * A directed graph with weighted edges in compressed sparse row form. Vertices are numbered 0 to numVertices - 1 and
+ * the edges leaving vertex v are edges offsets[v] to offsets[v + 1] - 1, edge e going to targets[e] with weight
+ * weights[e]. Three int arrays hold the whole graph, so a graph with millions of edges takes a few tens of megabytes
+ * and walking the edges of a vertex reads adjacent memory.
+ * 
+ * @author simple
+ */
+public class CSRGraph
+{
+	/**
+	 * Creates a graph from a list of edges. The edges leaving each vertex keep the order they have in the list.
+	 * 
+	 * @param numVertices The number of vertices. Every edge must start and end at a vertex below this.
+	 * @param sources The vertex each edge starts at.
+	 * @param ends The vertex each edge ends at.
+	 * @param edgeWeights The weight of each edge.
+	 * @param numEdges The number of edges, which are the first numEdges entries of the arrays.
+	 */
+	public CSRGraph(int numVertices, int sources[], int ends[], int edgeWeights[], int numEdges)
+	{
+		this.numVertices = numVertices;
+		offsets = new int[numVertices + 1];
+		targets = new int[numEdges];
+		weights = new int[numEdges];
+
+		for (int edge = 0; edge < numEdges; edge++)
+		{
+			if (sources[edge] < 0 || sources[edge] >= numVertices || ends[edge] < 0 || ends[edge] >= numVertices)
+			{
+				throw new IllegalArgumentException("Edge " + sources[edge] + " -> " + ends[edge]
+					+ " is not between two of the " + numVertices + " vertices");
+			}
+			offsets[sources[edge] + 1]++;
+		}
+		for (int vertex = 0; vertex < numVertices; vertex++)
+		{
+			offsets[vertex + 1] += offsets[vertex];
+		}
+
+		// Place every edge after the edges already placed for its start vertex.
+		int next[] = new int[numVertices];
+		System.arraycopy(offsets, 0, next, 0, numVertices);
+		for (int edge = 0; edge < numEdges; edge++)
+		{
+			int position = next[sources[edge]]++;
+			targets[position] = ends[edge];
+			weights[position] = edgeWeights[edge];
+		}
+	}
+
+	public final int numVertices;
+
+	public final int offsets[];
+
+	public final int targets[];
+
+	public final int weights[];
+
+	public int getNumEdges()
+	{
+		return (targets.length);
+	}
+
+	/**
+	 * @return The number of edges ending at every vertex.
+	 */
+	public int[] inDegrees()
+	{
+		int inDegrees[] = new int[numVertices];
+
+		for (int edge = 0; edge < targets.length; edge++)
+		{
+			inDegrees[targets[edge]]++;
+		}
+
+		return (inDegrees);
+	}
+
+	/**
+	 * Sorts the vertices into topological order, so that every edge goes from a vertex to one later in the order.
+	 * Vertices are taken from a stack of those whose incoming edges have all been passed, starting with the vertices
+	 * that no edge enters in increasing order.
+	 * 
+	 * @return The vertices in topological order, or null if the graph has a cycle.
+	 */
+	public int[] topologicalSort()
+	{
+		int inDegrees[] = inDegrees();
+		int sorted[] = new int[numVertices];
+		int numSorted = 0;
+
+		// The stack of vertices ready to be sorted is kept at the end of 'stack', growing downwards.
+		int stack[] = new int[numVertices];
+		int top = numVertices;
+		for (int vertex = numVertices - 1; vertex >= 0; vertex--)
+		{
+			if (inDegrees[vertex] == 0)
+			{
+				stack[--top] = vertex;
+			}
+		}
+
+		while (top < numVertices)
+		{
+			int vertex = stack[top++];
+			sorted[numSorted++] = vertex;
+
+			for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++)
+			{
+				if (--inDegrees[targets[edge]] == 0)
+				{
+					stack[--top] = targets[edge];
+				}
+			}
+		}
+
+		return (numSorted == numVertices ? sorted : null);
+	}
+}
@@ -1,10 +1,26 @@
+import java.io.File;
+import java.io.IOException;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /////////////////////////////////////////////////
 ////////////////////// GSAT /////////////////////
 /////////////////////////////////////////////////
 /**
+ * A local search solver for SAT problems in the GSAT family. Each restart starts from a random truth assignment and
+ * repeatedly flips one variable of an unsatisfied clause. With probability 'noise' the variable is chosen at random
+ * (the WalkSAT random walk); otherwise the variable whose flip breaks the fewest satisfied clauses is chosen, ties
+ * going to the one that makes the most unsatisfied clauses true. A variable that breaks nothing is always taken
+ * first. A noise of 0 gives a purely greedy search.
  * 
+ * The solver never re-evaluates the whole problem. It keeps, for every literal, the clauses it occurs in, and for
+ * every clause the number of true literals, so a flip only visits the clauses of the flipped variable. From these it
+ * keeps for every variable its make count (the unsatisfied clauses it occurs in) and its break count (the clauses
+ * in which it is the only true literal), and a list of the unsatisfied clauses from which the next clause to repair
+ * is drawn in constant time.
+ * 
+ * Usage: java GSAT [N] [C] [noise] [restarts] [flips] [seed], or java GSAT file.cnf [noise] [restarts] [flips]
+ * [seed] to solve a problem in DIMACS CNF format.
  * 
  * @author simple
  */
@@ -12,24 +28,63 @@ public class GSAT
 {
 	private static final int N = 100;
 	private static final int C = 1000;
-	private static final int MAX_RESTARTS = N;
-	private static final int MAX_CLIMBS = 5 * N;
 
 	/**
-	 * Generates a random 3SAT problem and attempts to solve it, outputting the truth assignment that solved the
-	 * solution apon success or outputting that no solution was found if this is the case.
+	 * The number of restarts, and of flips in each restart, made for every variable in the problem by default. At
+	 * least one restart is always made, so that a problem with no variables is still checked.
+	 */
+	private static final int RESTARTS_PER_VARIABLE = 1;
+	private static final int FLIPS_PER_VARIABLE = 100;
+
+	/**
+	 * The probability of a random walk step in WalkSAT that has been found to work well on random 3SAT problems.
+	 */
+	public static final double DEFAULT_NOISE = 0.5;
+
+	/**
+	 * The number of flips between checks of the flag that stops a search, a power of 2.
+	 */
+	private static final int STOP_CHECK_INTERVAL = 1024;
+
+	/**
+	 * Generates a random 3SAT problem, or reads one in DIMACS CNF format, and attempts to solve it, outputting the
+	 * truth assignment that solved the solution apon success or outputting that no solution was found if this is the
+	 * case.
 	 */
-	public static void main(String[] args)
+	public static void main(String[] args) throws IOException
 	{
-		Random3SATProblem problem = new Random3SATProblem(N, C);
+		Random3SATProblem problem;
+		int arg = 0;
+
+		if (args.length > 0 && new File(args[0]).isFile())
+		{
+			problem = Random3SATProblem.loadDimacs(new File(args[arg++]));
+		}
+		else
+		{
+			int n = args.length > arg ? Integer.parseInt(args[arg++]) : N;
+			int c = args.length > arg ? Integer.parseInt(args[arg++]) : C;
+			problem = new Random3SATProblem(n, c);
+		}
+
+		double noise = args.length > arg ? Double.parseDouble(args[arg++]) : DEFAULT_NOISE;
+		int maxRestarts = args.length > arg ? Integer.parseInt(args[arg++])
+			: defaultRestarts(problem);
+		int maxFlips = args.length > arg ? Integer.parseInt(args[arg++]) : FLIPS_PER_VARIABLE * problem.numVariables;
+		long seed = args.length > arg ? Long.parseLong(args[arg++]) : System.currentTimeMillis();
 
 		//output3SATProblem(problem);
-		
+
+		System.out.println("Variables: " + problem.numVariables + ", clauses: " + problem.clauses.length);
+
+		GSAT solver = new GSAT(problem, noise, maxRestarts, maxFlips);
+
 		long startTime = System.currentTimeMillis();
 
-		boolean solution[] = findSolution(problem);
-		
+		boolean solution[] = solver.findSolution(new Random(seed));
+
 		System.out.println("Time taken: " + (System.currentTimeMillis() - startTime));
+		System.out.println("Flips: " + solver.getFlips());
 
 		if (solution != null)
 		{
@@ -43,132 +98,395 @@ public class GSAT
 	}
 
 	/**
-	 * Attempts to find a solution to a 3SAT problem by generating random truth assignments for the variables in the
-	 * problem. MAX_RESTARTS truth assignments are generated. For every randomly generated truth assignment the
-	 * algorithm will find MAX_CLIMBS successors to the truth assignment.
+	 * Creates a solver with the default noise and numbers of restarts and flips.
 	 * 
-	 * @param problem The 3SAT problem to be solved.
+	 * @param problem The SAT problem to be solved.
+	 */
+	public GSAT(Random3SATProblem problem)
+	{
+		this(problem, DEFAULT_NOISE, defaultRestarts(problem), FLIPS_PER_VARIABLE * problem.numVariables);
+	}
+
+	private static int defaultRestarts(Random3SATProblem problem)
+	{
+		return (Math.max(1, RESTARTS_PER_VARIABLE * problem.numVariables));
+	}
+
+	/**
+	 * Creates a solver for a problem, indexing the clauses each literal occurs in.
 	 * 
-	 * @return The truth assignment that was successful in solving the problem or null if no solution was found.
+	 * @param problem The SAT problem to be solved. Clauses may have any number of literals.
+	 * @param noise The probability, from 0 to 1, of flipping a random variable of the chosen clause.
+	 * @param maxRestarts The number of random truth assignments to start from.
+	 * @param maxFlips The number of flips made from each starting truth assignment.
 	 */
-	private static boolean[] findSolution(Random3SATProblem problem)
+	public GSAT(Random3SATProblem problem, double noise, int maxRestarts, int maxFlips)
 	{
-		boolean truthAssignment[];
-		boolean truthAssignmentResults[] = new boolean[N];
-		Random rand = new Random(System.currentTimeMillis());
-		
-		resetResults(truthAssignmentResults);
+		if (noise < 0 || noise > 1)
+		{
+			throw new IllegalArgumentException("The noise must be between 0 and 1: " + noise);
+		}
 
-		for (int i = 0; i < MAX_RESTARTS; i++)
+		this.noise = noise;
+		this.maxRestarts = maxRestarts;
+		this.maxFlips = maxFlips;
+
+		numVariables = problem.numVariables;
+		numClauses = problem.clauses.length;
+
+		// The literals of every clause, one after another; literal 2v + 1 is variable v true and 2v is v false.
+		clauseOffsets = new int[numClauses + 1];
+		for (int clause = 0; clause < numClauses; clause++)
 		{
-			truthAssignment = GenerateTruthAssignment(rand);
+			int length = problem.clauses[clause].vars.length;
+			clauseOffsets[clause + 1] = clauseOffsets[clause] + length;
+			if (length == 0)
+			{
+				hasEmptyClause = true;
+			}
+		}
 
-			for (int j = 0; j < MAX_CLIMBS; j++)
+		clauseLiterals = new int[clauseOffsets[numClauses]];
+		int literalCounts[] = new int[2 * numVariables + 1];
+		for (int clause = 0; clause < numClauses; clause++)
+		{
+			Random3SATClause current = problem.clauses[clause];
+			for (int index = 0; index < current.vars.length; index++)
 			{
-				if (checkTruthAssignment(truthAssignment, truthAssignmentResults, problem))
-				{
-					return (truthAssignment);
-				}
+				int literal = 2 * current.vars[index] + (current.truth[index] ? 1 : 0);
+				clauseLiterals[clauseOffsets[clause] + index] = literal;
+				literalCounts[literal + 1]++;
+			}
+		}
 
-				generateSuccessorFor(truthAssignment, truthAssignmentResults);
-				resetResults(truthAssignmentResults);
+		// The clauses every literal occurs in, one literal after another.
+		occurrenceOffsets = literalCounts;
+		for (int literal = 0; literal < 2 * numVariables; literal++)
+		{
+			occurrenceOffsets[literal + 1] += occurrenceOffsets[literal];
+		}
+		occurrences = new int[clauseLiterals.length];
+		int next[] = new int[2 * numVariables];
+		for (int clause = 0; clause < numClauses; clause++)
+		{
+			for (int index = clauseOffsets[clause]; index < clauseOffsets[clause + 1]; index++)
+			{
+				int literal = clauseLiterals[index];
+				occurrences[occurrenceOffsets[literal] + next[literal]++] = clause;
 			}
 		}
 
-		return (null);
+		truthAssignment = new boolean[numVariables];
+		makeCounts = new int[numVariables];
+		breakCounts = new int[numVariables];
+		trueCounts = new int[numClauses];
+		trueVarSums = new int[numClauses];
+		unsatClauses = new int[numClauses];
+		unsatPositions = new int[numClauses];
 	}
 
+	private final double noise;
+
+	private final int maxRestarts;
+
+	private final int maxFlips;
+
+	private final int numVariables;
+
+	private final int numClauses;
+
+	private boolean hasEmptyClause;
+
+	/**
+	 * The literals of clause c are clauseLiterals[clauseOffsets[c]] to clauseLiterals[clauseOffsets[c + 1] - 1].
+	 */
+	private final int clauseOffsets[];
+
+	private final int clauseLiterals[];
+
 	/**
-	 * Generates a random truth assignment for each variable in the 3SAT problem.
+	 * The clauses literal l occurs in are occurrences[occurrenceOffsets[l]] to occurrences[occurrenceOffsets[l + 1]
+	 * - 1].
+	 */
+	private final int occurrenceOffsets[];
+
+	private final int occurrences[];
+
+	private final boolean truthAssignment[];
+
+	/**
+	 * The number of unsatisfied clauses each variable occurs in, which flipping it would satisfy.
+	 */
+	private final int makeCounts[];
+
+	/**
+	 * The number of clauses in which each variable gives the only true literal, which flipping it would break.
+	 */
+	private final int breakCounts[];
+
+	/**
+	 * The number of true literals in each clause.
+	 */
+	private final int trueCounts[];
+
+	/**
+	 * The sum of the variables of the true literals in each clause, which is the variable of the only true literal
+	 * when there is one.
+	 */
+	private final int trueVarSums[];
+
+	/**
+	 * The unsatisfied clauses, in no order, and the position of each in that list.
+	 */
+	private final int unsatClauses[];
+
+	private final int unsatPositions[];
+
+	private int numUnsat;
+
+	private long flips;
+
+	/**
+	 * @return The number of flips made by all calls to findSolution.
+	 */
+	public long getFlips()
+	{
+		return (flips);
+	}
+
+	/**
+	 * Attempts to find a solution to the problem. maxRestarts random truth assignments are generated and from each
+	 * the algorithm makes up to maxFlips flips.
 	 * 
-	 * @param rand A random number generator. This is passed as a parameter so that many calls to this method in
-	 * quick succession will generate different results.
+	 * @param rand A random number generator. The same seed always gives the same search.
 	 * 
-	 * @return The randomly generated truth assignment.
+	 * @return The truth assignment that was successful in solving the problem or null if no solution was found.
 	 */
-	private static boolean[] GenerateTruthAssignment(Random rand)
+	public boolean[] findSolution(Random rand)
 	{
-		boolean truthAssignment[] = new boolean[N];
+		return (findSolution(rand, null));
+	}
 
-		for (int index = 0; index < N; index++)
+	/**
+	 * Attempts to find a solution to the problem, giving up early once 'stop' is set. The flag is checked at every
+	 * restart and every STOP_CHECK_INTERVAL flips, so that solvers searching the same problem on other threads can
+	 * be told to stop when one of them finds a solution.
+	 * 
+	 * @param rand A random number generator. The same seed always gives the same search.
+	 * @param stop A flag set to stop the search, or null if the search is never stopped.
+	 * 
+	 * @return The truth assignment that was successful in solving the problem or null if no solution was found.
+	 */
+	public boolean[] findSolution(Random rand, AtomicBoolean stop)
+	{
+		if (hasEmptyClause)
 		{
-			truthAssignment[index] = rand.nextBoolean();
+			return (null);
 		}
 
-		return (truthAssignment);
+		for (int i = 0; i < maxRestarts; i++)
+		{
+			if (stop != null && stop.get())
+			{
+				return (null);
+			}
+
+			generateTruthAssignment(rand);
+
+			for (int j = 0; j < maxFlips; j++)
+			{
+				if (numUnsat == 0)
+				{
+					return (truthAssignment.clone());
+				}
+				if ((j & (STOP_CHECK_INTERVAL - 1)) == 0 && stop != null && stop.get())
+				{
+					return (null);
+				}
+
+				flip(chooseVariable(rand));
+			}
+
+			if (numUnsat == 0)
+			{
+				return (truthAssignment.clone());
+			}
+		}
+
+		return (null);
 	}
 
 	/**
-	 * Checks a 3SAT problem against a truth assignment to see if all of the clauses in the 3SAT problem will evaluate
-	 * to true. Also keeps track of whether a variable has been included in a clause and evaluated to false - this
-	 * information can be used to determine a good successor for the truth assignment currently being used.
-	 * 
-	 * @param truthAssignment[] The truth assignment to check against the 3SAT problem.
-	 * @param truthAssignmentResults[] Any variables that have been included in a clause and evaluated to false.
-	 * @param problem The 3SAT problem to check the truth assignment against.
-	 * 
-	 * @return True if the truth assignment solved the 3SAT problem, false otherwise.
+	 * Generates a random truth assignment for each variable and counts from scratch the true literals of every
+	 * clause and the make and break counts of every variable.
 	 */
-	private static boolean checkTruthAssignment(
-		boolean truthAssignment[],
-		boolean truthAssignmentResults[],
-		Random3SATProblem problem)
+	private void generateTruthAssignment(Random rand)
 	{
-		for (int clauseIndex = 0; clauseIndex < C; clauseIndex++)
+		for (int index = 0; index < numVariables; index++)
 		{
-			for (int varIndex = 0; varIndex < 3; varIndex++)
+			truthAssignment[index] = rand.nextBoolean();
+			makeCounts[index] = 0;
+			breakCounts[index] = 0;
+		}
+
+		numUnsat = 0;
+		for (int clause = 0; clause < numClauses; clause++)
+		{
+			int trueCount = 0;
+			int trueVarSum = 0;
+
+			for (int index = clauseOffsets[clause]; index < clauseOffsets[clause + 1]; index++)
 			{
-				// If the truth assignment for the variable being checked if the same as the truth assignment for it in
-				// the cluase.
-				if (truthAssignment[problem.clauses[clauseIndex].vars[varIndex]]
-					== problem.clauses[clauseIndex].truth[varIndex])
+				int literal = clauseLiterals[index];
+				if (truthAssignment[literal >>> 1] == ((literal & 1) != 0))
 				{
-					// Check the next clause if one exists.
-					varIndex = 3;
-					clauseIndex++;
+					trueCount++;
+					trueVarSum += literal >>> 1;
 				}
-				else
-				{
-					truthAssignmentResults[problem.clauses[clauseIndex].vars[varIndex]] = false;
+			}
 
-					// If this is the last variable in the clause this clause must not evaluate to true.
-					if (varIndex == 2)
-					{
-						return (false);
-					}
+			trueCounts[clause] = trueCount;
+			trueVarSums[clause] = trueVarSum;
+			if (trueCount == 0)
+			{
+				addUnsat(clause);
+				for (int index = clauseOffsets[clause]; index < clauseOffsets[clause + 1]; index++)
+				{
+					makeCounts[clauseLiterals[index] >>> 1]++;
 				}
 			}
+			else if (trueCount == 1)
+			{
+				breakCounts[trueVarSum]++;
+			}
 		}
+	}
 
-		return (true);
+	/**
+	 * Picks the variable to flip from a random unsatisfied clause.
+	 */
+	private int chooseVariable(Random rand)
+	{
+		int clause = unsatClauses[rand.nextInt(numUnsat)];
+		int start = clauseOffsets[clause];
+		int end = clauseOffsets[clause + 1];
+		int best = clauseLiterals[start] >>> 1;
+
+		for (int index = start + 1; index < end; index++)
+		{
+			int var = clauseLiterals[index] >>> 1;
+			if (breakCounts[var] < breakCounts[best]
+				|| (breakCounts[var] == breakCounts[best] && makeCounts[var] > makeCounts[best]))
+			{
+				best = var;
+			}
+		}
+
+		if (breakCounts[best] > 0 && noise > 0 && rand.nextDouble() < noise)
+		{
+			best = clauseLiterals[start + rand.nextInt(end - start)] >>> 1;
+		}
+
+		return (best);
 	}
 
 	/**
-	 * Generates a successor for a truth assignment. A successor is a truth assignment where only one variable has
-	 * a different truth value to the original truth assignment. It uses the results of the attempt to solve the 3SAT
-	 * problem with the truth assignment to find an appropriate variable to change.
-	 * 
-	 * @param truthAssignment[] The truth assignment to change.
-	 * @param truthAssignmentResults[] The results of the attempt to solve the 3SAT problem.
+	 * Flips 'var' and updates the counts of the clauses it occurs in and of their variables.
 	 */
-	private static void generateSuccessorFor(boolean truthAssignment[], boolean truthAssignmentResults[])
+	private void flip(int var)
 	{
-		for (int index = 0; index < N; index++)
+		flips++;
+		truthAssignment[var] = !truthAssignment[var];
+		int trueLiteral = 2 * var + (truthAssignment[var] ? 1 : 0);
+		int falseLiteral = trueLiteral ^ 1;
+
+		for (int index = occurrenceOffsets[trueLiteral]; index < occurrenceOffsets[trueLiteral + 1]; index++)
 		{
-			if (truthAssignmentResults[index] == false)
+			int clause = occurrences[index];
+			int trueCount = trueCounts[clause]++;
+
+			if (trueCount == 0)
 			{
-				if (truthAssignment[index])
+				// The clause is now satisfied by 'var' alone.
+				removeUnsat(clause);
+				for (int literal = clauseOffsets[clause]; literal < clauseOffsets[clause + 1]; literal++)
 				{
-					truthAssignment[index] = false;
+					makeCounts[clauseLiterals[literal] >>> 1]--;
 				}
-				else
+				breakCounts[var]++;
+			}
+			else if (trueCount == 1)
+			{
+				// The previously only true literal can now be flipped without breaking the clause.
+				breakCounts[trueVarSums[clause]]--;
+			}
+			trueVarSums[clause] += var;
+		}
+
+		for (int index = occurrenceOffsets[falseLiteral]; index < occurrenceOffsets[falseLiteral + 1]; index++)
+		{
+			int clause = occurrences[index];
+			int trueCount = --trueCounts[clause];
+			trueVarSums[clause] -= var;
+
+			if (trueCount == 0)
+			{
+				// 'var' was the only true literal, so the clause is now broken.
+				addUnsat(clause);
+				for (int literal = clauseOffsets[clause]; literal < clauseOffsets[clause + 1]; literal++)
 				{
-					truthAssignment[index] = true;
+					makeCounts[clauseLiterals[literal] >>> 1]++;
 				}
+				breakCounts[var]--;
+			}
+			else if (trueCount == 1)
+			{
+				// The remaining true literal is now the only one.
+				breakCounts[trueVarSums[clause]]++;
+			}
+		}
+	}
 
-				break;
+	private void addUnsat(int clause)
+	{
+		unsatPositions[clause] = numUnsat;
+		unsatClauses[numUnsat++] = clause;
+	}
+
+	private void removeUnsat(int clause)
+	{
+		int last = unsatClauses[--numUnsat];
+		unsatClauses[unsatPositions[clause]] = last;
+		unsatPositions[last] = unsatPositions[clause];
+	}
+
+	/**
+	 * Checks a SAT problem against a truth assignment to see if all of the clauses in the problem evaluate to true.
+	 * 
+	 * @param truthAssignment[] The truth assignment to check against the problem.
+	 * @param problem The SAT problem to check the truth assignment against.
+	 * 
+	 * @return True if the truth assignment solved the problem, false otherwise.
+	 */
+	public static boolean checkTruthAssignment(boolean truthAssignment[], Random3SATProblem problem)
+	{
+		for (int clauseIndex = 0; clauseIndex < problem.clauses.length; clauseIndex++)
+		{
+			Random3SATClause clause = problem.clauses[clauseIndex];
+			boolean satisfied = false;
+
+			for (int varIndex = 0; varIndex < clause.vars.length && !satisfied; varIndex++)
+			{
+				satisfied = truthAssignment[clause.vars[varIndex]] == clause.truth[varIndex];
+			}
+
+			if (!satisfied)
+			{
+				return (false);
 			}
 		}
+
+		return (true);
 	}
 
 	/**
@@ -178,9 +496,9 @@ public class GSAT
 	 */
 	private static void output3SATProblem(Random3SATProblem problem)
 	{
-		for (int clauseIndex = 0; clauseIndex < C; clauseIndex++)
+		for (int clauseIndex = 0; clauseIndex < problem.clauses.length; clauseIndex++)
 		{
-			for (int varIndex = 0; varIndex < 3; varIndex++)
+			for (int varIndex = 0; varIndex < problem.clauses[clauseIndex].vars.length; varIndex++)
 			{
 				System.out.print(
 					problem.clauses[clauseIndex].vars[varIndex]
@@ -201,23 +519,9 @@ public class GSAT
 	 */
 	private static void outputTruthAssignment(boolean truthAssignment[])
 	{
-		for (int index = 0; index < N; index++)
+		for (int index = 0; index < truthAssignment.length; index++)
 		{
 			System.out.print(truthAssignment[index] + " ");
 		}
 	}
-	
-	/**
-	 * Resets all of the results of an attempt to to solve the 3SAT problem with a truth assignment to true so that
-	 * results can be found again.
-	 * 
-	 * @param truthAssignmentResults[] The results to reset.
-	 */
-	private static void resetResults(boolean truthAssignmentResults[])
-	{
-		for (int index = 0; index < truthAssignmentResults.length; index++)
-		{
-			truthAssignmentResults[index] = true;
-		}
-	}
 }
@@ -0,0 +1,188 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/////////////////////////////////////////////////
+//////////// Longest Path Benchmark /////////////
+/////////////////////////////////////////////////
+/**
+ * Compares 'GetGold.DagDistances' with the level by level 'ParallelLongestPath' on random layered DAGs with the same
+ * number of vertices and edges but different numbers of levels. Each vertex of a level has edges to random vertices
+ * of the next level, so a DAG with few levels has wide frontiers to relax in parallel and one with many levels has
+ * narrow ones. The best time of several runs is reported, and the parallel results, down to the origin of every
+ * vertex, are checked against the sequential ones.
+ * 
+ * Usage: java LongestPathBenchmark [vertices] [edges per vertex] [levels] [repeats] (e.g. java LongestPathBenchmark
+ * 1000000 8 10,100,1000,10000,100000 5)
+ * 
+ * @author simple
+ */
+public class LongestPathBenchmark
+{
+	private static final int MAX_GOLD = 100;
+
+	public static final int SEQUENTIAL = 0;
+
+	public static final int PARALLEL = 1;
+
+	/**
+	 * Stops the JIT from eliminating work whose results are otherwise unused.
+	 */
+	private static long blackhole;
+
+	public static void main(String[] args)
+	{
+		int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int edgesPerVertex = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+		int levels[] = {10, 100, 1000, 10000, 100000};
+		if (args.length > 2)
+		{
+			String[] values = args[2].split(",");
+			levels = new int[values.length];
+			for (int index = 0; index < values.length; index++)
+			{
+				levels[index] = Integer.parseInt(values[index]);
+			}
+		}
+		int repeats = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		System.out.println("Threads: " + pool.getParallelism() + ", " + vertices + " vertices, " + edgesPerVertex
+			+ " edges per vertex");
+		System.out.println(String.format("%8s %10s %15s %15s %8s", "levels", "width", "sequential ms", "parallel ms",
+			"speedup"));
+
+		for (int index = 0; index < levels.length; index++)
+		{
+			CSRGraph graph = layeredGraph(vertices, edgesPerVertex, levels[index], index);
+			int width = Math.max(1, (vertices - 1) / Math.max(1, levels[index] - 1));
+			int t = vertices - 1;
+
+			int sequentialOrigins[] = new int[vertices];
+			int parallelOrigins[] = new int[vertices];
+			long sequentialTime = time(SEQUENTIAL, graph, sequentialOrigins, t, repeats, pool);
+			long parallelTime = time(PARALLEL, graph, parallelOrigins, t, repeats, pool);
+
+			int expected = GetGold.DagDistances(graph, sequentialOrigins, 0, t);
+			int found = ParallelLongestPath.dagDistances(graph, parallelOrigins, 0, t, pool);
+			if (found != expected || pathLength(graph, parallelOrigins, 0, t) != expected
+				|| !Arrays.equals(parallelOrigins, sequentialOrigins))
+			{
+				throw new IllegalStateException("The parallel longest path is wrong with " + levels[index] + " levels");
+			}
+
+			System.out.println(String.format("%8d %10d %15.1f %15.1f %8.2f", levels[index], width, sequentialTime
+				/ 1e6, parallelTime / 1e6, (double) sequentialTime / parallelTime));
+		}
+
+		System.out.println("(" + blackhole + ")");
+	}
+
+	/**
+	 * Creates a DAG whose vertices are split into 'levels' levels of consecutive vertices, vertex 0 alone in the
+	 * first level with an edge to every vertex of the second. Every other vertex but those of the last level has
+	 * 'edgesPerVertex' edges to vertices of the next level, the first to the vertex in the same position and the rest
+	 * to random ones, so every vertex can be reached from vertex 0.
+	 */
+	private static CSRGraph layeredGraph(int vertices, int edgesPerVertex, int levels, long seed)
+	{
+		Random rand = new Random(seed);
+		int width = Math.max(1, (vertices - 1) / Math.max(1, levels - 1));
+		int sources[] = new int[width + vertices * edgesPerVertex];
+		int ends[] = new int[sources.length];
+		int weights[] = new int[sources.length];
+		int numEdges = 0;
+
+		for (int vertex = 1; vertex <= width && vertex < vertices; vertex++)
+		{
+			sources[numEdges] = 0;
+			ends[numEdges] = vertex;
+			weights[numEdges] = rand.nextInt(MAX_GOLD);
+			numEdges++;
+		}
+
+		for (int vertex = 1; vertex < vertices; vertex++)
+		{
+			// Level l > 0 is vertices (l - 1) * width + 1 to l * width.
+			int nextStart = ((vertex - 1) / width + 1) * width + 1;
+			int nextEnd = Math.min(vertices, nextStart + width);
+			if (nextStart >= vertices)
+			{
+				break;
+			}
+
+			for (int edge = 0; edge < edgesPerVertex; edge++)
+			{
+				sources[numEdges] = vertex;
+				ends[numEdges] = nextStart + (edge == 0 ? (vertex - 1) % width % (nextEnd - nextStart) : rand
+					.nextInt(nextEnd - nextStart));
+				weights[numEdges] = rand.nextInt(MAX_GOLD);
+				numEdges++;
+			}
+		}
+
+		return (new CSRGraph(vertices, sources, ends, weights, numEdges));
+	}
+
+	/**
+	 * @return The best time in nanoseconds of finding the longest paths from vertex 0.
+	 */
+	private static long time(int method, CSRGraph graph, int origins[], int t, int repeats, ForkJoinPool pool)
+	{
+		long best = Long.MAX_VALUE;
+
+		// One untimed run to warm up.
+		for (int repeat = -1; repeat < repeats; repeat++)
+		{
+			long startTime = System.nanoTime();
+			int distance;
+			switch (method)
+			{
+				case SEQUENTIAL:
+					distance = GetGold.DagDistances(graph, origins, 0, t);
+					break;
+				default:
+					distance = ParallelLongestPath.dagDistances(graph, origins, 0, t, pool);
+					break;
+			}
+			long time = System.nanoTime() - startTime;
+
+			blackhole += distance;
+			if (repeat >= 0)
+			{
+				best = Math.min(best, time);
+			}
+		}
+
+		return (best);
+	}
+
+	/**
+	 * @return The total weight of the path to 't' given by 'origins', checking that it starts at 's' and uses edges of
+	 * the graph.
+	 */
+	private static int pathLength(CSRGraph graph, int origins[], int s, int t)
+	{
+		int length = 0;
+
+		for (int vertex = t; vertex != s; vertex = origins[vertex])
+		{
+			int origin = origins[vertex];
+			int best = Integer.MIN_VALUE;
+			for (int edge = graph.offsets[origin]; edge < graph.offsets[origin + 1]; edge++)
+			{
+				if (graph.targets[edge] == vertex)
+				{
+					best = Math.max(best, graph.weights[edge]);
+				}
+			}
+			if (best == Integer.MIN_VALUE)
+			{
+				throw new IllegalStateException("The path uses a missing edge " + origin + " -> " + vertex);
+			}
+			length += best;
+		}
+
+		return (length);
+	}
+}
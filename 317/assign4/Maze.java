@@ -0,0 +1,322 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/////////////////////////////////////////////////
+////////////////////// Maze /////////////////////
+/////////////////////////////////////////////////
+/**
+ * A maze of corridors read from a file of lines of the form
+ * 
+ * ENTER <vertex>
+ * EXIT <vertex>
+ * CORRIDOR <start vertex> <end vertex> <gold>
+ * 
+ * Lines starting with any other word are ignored. The corridors become the edges of a 'CSRGraph' with the gold as
+ * their weights, and the vertices are numbered 0 up to the largest vertex number in the file.
+ * 
+ * The file is read through a byte buffer and the numbers are parsed straight from the bytes, so reading creates no
+ * objects per line or per number and a maze of a million corridors is read in well under a second.
+ * 
+ * @author simple
+ */
+public class Maze
+{
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final byte ENTER[] = {'E', 'N', 'T', 'E', 'R'};
+
+	private static final byte EXIT[] = {'E', 'X', 'I', 'T'};
+
+	private static final byte CORRIDOR[] = {'C', 'O', 'R', 'R', 'I', 'D', 'O', 'R'};
+
+	private static final byte KEYWORDS[][] = {ENTER, EXIT, CORRIDOR};
+
+	private Maze(int enter, int exit, CSRGraph graph)
+	{
+		this.enter = enter;
+		this.exit = exit;
+		this.graph = graph;
+	}
+
+	/**
+	 * The vertex the maze is entered at, or -1 if the file did not give one.
+	 */
+	public final int enter;
+
+	/**
+	 * The vertex the maze is left at, or -1 if the file did not give one.
+	 */
+	public final int exit;
+
+	/**
+	 * The corridors of the maze, weighted by their gold.
+	 */
+	public final CSRGraph graph;
+
+	/**
+	 * Reads a maze from a file.
+	 * 
+	 * @throws IOException If the file cannot be read or a line is not in the maze format.
+	 */
+	public static Maze load(File file) throws IOException
+	{
+		InputStream in = new FileInputStream(file);
+
+		try
+		{
+			return (load(in));
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a maze from a stream, which is left open.
+	 * 
+	 * @throws IOException If the stream cannot be read or a line is not in the maze format.
+	 */
+	public static Maze load(InputStream in) throws IOException
+	{
+		Tokenizer tokenizer = new Tokenizer(in);
+		int enter = -1;
+		int exit = -1;
+		int maxVertex = -1;
+		int numEdges = 0;
+		int sources[] = new int[1024];
+		int ends[] = new int[1024];
+		int weights[] = new int[1024];
+
+		while (tokenizer.skipBlankLines())
+		{
+			byte keyword[] = tokenizer.readKeyword(KEYWORDS);
+
+			if (keyword == CORRIDOR)
+			{
+				if (numEdges == sources.length)
+				{
+					sources = Arrays.copyOf(sources, numEdges * 2);
+					ends = Arrays.copyOf(ends, numEdges * 2);
+					weights = Arrays.copyOf(weights, numEdges * 2);
+				}
+				sources[numEdges] = tokenizer.readVertex();
+				ends[numEdges] = tokenizer.readVertex();
+				weights[numEdges] = tokenizer.readInt();
+				maxVertex = Math.max(maxVertex, Math.max(sources[numEdges], ends[numEdges]));
+				numEdges++;
+			}
+			else if (keyword == ENTER)
+			{
+				enter = tokenizer.readVertex();
+				maxVertex = Math.max(maxVertex, enter);
+			}
+			else if (keyword == EXIT)
+			{
+				exit = tokenizer.readVertex();
+				maxVertex = Math.max(maxVertex, exit);
+			}
+
+			tokenizer.skipLine();
+		}
+
+		return (new Maze(enter, exit, new CSRGraph(maxVertex + 1, sources, ends, weights, numEdges)));
+	}
+
+	/**
+	 * Reads the bytes of a stream through a buffer, recognising the words and numbers of the maze format without
+	 * creating Strings.
+	 */
+	private static class Tokenizer
+	{
+		Tokenizer(InputStream in)
+		{
+			this.in = in;
+		}
+
+		private final InputStream in;
+
+		private final byte buffer[] = new byte[BUFFER_SIZE];
+
+		private int position = 0;
+
+		private int limit = 0;
+
+		private int line = 1;
+
+		/**
+		 * The first bytes of the last word read, long enough for every keyword.
+		 */
+		private final byte word[] = new byte[8];
+
+		/**
+		 * @return The next byte without consuming it, or -1 at the end of the stream.
+		 */
+		private int peek() throws IOException
+		{
+			if (position == limit)
+			{
+				limit = in.read(buffer, 0, buffer.length);
+				position = 0;
+				if (limit <= 0)
+				{
+					limit = 0;
+					return (-1);
+				}
+			}
+
+			return (buffer[position]);
+		}
+
+		private void skipSpaces() throws IOException
+		{
+			int c;
+			while ((c = peek()) == ' ' || c == '\t')
+			{
+				position++;
+			}
+		}
+
+		/**
+		 * Skips whitespace, including line ends.
+		 * 
+		 * @return False if the end of the stream was reached.
+		 */
+		boolean skipBlankLines() throws IOException
+		{
+			int c;
+			while ((c = peek()) == ' ' || c == '\t' || c == '\r' || c == '\n')
+			{
+				if (c == '\n')
+				{
+					line++;
+				}
+				position++;
+			}
+
+			return (c != -1);
+		}
+
+		/**
+		 * Skips the rest of the line and its line end.
+		 */
+		void skipLine() throws IOException
+		{
+			int c;
+			while ((c = peek()) != -1)
+			{
+				position++;
+				if (c == '\n')
+				{
+					line++;
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Reads the word at the start of a line.
+		 * 
+		 * @return The keyword that the word is, or null if it is not one of 'keywords'.
+		 */
+		byte[] readKeyword(byte keywords[][]) throws IOException
+		{
+			int length = 0;
+			int c;
+			while ((c = peek()) != ' ' && c != '\t' && c != '\r' && c != '\n' && c != -1)
+			{
+				if (length < word.length)
+				{
+					word[length] = (byte) c;
+				}
+				length++;
+				position++;
+			}
+
+			for (int index = 0; index < keywords.length; index++)
+			{
+				byte keyword[] = keywords[index];
+				if (keyword.length == length)
+				{
+					int matched = 0;
+					while (matched < length && word[matched] == keyword[matched])
+					{
+						matched++;
+					}
+					if (matched == length)
+					{
+						return (keyword);
+					}
+				}
+			}
+
+			return (null);
+		}
+
+		/**
+		 * Reads a number preceded by spaces and followed by a space or line end.
+		 */
+		int readInt() throws IOException
+		{
+			skipSpaces();
+
+			boolean negative = peek() == '-';
+			if (negative)
+			{
+				position++;
+			}
+
+			int c = peek();
+			if (c < '0' || c > '9')
+			{
+				throw error("Expected a number");
+			}
+
+			long value = 0;
+			while ((c = peek()) >= '0' && c <= '9')
+			{
+				value = value * 10 + (c - '0');
+				if (value > Integer.MAX_VALUE + 1L)
+				{
+					throw error("Number too large");
+				}
+				position++;
+			}
+
+			if (c != ' ' && c != '\t' && c != '\r' && c != '\n' && c != -1)
+			{
+				throw error("Expected a space after a number");
+			}
+
+			value = negative ? -value : value;
+			if (value > Integer.MAX_VALUE)
+			{
+				throw error("Number too large");
+			}
+
+			return ((int) value);
+		}
+
+		/**
+		 * Reads a vertex number, which must not be negative.
+		 */
+		int readVertex() throws IOException
+		{
+			int vertex = readInt();
+			if (vertex < 0 || vertex == Integer.MAX_VALUE)
+			{
+				throw error("Invalid vertex " + vertex);
+			}
+
+			return (vertex);
+		}
+
+		private IOException error(String message)
+		{
+			return (new IOException("Invalid maze format at line " + line + ": " + message));
+		}
+	}
+}
@@ -0,0 +1,260 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/////////////////////////////////////////////////
+///////////// Parallel Longest Path /////////////
+/////////////////////////////////////////////////
+/**
+ * Finds longest paths in a 'CSRGraph' DAG using every core, as 'GetGold.DagDistances' does on one thread. Instead of
+ * relaxing the vertices one at a time in topological order, Kahn's algorithm is run level by level: the frontier
+ * holds every vertex whose predecessors have all been relaxed, and the edges of all the vertices in the frontier are
+ * relaxed in parallel. A vertex joins the next frontier when the last of its incoming edges has been relaxed.
+ * 
+ * The distance and the origin of every vertex are packed into one long, the distance in the high 32 bits, and raised
+ * together with a compare-and-set loop, so a vertex's origin always belongs to its distance. The origin is packed as
+ * its reversed position in 'CSRGraph.topologicalSort', so when two paths to a vertex are equally long the one through
+ * the origin that comes first in that order is kept. That is the one 'GetGold.DagDistances' relaxes first and keeps,
+ * so both find the same path on every run although the order in which edges are relaxed here is not fixed. The
+ * topological sort also finds cycles; it is sequential, but takes a fraction of the time of the relaxation.
+ * 
+ * Every level ends with all threads waiting for each other, so this only pays off on wide DAGs with few levels; a
+ * long chain of vertices is far faster sequentially.
+ * 
+ * @author simple
+ */
+public class ParallelLongestPath
+{
+	/**
+	 * Frontiers with fewer vertices than this are relaxed by a single thread, and parts of larger frontiers this size
+	 * or smaller are relaxed without forking further tasks.
+	 */
+	public static final int SEQUENTIAL_THRESHOLD = 1 << 10;
+
+	/**
+	 * The packed distance and origin of a vertex with no origin, above every packed origin.
+	 */
+	private static final long NO_ORIGIN = 0xFFFFFFFFL;
+
+	/**
+	 * The packed distance and origin of a vertex that has not been reached.
+	 */
+	private static final long UNREACHED = (long) GetGold.UNREACHED << 32 | NO_ORIGIN;
+
+	/**
+	 * Finds the longest paths from 's' on the common pool.
+	 * 
+	 * @see #dagDistances(CSRGraph, int[], int, int, ForkJoinPool)
+	 */
+	public static int dagDistances(CSRGraph graph, int origins[], int s, int t)
+	{
+		return (dagDistances(graph, origins, s, t, ForkJoinPool.commonPool()));
+	}
+
+	/**
+	 * Finds the longest paths from 's' to every vertex, level by level on 'pool'.
+	 * 
+	 * @param graph The DAG to find the longest path within.
+	 * @param origins[] Filled with the vertex before each vertex on the longest path to it from s, or -1 for s and
+	 * for vertices that cannot be reached from s.
+	 * 
+	 * @return The length of the longest path from s to t, or GetGold.UNREACHED if there is no path or the graph has a
+	 * cycle.
+	 */
+	public static int dagDistances(CSRGraph graph, int origins[], int s, int t, ForkJoinPool pool)
+	{
+		int n = graph.numVertices;
+
+		int sortedVertices[] = graph.topologicalSort();
+		if (sortedVertices == null)
+		{
+			Arrays.fill(origins, -1);
+			System.out.println("Cycles found...");
+			return (GetGold.UNREACHED);
+		}
+
+		// Origins earlier in the sorted order are packed higher, so that they win ties.
+		int packedOrigins[] = new int[n];
+		for (int index = 0; index < n; index++)
+		{
+			packedOrigins[sortedVertices[index]] = n - 1 - index;
+		}
+
+		AtomicIntegerArray inDegrees = new AtomicIntegerArray(n);
+		AtomicLongArray paths = new AtomicLongArray(n);
+		AtomicInteger nextSize = new AtomicInteger();
+		int frontier[] = new int[n];
+		int next[] = new int[n];
+
+		run(new LevelTask(LevelTask.COUNT_IN_DEGREES, graph, packedOrigins, null, 0, n, inDegrees, paths, null,
+			nextSize), n, pool);
+
+		int frontierSize = 0;
+		for (int vertex = 0; vertex < n; vertex++)
+		{
+			paths.set(vertex, UNREACHED);
+			if (inDegrees.get(vertex) == 0)
+			{
+				frontier[frontierSize++] = vertex;
+			}
+		}
+		paths.set(s, NO_ORIGIN);
+
+		while (frontierSize > 0)
+		{
+			nextSize.set(0);
+			run(new LevelTask(LevelTask.RELAX_FRONTIER, graph, packedOrigins, frontier, 0, frontierSize, inDegrees,
+				paths, next, nextSize), frontierSize, pool);
+
+			int swap[] = frontier;
+			frontier = next;
+			next = swap;
+			frontierSize = nextSize.get();
+		}
+
+		for (int vertex = 0; vertex < n; vertex++)
+		{
+			long origin = paths.get(vertex) & NO_ORIGIN;
+			origins[vertex] = origin == NO_ORIGIN ? -1 : sortedVertices[n - 1 - (int) origin];
+		}
+
+		return ((int) (paths.get(t) >> 32));
+	}
+
+	/**
+	 * Runs 'task' on 'pool', or on the calling thread if it covers too few vertices to be worth splitting.
+	 */
+	private static void run(LevelTask task, int size, ForkJoinPool pool)
+	{
+		if (size <= SEQUENTIAL_THRESHOLD)
+		{
+			task.compute();
+		}
+		else
+		{
+			pool.invoke(task);
+		}
+	}
+
+	/**
+	 * Raises the packed distance and origin of 'vertex' to 'path' if that is larger.
+	 */
+	private static void raise(AtomicLongArray paths, int vertex, long path)
+	{
+		long current;
+		while (path > (current = paths.get(vertex)))
+		{
+			if (paths.compareAndSet(vertex, current, path))
+			{
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Does one step of the search for a range of vertices, splitting the range in half until it is small enough.
+	 */
+	private static class LevelTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Counts the incoming edges of vertices 'from' to 'to' - 1.
+		 */
+		static final int COUNT_IN_DEGREES = 0;
+
+		/**
+		 * Relaxes the edges of frontier[from] to frontier[to - 1], adding the vertices whose last incoming edge this
+		 * relaxes to the next frontier.
+		 */
+		static final int RELAX_FRONTIER = 1;
+
+		LevelTask(int step, CSRGraph graph, int packedOrigins[], int frontier[], int from, int to,
+			AtomicIntegerArray inDegrees, AtomicLongArray paths, int next[], AtomicInteger nextSize)
+		{
+			this.step = step;
+			this.graph = graph;
+			this.packedOrigins = packedOrigins;
+			this.frontier = frontier;
+			this.from = from;
+			this.to = to;
+			this.inDegrees = inDegrees;
+			this.paths = paths;
+			this.next = next;
+			this.nextSize = nextSize;
+		}
+
+		private final int step;
+
+		private final CSRGraph graph;
+
+		private final int packedOrigins[];
+
+		private final int frontier[];
+
+		private final int from;
+
+		private final int to;
+
+		private final AtomicIntegerArray inDegrees;
+
+		private final AtomicLongArray paths;
+
+		private final int next[];
+
+		private final AtomicInteger nextSize;
+
+		protected void compute()
+		{
+			if (to - from > SEQUENTIAL_THRESHOLD)
+			{
+				int middle = (from + to) >>> 1;
+				invokeAll(new LevelTask(step, graph, packedOrigins, frontier, from, middle, inDegrees, paths, next,
+					nextSize), new LevelTask(step, graph, packedOrigins, frontier, middle, to, inDegrees, paths, next,
+					nextSize));
+				return;
+			}
+
+			int offsets[] = graph.offsets;
+			int targets[] = graph.targets;
+			int weights[] = graph.weights;
+
+			switch (step)
+			{
+				case COUNT_IN_DEGREES:
+					for (int vertex = from; vertex < to; vertex++)
+					{
+						for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++)
+						{
+							inDegrees.incrementAndGet(targets[edge]);
+						}
+					}
+					break;
+				default:
+					for (int index = from; index < to; index++)
+					{
+						int vertex = frontier[index];
+						long distance = paths.get(vertex) >> 32;
+						long origin = packedOrigins[vertex];
+
+						for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++)
+						{
+							int target = targets[edge];
+							if (distance != GetGold.UNREACHED)
+							{
+								raise(paths, target, (distance + weights[edge]) << 32 | origin);
+							}
+							if (inDegrees.decrementAndGet(target) == 0)
+							{
+								next[nextSize.getAndIncrement()] = target;
+							}
+						}
+					}
+					break;
+			}
+		}
+	}
+}
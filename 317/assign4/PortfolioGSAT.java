@@ -0,0 +1,185 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/////////////////////////////////////////////////
+///////////////// Portfolio GSAT ////////////////
+/////////////////////////////////////////////////
+/**
+ * Searches for a solution to a SAT problem with several independent GSAT solvers at once, one per worker task on an
+ * ExecutorService. The restarts are shared out among the workers and each worker searches with its own noise and
+ * its own random number generator, so the workers explore different parts of the search space. The first worker to
+ * find a solution tells the others to stop.
+ * 
+ * Every worker's seed is derived from a single seed and the worker's number, so each worker makes the same flips
+ * every time it is run with the same seed. Which worker finishes first can still depend on the scheduling of the
+ * threads when several run at once.
+ * 
+ * @author simple
+ */
+public class PortfolioGSAT
+{
+	/**
+	 * The noise of each worker, repeated if there are more workers, spread around the best noise for random 3SAT
+	 * problems so that problems with a different best noise are still solved quickly by some worker.
+	 */
+	private static final double NOISES[] = {0.5, 0.4, 0.6, 0.3};
+
+	/**
+	 * Creates a portfolio of solvers with different noises.
+	 * 
+	 * @param problem The SAT problem to be solved.
+	 * @param workers The number of solvers, which should be the number of threads of the executor used.
+	 * @param maxRestarts The number of random truth assignments to start from, shared out among the solvers.
+	 * @param maxFlips The number of flips made from each starting truth assignment.
+	 */
+	public PortfolioGSAT(Random3SATProblem problem, int workers, int maxRestarts, int maxFlips)
+	{
+		this(problem, workers, NOISES, maxRestarts, maxFlips);
+	}
+
+	/**
+	 * Creates a portfolio of solvers.
+	 * 
+	 * @param problem The SAT problem to be solved.
+	 * @param workers The number of solvers, which should be the number of threads of the executor used.
+	 * @param noises The noise of each solver, repeated if there are more solvers than noises.
+	 * @param maxRestarts The number of random truth assignments to start from, shared out among the solvers.
+	 * @param maxFlips The number of flips made from each starting truth assignment.
+	 */
+	public PortfolioGSAT(Random3SATProblem problem, int workers, double noises[], int maxRestarts, int maxFlips)
+	{
+		if (workers < 1)
+		{
+			throw new IllegalArgumentException("A portfolio needs at least one worker: " + workers);
+		}
+
+		solvers = new GSAT[workers];
+		this.noises = new double[workers];
+		for (int worker = 0; worker < workers; worker++)
+		{
+			this.noises[worker] = noises[worker % noises.length];
+			int restarts = (maxRestarts - worker + workers - 1) / workers;
+			solvers[worker] = new GSAT(problem, this.noises[worker], restarts, maxFlips);
+		}
+	}
+
+	private final GSAT solvers[];
+
+	private final double noises[];
+
+	/**
+	 * The worker that found the last solution, or -1.
+	 */
+	private int winner = -1;
+
+	public int getWorkers()
+	{
+		return (solvers.length);
+	}
+
+	/**
+	 * @return The noise of a worker's solver.
+	 */
+	public double getNoise(int worker)
+	{
+		return (noises[worker]);
+	}
+
+	/**
+	 * @return The worker that found the solution returned by the last call to findSolution, or -1 if there was none.
+	 */
+	public int getWinner()
+	{
+		return (winner);
+	}
+
+	/**
+	 * @return The number of flips made by all of the workers in all calls to findSolution.
+	 */
+	public long getFlips()
+	{
+		long flips = 0;
+
+		for (int worker = 0; worker < solvers.length; worker++)
+		{
+			flips += solvers[worker].getFlips();
+		}
+
+		return (flips);
+	}
+
+	/**
+	 * Derives the seed of a worker's random number generator from the seed of a search, mixing the bits so that
+	 * workers with neighbouring numbers get unrelated sequences.
+	 */
+	public static long workerSeed(long seed, int worker)
+	{
+		long z = seed + (worker + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+		return (z ^ (z >>> 31));
+	}
+
+	/**
+	 * Runs every worker as a task on 'executor' and waits until one finds a solution and the rest have stopped, or
+	 * until all have given up.
+	 * 
+	 * @param seed The seed from which the seed of every worker is derived.
+	 * @param executor The executor to run the workers on. It needs a thread for every worker for them all to search
+	 * at once.
+	 * 
+	 * @return The truth assignment that was successful in solving the problem or null if no solution was found.
+	 * 
+	 * @throws InterruptedException If the calling thread is interrupted while waiting for the workers.
+	 */
+	public boolean[] findSolution(long seed, ExecutorService executor) throws InterruptedException
+	{
+		final AtomicBoolean stop = new AtomicBoolean(false);
+		final AtomicInteger firstWinner = new AtomicInteger(-1);
+		List<Callable<boolean[]>> tasks = new ArrayList<Callable<boolean[]>>();
+
+		for (int worker = 0; worker < solvers.length; worker++)
+		{
+			final int currentWorker = worker;
+			final Random rand = new Random(workerSeed(seed, worker));
+			tasks.add(new Callable<boolean[]>()
+			{
+				public boolean[] call()
+				{
+					boolean solution[] = solvers[currentWorker].findSolution(rand, stop);
+					if (solution != null && firstWinner.compareAndSet(-1, currentWorker))
+					{
+						stop.set(true);
+					}
+
+					return (solution);
+				}
+			});
+		}
+
+		try
+		{
+			List<Future<boolean[]>> futures = executor.invokeAll(tasks);
+			for (int index = 0; index < futures.size(); index++)
+			{
+				futures.get(index).get();
+			}
+
+			winner = firstWinner.get();
+
+			return (winner == -1 ? null : futures.get(winner).get());
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException("A worker failed", e.getCause());
+		}
+	}
+}
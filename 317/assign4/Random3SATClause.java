@@ -10,9 +10,15 @@ import java.util.Random;
  */
 public class Random3SATClause
 {
-	public int vars[] = new int[3];
+	/**
+	 * The variables of the literals in the clause, numbered from 0.
+	 */
+	public int vars[];
 
-	public boolean truth[] = new boolean[3];
+	/**
+	 * The value each variable must take for its literal to be true.
+	 */
+	public boolean truth[];
 
 	/**
 	 * Creates an instance of Random3SATClause, a clause in a 3SAT problem using random variables
@@ -24,6 +30,9 @@ public class Random3SATClause
 	 */
 	public Random3SATClause(int N, Random rand)
 	{
+		vars = new int[3];
+		truth = new boolean[3];
+
 		int currentVar = -1;
 		boolean varUsed;
 
@@ -55,4 +64,17 @@ public class Random3SATClause
 			truth[index] = rand.nextBoolean();
 		}
 	}
+
+	/**
+	 * Creates a clause with the given literals, which may number other than three when the clause was read from a
+	 * file.
+	 * 
+	 * @param vars The variables of the literals, numbered from 0.
+	 * @param truth The value each variable must take for its literal to be true.
+	 */
+	public Random3SATClause(int vars[], boolean truth[])
+	{
+		this.vars = vars;
+		this.truth = truth;
+	}
 }
@@ -1,4 +1,10 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.StringTokenizer;
 
 /////////////////////////////////////////////////
 ////////////// Random 3SAT Problem //////////////
@@ -11,7 +17,12 @@ import java.util.Random;
 public class Random3SATProblem
 {
 	public Random3SATClause clauses[];
-	
+
+	/**
+	 * The number of variables in the problem. Variables are numbered 0 to numVariables - 1.
+	 */
+	public int numVariables;
+
 	/**
 	 * Creates an instance of Random3SATProblem, a 3SAT problem with C clauses and random variables
 	 * (numbered 1 to N - 1).
@@ -21,12 +32,199 @@ public class Random3SATProblem
 	 */
 	public Random3SATProblem(int N, int C)
 	{
+		this(N, C, System.currentTimeMillis());
+	}
+
+	/**
+	 * Creates a random 3SAT problem with C clauses over N variables. The same seed always gives the same problem.
+	 * 
+	 * @param N The number of variables in the 3SAT problem.
+	 * @param C The number of clauses in the 3SAT problem.
+	 * @param seed The seed of the random number generator that chooses the clauses.
+	 */
+	public Random3SATProblem(int N, int C, long seed)
+	{
+		numVariables = N;
 		clauses = new Random3SATClause[C];
-		Random rand = new Random(System.currentTimeMillis());
-		
+		Random rand = new Random(seed);
+
 		for (int index = 0; index < C; index++)
 		{
 			clauses[index] = new Random3SATClause(N, rand);
 		}
 	}
+
+	private Random3SATProblem(int N, Random3SATClause clauses[])
+	{
+		numVariables = N;
+		this.clauses = clauses;
+	}
+
+	/**
+	 * Reads a problem in DIMACS CNF format: comment lines starting with 'c', a header line "p cnf <variables>
+	 * <clauses>", then each clause as a list of non-zero literals ended by 0, where literal v means variable v is
+	 * true and -v that it is false. Clauses may have any number of literals and may span lines; a line starting with
+	 * '%' ends the clauses, as in the SATLIB benchmark files.
+	 * 
+	 * Repeated literals are dropped from a clause and clauses that contain a variable and its negation, which every
+	 * truth assignment satisfies, are left out. The number of clauses read, including those left out, must be the
+	 * number declared in the header line.
+	 * 
+	 * @param file The file to read.
+	 * 
+	 * @return The problem, with DIMACS variable v numbered v - 1.
+	 * 
+	 * @throws IOException If the file cannot be read or is not in DIMACS CNF format.
+	 */
+	public static Random3SATProblem loadDimacs(File file) throws IOException
+	{
+		BufferedReader bufReader = new BufferedReader(new FileReader(file));
+
+		try
+		{
+			int N = -1;
+			int declaredClauses = -1;
+			Random3SATClause clauses[] = new Random3SATClause[16];
+			int numClauses = 0;
+			int clausesRead = 0;
+			int literals[] = new int[16];
+			int numLiterals = 0;
+			String line;
+
+			while ((line = bufReader.readLine()) != null)
+			{
+				line = line.trim();
+				if (line.length() == 0 || line.charAt(0) == 'c')
+				{
+					continue;
+				}
+				if (line.charAt(0) == '%')
+				{
+					break;
+				}
+
+				StringTokenizer tokens = new StringTokenizer(line);
+				if (line.charAt(0) == 'p')
+				{
+					tokens.nextToken();
+					if (N != -1 || tokens.countTokens() != 3 || !tokens.nextToken().equals("cnf"))
+					{
+						throw new IOException("Invalid problem line: " + line);
+					}
+					N = parseInt(tokens.nextToken(), line);
+					declaredClauses = parseInt(tokens.nextToken(), line);
+					if (N < 0 || declaredClauses < 0)
+					{
+						throw new IOException("Invalid problem line: " + line);
+					}
+					continue;
+				}
+				if (N == -1)
+				{
+					throw new IOException("Clause before the problem line: " + line);
+				}
+
+				while (tokens.hasMoreTokens())
+				{
+					int literal = parseInt(tokens.nextToken(), line);
+					if (literal < -N || literal > N)
+					{
+						throw new IOException("Literal " + literal + " is not one of the " + N + " variables");
+					}
+
+					if (literal != 0)
+					{
+						if (numLiterals == literals.length)
+						{
+							literals = Arrays.copyOf(literals, numLiterals * 2);
+						}
+						literals[numLiterals++] = literal;
+					}
+					else
+					{
+						Random3SATClause clause = createClause(literals, numLiterals);
+						numLiterals = 0;
+						clausesRead++;
+						if (clause != null)
+						{
+							if (numClauses == clauses.length)
+							{
+								clauses = Arrays.copyOf(clauses, numClauses * 2);
+							}
+							clauses[numClauses++] = clause;
+						}
+					}
+				}
+			}
+
+			if (N == -1)
+			{
+				throw new IOException("No problem line in " + file);
+			}
+			if (numLiterals > 0)
+			{
+				throw new IOException("The last clause is not ended by 0");
+			}
+			if (clausesRead != declaredClauses)
+			{
+				throw new IOException(file + " declares " + declaredClauses + " clauses but has " + clausesRead);
+			}
+
+			return (new Random3SATProblem(N, Arrays.copyOf(clauses, numClauses)));
+		}
+		finally
+		{
+			bufReader.close();
+		}
+	}
+
+	private static int parseInt(String token, String line) throws IOException
+	{
+		try
+		{
+			return (Integer.parseInt(token));
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IOException("Invalid number '" + token + "' in line: " + line);
+		}
+	}
+
+	/**
+	 * @return A clause of the DIMACS literals, or null if the clause is always true.
+	 */
+	private static Random3SATClause createClause(int literals[], int numLiterals)
+	{
+		int vars[] = new int[numLiterals];
+		boolean truth[] = new boolean[numLiterals];
+		int length = 0;
+
+		for (int index = 0; index < numLiterals; index++)
+		{
+			int var = Math.abs(literals[index]) - 1;
+			boolean value = literals[index] > 0;
+			boolean repeated = false;
+
+			for (int setVar = 0; setVar < length; setVar++)
+			{
+				if (vars[setVar] == var)
+				{
+					if (truth[setVar] != value)
+					{
+						return (null);
+					}
+					repeated = true;
+				}
+			}
+
+			if (!repeated)
+			{
+				vars[length] = var;
+				truth[length] = value;
+				length++;
+			}
+		}
+
+		return (new Random3SATClause(Arrays.copyOf(vars, length), Arrays.copyOf(truth, length)));
+	}
 }
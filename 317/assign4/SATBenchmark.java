@@ -0,0 +1,114 @@
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/////////////////////////////////////////////////
+///////////////// SAT Benchmark /////////////////
+/////////////////////////////////////////////////
+/**
+ * Runs 'PortfolioGSAT' with different numbers of threads on random 3SAT problems at the phase transition, where
+ * there are 4.26 clauses for every variable and the problems are hardest. Every thread count solves the same
+ * problems with the same seeds. For each thread count the benchmark reports how many problems were solved, the flips
+ * made per second by each thread and the distribution of the times taken to solve the problems that were solved.
+ * Around half of the problems at the phase transition have no solution; the search gives up on those after the given
+ * number of restarts.
+ * 
+ * Usage: java SATBenchmark [variables] [problems] [threads] [restarts] [flips] (e.g. java SATBenchmark 400 50
+ * 1,2,4,8 20 100000)
+ * 
+ * @author simple
+ */
+public class SATBenchmark
+{
+	private static final double RATIO = 4.26;
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		int variables = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int problems = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		int threads[] = {1, Runtime.getRuntime().availableProcessors()};
+		if (args.length > 2)
+		{
+			String[] values = args[2].split(",");
+			threads = new int[values.length];
+			for (int index = 0; index < values.length; index++)
+			{
+				threads[index] = Integer.parseInt(values[index]);
+			}
+		}
+		int restarts = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		int flips = args.length > 4 ? Integer.parseInt(args[4]) : 100 * variables;
+
+		int clauses = (int) Math.round(RATIO * variables);
+		Random3SATProblem problemSet[] = new Random3SATProblem[problems];
+		for (int index = 0; index < problems; index++)
+		{
+			problemSet[index] = new Random3SATProblem(variables, clauses, index);
+		}
+
+		System.out.println(variables + " variables, " + clauses + " clauses, " + problems + " problems, " + restarts
+			+ " restarts of " + flips + " flips");
+		System.out.println(String.format("%7s %7s %14s %10s %10s %10s %10s", "threads", "solved", "Mflips/s/core",
+			"min ms", "median ms", "90% ms", "max ms"));
+
+		for (int threadIndex = 0; threadIndex < threads.length; threadIndex++)
+		{
+			ExecutorService executor = Executors.newFixedThreadPool(threads[threadIndex]);
+
+			try
+			{
+				// One untimed run to warm up.
+				new PortfolioGSAT(problemSet[0], threads[threadIndex], restarts, flips).findSolution(0, executor);
+
+				long times[] = new long[problems];
+				int solved = 0;
+				long totalFlips = 0;
+				long totalTime = 0;
+
+				for (int index = 0; index < problems; index++)
+				{
+					PortfolioGSAT portfolio = new PortfolioGSAT(problemSet[index], threads[threadIndex], restarts,
+						flips);
+
+					long startTime = System.nanoTime();
+					boolean solution[] = portfolio.findSolution(index, executor);
+					long time = System.nanoTime() - startTime;
+
+					totalTime += time;
+					totalFlips += portfolio.getFlips();
+					if (solution != null)
+					{
+						if (!GSAT.checkTruthAssignment(solution, problemSet[index]))
+						{
+							throw new IllegalStateException("Worker " + portfolio.getWinner()
+								+ " returned a wrong solution to problem " + index);
+						}
+						times[solved++] = time;
+					}
+				}
+
+				Arrays.sort(times, 0, solved);
+				System.out.println(String.format("%7d %7s %14.2f %10s %10s %10s %10s", threads[threadIndex], solved
+					+ "/" + problems, totalFlips / (totalTime / 1e3) / threads[threadIndex], millis(times, solved, 0),
+					millis(times, solved, 0.5), millis(times, solved, 0.9), millis(times, solved, 1)));
+			}
+			finally
+			{
+				executor.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * @return The given quantile of the first 'count' sorted times, in milliseconds, or "-" if there are none.
+	 */
+	private static String millis(long times[], int count, double quantile)
+	{
+		if (count == 0)
+		{
+			return ("-");
+		}
+
+		return (String.format("%.1f", times[(int) Math.min(count - 1, Math.floor(quantile * count))] / 1e6));
+	}
+}